@@ -8,18 +8,25 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class MyProjectApplication {
 
 	public static void main(String[] args) {
-		Dotenv dotenv = Dotenv.configure()
-                .directory("C:/Users/007/Documents/myProject/backend")
-                .filename(".env")
-                .ignoreIfMalformed()
-                .ignoreIfMissing()
-                .load();
-			
-				
-		System.setProperty("DB_URL", dotenv.get("DB_URL"));
-		System.setProperty("DB_USER", dotenv.get("DB_USER"));
-		System.setProperty("DB_PASSWORD", dotenv.get("DB_PASSWORD"));
-		
+		loadDotenv();
 		SpringApplication.run(MyProjectApplication.class, args);
 	}
+
+	// Le .env (dossier courant, ou DOTENV_DIR) complète l'environnement sans jamais l'écraser :
+	// en conteneur, les variables DB_URL, DB_USER et DB_PASSWORD suffisent
+	static void loadDotenv() {
+		String directory = System.getenv().getOrDefault("DOTENV_DIR", ".");
+		Dotenv dotenv = Dotenv.configure()
+				.directory(directory)
+				.filename(".env")
+				.ignoreIfMalformed()
+				.ignoreIfMissing()
+				.load();
+
+		dotenv.entries(Dotenv.Filter.DECLARED_IN_ENV_FILE).forEach(entry -> {
+			if (System.getenv(entry.getKey()) == null && System.getProperty(entry.getKey()) == null) {
+				System.setProperty(entry.getKey(), entry.getValue());
+			}
+		});
+	}
 }
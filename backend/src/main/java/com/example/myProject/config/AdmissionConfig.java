@@ -0,0 +1,27 @@
+package com.example.myProject.config;
+
+import com.example.myProject.service.AdmissionControl;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(name = "myproject.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Bean
+    public WebMvcConfigurer admissionControlConfigurer(AdmissionControl admissionControl) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                // Juste après le jeton : une requête refusée ne doit toucher ni la base ni le tampon de sauvegarde
+                registry.addInterceptor(new AdmissionControlInterceptor(admissionControl))
+                        .addPathPatterns("/myProject/api/**")
+                        .order(Ordered.HIGHEST_PRECEDENCE + 1);
+            }
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.myProject.config;
+
+import com.example.myProject.service.AdmissionControl;
+import com.example.myProject.service.AdmissionControl.Operation;
+import com.example.myProject.service.AdmissionControl.Permit;
+import com.example.myProject.service.AdmissionRejectedException;
+import com.example.myProject.service.AuthenticatedUser;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Passe chaque requête de l'API par le contrôle d'admission avant tout accès à la base ; un refus
+ * répond 429 avec Retry-After. Le permis des opérations lourdes est rendu en fin de requête, ou en
+ * fin de flux pour /full/stream (traitement asynchrone).
+ */
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".permit";
+    private static final String PROJECT_PATTERN = "/myProject/api/projects/{id}";
+    private static final String MAIN_LINES_BATCH = "/myProject/api/main-lines/batch";
+    private static final String DETAIL_LINES_BATCH = "/myProject/api/detail-lines/batch";
+
+    private final AdmissionControl admissionControl;
+
+    public AdmissionControlInterceptor(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        // Second passage d'une requête asynchrone : déjà admise
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Operation operation = operation(request);
+        try {
+            Permit permit = admissionControl.admit(operation, user(request), company(request),
+                    operation.isHeavy() ? ReadYourWritesInterceptor.projectId(request) : null, request.getContentLengthLong());
+            request.setAttribute(PERMIT_ATTRIBUTE, permit);
+            return true;
+        } catch (AdmissionRejectedException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit != null) {
+            // Rendu à la fin du flux, y compris sur erreur ou délai dépassé
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    permit.release();
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit != null && !request.isAsyncStarted()) {
+            permit.release();
+        }
+    }
+
+    private static Operation operation(HttpServletRequest request) {
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return Operation.LIGHT;
+        }
+        return switch (request.getMethod() + " " + pattern) {
+            case "GET " + PROJECT_PATTERN + "/full", "GET " + PROJECT_PATTERN + "/full/stream" -> Operation.FULL_READ;
+            // La sauvegarde automatique finit en synchronisation complète du projet, comme PUT /full
+            case "PUT " + PROJECT_PATTERN + "/full", "PUT " + PROJECT_PATTERN + "/full/autosave" -> Operation.FULL_SYNC;
+            // Le projet n'est connu qu'en lisant le corps : le lot est pesé à sa taille
+            case "POST " + MAIN_LINES_BATCH, "POST " + DETAIL_LINES_BATCH -> Operation.BATCH_WRITE;
+            default -> Operation.LIGHT;
+        };
+    }
+
+    // Seul le jeton est cru : sans lui, chaque adresse cliente compte comme un utilisateur
+    private static String user(HttpServletRequest request) {
+        AuthenticatedUser authenticated = AuthTokenInterceptor.authenticatedUser(request);
+        return authenticated != null ? authenticated.userId().toString() : "ip:" + request.getRemoteAddr();
+    }
+
+    // Sans jeton, la société est tirée de la ligne du projet (opérations lourdes), jamais d'un en-tête
+    private static Long company(HttpServletRequest request) {
+        AuthenticatedUser authenticated = AuthTokenInterceptor.authenticatedUser(request);
+        return authenticated != null ? authenticated.companyId() : null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.myProject.config;
+
+import com.example.myProject.service.AuthTokenService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class AuthConfig {
+
+    private static final String USERS = "/myProject/api/users/**";
+
+    @Bean
+    public WebMvcConfigurer authTokenConfigurer(AuthTokenService tokenService) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                // Avant l'admission : les quotas par utilisateur et par société s'appliquent à l'appelant du jeton
+                registry.addInterceptor(new AuthTokenInterceptor(tokenService, false))
+                        .addPathPatterns("/myProject/api/**")
+                        .excludePathPatterns(USERS)
+                        .order(Ordered.HIGHEST_PRECEDENCE);
+                // Les comptes portent la société qui fait foi dans les jetons : jamais lus ni écrits sans jeton
+                registry.addInterceptor(new AuthTokenInterceptor(tokenService, true))
+                        .addPathPatterns(USERS)
+                        .order(Ordered.HIGHEST_PRECEDENCE);
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.myProject.config;
+
+import com.example.myProject.service.AuthTokenService;
+import com.example.myProject.service.AuthenticatedUser;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Optional;
+
+/**
+ * Vérifie le jeton Authorization: Bearer ... et expose l'appelant aux intercepteurs suivants (admission,
+ * filtre société) sans lire la base. Un jeton invalide ou expiré répond 401 ; une requête sans jeton
+ * passe telle quelle, sauf sur les routes où le jeton est exigé (required).
+ */
+public class AuthTokenInterceptor implements HandlerInterceptor {
+
+    private static final String BEARER = "Bearer ";
+    private static final String USER_ATTRIBUTE = AuthTokenInterceptor.class.getName() + ".user";
+
+    private final AuthTokenService tokenService;
+    private final boolean required;
+
+    public AuthTokenInterceptor(AuthTokenService tokenService, boolean required) {
+        this.tokenService = tokenService;
+        this.required = required;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            if (required) {
+                response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+                response.sendError(HttpStatus.UNAUTHORIZED.value(), "Jeton requis");
+                return false;
+            }
+            return true;
+        }
+        Optional<AuthenticatedUser> user = tokenService.verify(header.substring(BEARER.length()).trim());
+        if (user.isEmpty()) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), "Jeton invalide ou expiré");
+            return false;
+        }
+        request.setAttribute(USER_ATTRIBUTE, user.get());
+        return true;
+    }
+
+    public static AuthenticatedUser authenticatedUser(HttpServletRequest request) {
+        return (AuthenticatedUser) request.getAttribute(USER_ATTRIBUTE);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.myProject.config;
+
+import com.example.myProject.service.AutosaveBuffer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class AutosaveConfig {
+
+    @Bean
+    public WebMvcConfigurer autosaveFlushConfigurer(AutosaveBuffer autosaveBuffer) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                // Avant l'intercepteur de lecture sur le primaire : l'écriture vidée rend le projet « récent »
+                registry.addInterceptor(new AutosaveFlushInterceptor(autosaveBuffer))
+                        .addPathPatterns("/myProject/api/projects/*/full", "/myProject/api/projects/*/full/stream",
+                                "/myProject/api/projects/*/totals", "/myProject/api/projects/*/autosave/rejected")
+                        .order(Ordered.HIGHEST_PRECEDENCE + 2);
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.myProject.config;
+
+import com.example.myProject.service.AutosaveBuffer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Écrit les sauvegardes automatiques en attente d'un projet avant de le lire en entier ou de le synchroniser,
+// hors de toute transaction de la requête
+public class AutosaveFlushInterceptor implements HandlerInterceptor {
+
+    private final AutosaveBuffer autosaveBuffer;
+
+    public AutosaveFlushInterceptor(AutosaveBuffer autosaveBuffer) {
+        this.autosaveBuffer = autosaveBuffer;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Long projectId = ReadYourWritesInterceptor.projectId(request);
+        if (projectId != null) {
+            autosaveBuffer.flush(projectId);
+        }
+        return true;
+    }
+}
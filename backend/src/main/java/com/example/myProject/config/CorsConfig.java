@@ -16,7 +16,9 @@ public class CorsConfig {
                 registry.addMapping("/**")
                         .allowedOrigins("http://localhost:5173")
                         .allowedMethods("*")
-                        .allowedHeaders("*");
+                        .allowedHeaders("*")
+                        // Révision écrite, renvoyée par le client sur ses lectures (lecture de ses écritures)
+                        .exposedHeaders(ReadYourWritesInterceptor.READ_AFTER_HEADER);
             }
         };
     }
@@ -0,0 +1,40 @@
+package com.example.myProject.config;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Renseigne project_id sur les lignes et détails créés avant l'ajout de la colonne.
+ * Passe avant les autres initialisations au démarrage, qui s'appuient dessus (résumés, ...).
+ */
+@Component
+public class LineProjectIdBackfill {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LineProjectIdBackfill(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int lines = jdbcTemplate.update("""
+                UPDATE main_table_line
+                SET project_id = (SELECT c.project_id FROM chapter c WHERE c.id = main_table_line.chapter_id)
+                WHERE project_id IS NULL
+                """);
+        int details = jdbcTemplate.update("""
+                UPDATE detail_table_line
+                SET project_id = (SELECT l.project_id FROM main_table_line l WHERE l.id = detail_table_line.main_table_line_id)
+                WHERE project_id IS NULL
+                """);
+        if (lines > 0 || details > 0) {
+            System.out.println("✅ project_id renseigné sur " + lines + " lignes et " + details + " détails");
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.myProject.config;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Crée au démarrage les éléments de schéma MySQL que Hibernate ne sait pas générer
+ * avec ddl-auto=update (index FULLTEXT, ...). Chaque index n'est créé que s'il manque.
+ */
+@Component
+public class MySqlSchemaInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+
+    public MySqlSchemaInitializer(JdbcTemplate jdbcTemplate, DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!isMySql()) {
+            return;
+        }
+        ensureIndex("chapter", "ft_chapter_label_content",
+                "ALTER TABLE chapter ADD FULLTEXT INDEX ft_chapter_label_content (label, content)");
+        ensureIndex("main_table_line", "ft_main_table_line_text",
+                "ALTER TABLE main_table_line ADD FULLTEXT INDEX ft_main_table_line_text (title, comments, num)");
+    }
+
+    private void ensureIndex(String table, String indexName, String ddl) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics " +
+                        "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?",
+                Integer.class, table, indexName);
+        if (count == null || count == 0) {
+            jdbcTemplate.execute(ddl);
+            System.out.println("✅ Index " + indexName + " créé sur " + table);
+        }
+    }
+
+    private boolean isMySql() {
+        try (Connection connection = dataSource.getConnection()) {
+            return "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
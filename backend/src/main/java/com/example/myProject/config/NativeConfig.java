@@ -0,0 +1,59 @@
+package com.example.myProject.config;
+
+import com.example.myProject.dto.ProjectFullDTO;
+import com.example.myProject.dto.ProjectRevisionDTO;
+import com.example.myProject.dto.UnitTotalDTO;
+import com.example.myProject.event.ProjectChangedEvent;
+import com.example.myProject.model.*;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.List;
+
+/**
+ * Indices pour l'image native (profil Maven native). L'AOT de Spring couvre déjà les dépôts et les
+ * types des signatures de contrôleurs ; restent les accès réflexifs qu'il ne voit pas : entités
+ * (Hibernate et Jackson via les accesseurs Lombok), constructeurs des projections JPQL
+ * (SELECT new ...) et objets sérialisés hors contrôleurs (SSE, archives, historique, journal des
+ * sauvegardes automatiques).
+ * Aucun proxy JDK/Hibernate à déclarer : les entités n'ont pas d'association paresseuse.
+ */
+@Configuration
+@ImportRuntimeHints(NativeConfig.EntityHints.class)
+@RegisterReflectionForBinding({ProjectChangedEvent.class, ProjectFullDTO.class})
+public class NativeConfig {
+
+    static final List<Class<?>> ENTITIES = List.of(
+            Project.class, Chapter.class, MainTableLine.class, DetailTableLine.class, Company.class, User.class,
+            PriceLibraryItem.class, ProjectArchive.class, ProjectRevision.class,
+            ProjectSummary.class, ChapterSummary.class, UnitSummary.class, CompanySummary.class);
+
+    static final List<Class<?>> JPQL_PROJECTIONS = List.of(UnitTotalDTO.class, ProjectRevisionDTO.class);
+
+    static class EntityHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (Class<?> entity : ENTITIES) {
+                hints.reflection().registerType(entity,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_DECLARED_METHODS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            for (Class<?> projection : JPQL_PROJECTIONS) {
+                hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+            // Record package-private du service : référencé par son nom
+            hints.reflection().registerType(TypeReference.of("com.example.myProject.service.AutosaveLog$Entry"),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+    }
+}
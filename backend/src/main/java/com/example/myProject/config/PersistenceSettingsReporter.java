@@ -0,0 +1,125 @@
+package com.example.myProject.config;
+
+import com.example.myProject.dto.PersistenceSettingsDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Relève au démarrage les réglages effectifs du pool, de Hibernate et du pilote MySQL, signale
+ * ceux qui manquent par rapport au profil perf, et les expose via /diagnostics/persistence.
+ */
+@Component
+public class PersistenceSettingsReporter {
+
+    private static final List<String> HIBERNATE_KEYS = List.of(
+            "hibernate.jdbc.batch_size",
+            "hibernate.order_inserts",
+            "hibernate.order_updates",
+            "hibernate.jdbc.batch_versioned_data",
+            "hibernate.show_sql"
+    );
+
+    private static final Map<String, String> RECOMMENDED_DRIVER = Map.of(
+            "rewriteBatchedStatements", "true",
+            "cachePrepStmts", "true",
+            "useServerPrepStmts", "true"
+    );
+
+    private final DataSource dataSource;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Environment environment;
+
+    public PersistenceSettingsReporter(DataSource dataSource, EntityManagerFactory entityManagerFactory, Environment environment) {
+        this.dataSource = dataSource;
+        this.entityManagerFactory = entityManagerFactory;
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportAtStartup() {
+        PersistenceSettingsDTO settings = collect();
+        System.out.println("ℹ️ Pool : " + settings.getPool() + " | Hibernate : " + settings.getHibernate());
+        for (String warning : settings.getWarnings()) {
+            System.out.println("⚠️ " + warning);
+        }
+    }
+
+    public PersistenceSettingsDTO collect() {
+        Map<String, Object> pool = new LinkedHashMap<>();
+        Map<String, Object> driver = new TreeMap<>();
+        Map<String, Object> hibernate = new LinkedHashMap<>();
+        List<String> warnings = new ArrayList<>();
+
+        HikariDataSource hikari = unwrapHikari();
+        if (hikari != null) {
+            pool.put("poolName", hikari.getPoolName());
+            pool.put("maximumPoolSize", hikari.getMaximumPoolSize());
+            pool.put("minimumIdle", hikari.getMinimumIdle());
+            pool.put("connectionTimeoutMs", hikari.getConnectionTimeout());
+            pool.put("maxLifetimeMs", hikari.getMaxLifetime());
+            hikari.getDataSourceProperties().forEach((key, value) -> driver.put(key.toString(), value));
+            driver.putAll(urlParameters(hikari.getJdbcUrl()));
+        } else {
+            // Routage vers des réplicas : chaque pool reprend spring.datasource.hikari.*
+            pool.put("routed", true);
+            pool.put("maximumPoolSize", environment.getProperty("spring.datasource.hikari.maximum-pool-size", "10 (défaut)"));
+            driver.putAll(urlParameters(environment.getProperty("spring.datasource.url")));
+        }
+
+        Map<String, Object> jpaProperties = entityManagerFactory.getProperties();
+        for (String key : HIBERNATE_KEYS) {
+            hibernate.put(key, jpaProperties.getOrDefault(key, "non défini"));
+        }
+
+        if (!jpaProperties.containsKey("hibernate.jdbc.batch_size")) {
+            warnings.add("hibernate.jdbc.batch_size non défini : aucune écriture n'est regroupée par lots");
+        }
+        for (String key : List.of("hibernate.order_inserts", "hibernate.order_updates")) {
+            if (!"true".equals(String.valueOf(jpaProperties.get(key)))) {
+                warnings.add(key + " n'est pas activé");
+            }
+        }
+        RECOMMENDED_DRIVER.forEach((key, expected) -> {
+            if (!expected.equalsIgnoreCase(String.valueOf(driver.get(key)))) {
+                warnings.add("Propriété du pilote " + key + "=" + expected + " absente");
+            }
+        });
+
+        PersistenceSettingsDTO settings = new PersistenceSettingsDTO();
+        settings.setPool(pool);
+        settings.setHibernate(hibernate);
+        settings.setDriver(driver);
+        settings.setWarnings(warnings);
+        return settings;
+    }
+
+    private HikariDataSource unwrapHikari() {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Object> urlParameters(String url) {
+        Map<String, Object> parameters = new TreeMap<>();
+        if (url == null || !url.contains("?")) {
+            return parameters;
+        }
+        for (String pair : url.substring(url.indexOf('?') + 1).split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                parameters.put(pair.substring(0, equals), pair.substring(equals + 1));
+            }
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.myProject.config;
+
+import com.example.myProject.service.PasswordHasher;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Remplace les mots de passe historiques encore stockés en clair par leur empreinte BCrypt (V14).
+ * Ne trouve plus rien une fois passée : la connexion n'accepte que des empreintes.
+ */
+@Component
+public class PlaintextPasswordMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordHasher passwordHasher;
+
+    public PlaintextPasswordMigration(JdbcTemplate jdbcTemplate, PasswordHasher passwordHasher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordHasher = passwordHasher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void hashPlaintextPasswords() {
+        // Les empreintes BCrypt commencent toutes par $2 : seul le reste est relu et vérifié
+        List<Object[]> candidates = jdbcTemplate.query(
+                "SELECT id, password FROM users WHERE password IS NOT NULL AND password NOT LIKE '$2%'",
+                (rs, i) -> new Object[]{rs.getLong("id"), rs.getString("password")});
+        int migrated = 0;
+        for (Object[] candidate : candidates) {
+            String plaintext = (String) candidate[1];
+            if (PasswordHasher.isHash(plaintext)) {
+                continue;
+            }
+            // Conditionné à l'ancienne valeur : un mot de passe changé entre-temps n'est pas écrasé
+            migrated += jdbcTemplate.update(
+                    "UPDATE users SET password = ?, updated_at = ? WHERE id = ? AND password = ?",
+                    passwordHasher.hash(plaintext), Timestamp.valueOf(LocalDateTime.now()), candidate[0], plaintext);
+        }
+        if (migrated > 0) {
+            System.out.println("✅ " + migrated + " mots de passe en clair remplacés par leur empreinte BCrypt");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.myProject.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Active le routage lecture/écriture quand myproject.datasource.replica-urls est renseigné.
+ * Les réplicas utilisent les mêmes identifiants et la même configuration Hikari que le primaire.
+ * Exige spring.jpa.open-in-view=false : une session ouverte sur toute la requête garde la connexion
+ * de sa première transaction, et un findById read-only ferait passer le save suivant par le réplica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "myproject.datasource.replica-urls")
+public class ReadReplicaConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            @Value("${myproject.datasource.replica-urls}") List<String> replicaUrls,
+            @Value("${spring.jpa.open-in-view:true}") boolean openInView
+    ) {
+        if (openInView) {
+            throw new IllegalStateException("myproject.datasource.replica-urls exige spring.jpa.open-in-view=false");
+        }
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRoutingDataSource.PRIMARY, pool(properties, environment, properties.determineUrl(), "primary"));
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            targets.put(ReplicaRoutingDataSource.replicaKey(i),
+                    pool(properties, environment, replicaUrls.get(i).trim(), ReplicaRoutingDataSource.replicaKey(i)));
+        }
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaUrls.size());
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(targets.get(ReplicaRoutingDataSource.PRIMARY));
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${myproject.datasource.read-your-writes-seconds:5}") long stickySeconds
+    ) {
+        return new ReadYourWritesTracker(stickySeconds * 1000);
+    }
+
+    @Bean
+    public WebMvcConfigurer readYourWritesConfigurer(
+            ReadYourWritesTracker tracker,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager
+    ) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ReadYourWritesInterceptor(tracker, jdbcTemplate, transactionManager));
+            }
+        };
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String url, String name) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName("myProject-" + name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.myProject.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Lecture de ses propres écritures avec des réplicas. Chaque écriture répond l'en-tête X-Read-After
+ * (projectId:révision, séparés par des virgules si la requête touche plusieurs projets) ; le client le
+ * renvoie sur ses lectures suivantes, quel que soit le nœud qui les reçoit. Le projet de la lecture
+ * (route /projects/{id} ou chapitre, ligne, détail désigné par l'URL) est alors relu sur un réplica
+ * retenu pour toute la requête : en retard sur la révision demandée, la requête passe sur le primaire.
+ * Sans en-tête, le projet écrit depuis ce nœud il y a moins de read-your-writes-seconds reste sur le primaire.
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    public static final String READ_AFTER_HEADER = "X-Read-After";
+
+    private static final String WRITTEN = ReadYourWritesInterceptor.class.getName() + ".written";
+
+    private final ReadYourWritesTracker tracker;
+    private final RequestProjectResolver projectResolver;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ReadYourWritesInterceptor(ReadYourWritesTracker tracker, JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager) {
+        this.tracker = tracker;
+        this.projectResolver = new RequestProjectResolver(jdbcTemplate);
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Long projectId = projectResolver.projectId(request);
+        if (projectId == null) {
+            return true;
+        }
+        if (tracker.isSticky(projectId)) {
+            ReplicaRoutingDataSource.forcePrimary();
+            return true;
+        }
+        Long readAfter = readAfter(request.getHeader(READ_AFTER_HEADER), projectId);
+        if (readAfter != null) {
+            ReplicaRoutingDataSource.pinReplica();
+            List<Long> replicated = readOnlyTransaction.execute(status ->
+                    jdbcTemplate.queryForList("SELECT revision FROM project WHERE id = ?", Long.class, projectId));
+            if (replicated == null || replicated.isEmpty() || replicated.get(0) < readAfter) {
+                ReplicaRoutingDataSource.forcePrimary();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReplicaRoutingDataSource.clearForcePrimary();
+    }
+
+    // Après la validation d'une écriture faite par une requête HTTP : la révision écrite part dans la réponse.
+    // Hors requête (vidage des sauvegardes automatiques), rien à renvoyer
+    @SuppressWarnings("unchecked")
+    static void expose(Long projectId, Long revision) {
+        if (projectId == null || revision == null
+                || !(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)
+                || attributes.getResponse() == null || attributes.getResponse().isCommitted()) {
+            return;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        Map<Long, Long> written = (Map<Long, Long>) request.getAttribute(WRITTEN);
+        if (written == null) {
+            written = new TreeMap<>();
+            request.setAttribute(WRITTEN, written);
+        }
+        written.merge(projectId, revision, Math::max);
+        attributes.getResponse().setHeader(READ_AFTER_HEADER, written.entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + entry.getValue())
+                .collect(Collectors.joining(",")));
+    }
+
+    // Révision demandée pour ce projet ; une entrée mal formée est ignorée
+    static Long readAfter(String header, Long projectId) {
+        if (header == null) {
+            return null;
+        }
+        for (String entry : header.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length == 2 && parts[0].equals(projectId.toString())) {
+                try {
+                    return Long.valueOf(parts[1]);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Long projectId(HttpServletRequest request) {
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null) {
+            return null;
+        }
+        String value = variables.get("projectId");
+        if (value == null && request.getRequestURI().contains("/projects/")) {
+            value = variables.get("id");
+        }
+        try {
+            return value == null ? null : Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.myProject.config;
+
+import com.example.myProject.event.ProjectChangedEvent;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Retient les projets écrits récemment depuis ce nœud : leurs lectures restent sur le primaire le temps
+// que les réplicas rattrapent leur retard. Vaut pour les clients qui ne renvoient pas X-Read-After,
+// que l'écriture leur remet dans la réponse (voir ReadYourWritesInterceptor).
+public class ReadYourWritesTracker {
+
+    private final long stickyMillis;
+    private final Map<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(long stickyMillis) {
+        this.stickyMillis = stickyMillis;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        ReadYourWritesInterceptor.expose(event.projectId(), event.revision());
+        long now = System.currentTimeMillis();
+        stickyUntil.put(event.projectId(), now + stickyMillis);
+        // Purge opportuniste pour que la table reste à la taille des projets actifs
+        if (stickyUntil.size() > 10_000) {
+            stickyUntil.values().removeIf(until -> until < now);
+        }
+    }
+
+    public boolean isSticky(Long projectId) {
+        Long until = stickyUntil.get(projectId);
+        return until != null && until >= System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.myProject.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Envoie les transactions en lecture seule vers un réplica (tourniquet) et tout le reste vers
+ * le primaire. Doit être enveloppé dans un LazyConnectionDataSourceProxy pour que le choix soit
+ * fait au premier ordre SQL, une fois le caractère read-only de la transaction connu.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+    private static final ThreadLocal<Integer> PINNED_REPLICA = new ThreadLocal<>();
+
+    private final int replicaCount;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(int replicaCount) {
+        this.replicaCount = replicaCount;
+    }
+
+    public static String replicaKey(int index) {
+        return "replica-" + index;
+    }
+
+    // Lecture de ses propres écritures : le thread courant lit sur le primaire
+    public static void forcePrimary() {
+        FORCE_PRIMARY.set(Boolean.TRUE);
+    }
+
+    // Les lectures suivantes du thread vont toutes au même réplica, tiré au hasard : celui dont on vient
+    // de vérifier la position ne peut pas être remplacé par un autre, plus en retard
+    public static void pinReplica() {
+        PINNED_REPLICA.set(ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE));
+    }
+
+    // Oublie le forçage et le réplica retenu : fin de requête ou de flux
+    public static void clearForcePrimary() {
+        FORCE_PRIMARY.remove();
+        PINNED_REPLICA.remove();
+    }
+
+    // Routage du thread courant, à reporter sur un autre thread qui sert la même requête (pool de flux)
+    public static Routing currentRouting() {
+        return new Routing(FORCE_PRIMARY.get() != null, PINNED_REPLICA.get());
+    }
+
+    public static void restore(Routing routing) {
+        if (routing.forcePrimary()) {
+            FORCE_PRIMARY.set(Boolean.TRUE);
+        }
+        if (routing.pinnedReplica() != null) {
+            PINNED_REPLICA.set(routing.pinnedReplica());
+        }
+    }
+
+    // Exécute work sur le primaire puis rend au thread son état précédent (forcé ou non par la requête)
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaCount == 0
+                || FORCE_PRIMARY.get() != null
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        Integer pinned = PINNED_REPLICA.get();
+        return replicaKey(Math.floorMod(pinned != null ? pinned : next.getAndIncrement(), replicaCount));
+    }
+
+    public record Routing(boolean forcePrimary, Integer pinnedReplica) {
+    }
+}
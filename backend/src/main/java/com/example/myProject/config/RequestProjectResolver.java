@@ -0,0 +1,91 @@
+package com.example.myProject.config;
+
+import com.example.myProject.model.ProjectArchiveRow;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Projet visé par une requête : directement (/projects/{id}, {projectId}) ou via le chapitre, la ligne
+ * ou le détail que l'URL désigne (archivé compris). Le résultat est gardé dans un attribut de la requête :
+ * la lecture sur le primaire et le filtre société se partagent une seule recherche.
+ */
+public class RequestProjectResolver {
+
+    private static final String ATTRIBUTE = RequestProjectResolver.class.getName() + ".project";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RequestProjectResolver(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Long projectId(HttpServletRequest request) {
+        Optional<Long> resolved = (Optional<Long>) request.getAttribute(ATTRIBUTE);
+        if (resolved == null) {
+            Long projectId = ReadYourWritesInterceptor.projectId(request);
+            if (projectId == null) {
+                projectId = rowProject(request.getRequestURI(), variables(request));
+            }
+            resolved = Optional.ofNullable(projectId);
+            request.setAttribute(ATTRIBUTE, resolved);
+        }
+        return resolved.orElse(null);
+    }
+
+    // Routes qui désignent un chapitre, une ligne ou un détail par son id
+    private Long rowProject(String uri, Map<String, String> variables) {
+        if (variables.containsKey("chapterId")) {
+            return projectOf(ProjectArchiveRow.Kind.CHAPTER, variables.get("chapterId"));
+        }
+        if (variables.containsKey("mainLineId")) {
+            return projectOf(ProjectArchiveRow.Kind.LINE, variables.get("mainLineId"));
+        }
+        String id = variables.get("id");
+        if (id == null) {
+            return null;
+        }
+        if (uri.contains("/chapters/")) {
+            return projectOf(ProjectArchiveRow.Kind.CHAPTER, id);
+        }
+        if (uri.contains("/main-lines/")) {
+            return projectOf(ProjectArchiveRow.Kind.LINE, id);
+        }
+        if (uri.contains("/detail-lines/")) {
+            return projectOf(ProjectArchiveRow.Kind.DETAIL, id);
+        }
+        return null;
+    }
+
+    // Hors transaction : lu sur le primaire, une ligne tout juste créée y est déjà
+    private Long projectOf(ProjectArchiveRow.Kind kind, String value) {
+        long id;
+        try {
+            id = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        String table = switch (kind) {
+            case CHAPTER -> "chapter";
+            case LINE -> "main_table_line";
+            case DETAIL -> "detail_table_line";
+        };
+        List<Long> found = jdbcTemplate.queryForList("SELECT project_id FROM " + table + " WHERE id = ?", Long.class, id);
+        if (found.isEmpty()) {
+            found = jdbcTemplate.queryForList("SELECT project_id FROM project_archive_row WHERE kind = ? AND row_id = ?",
+                    Long.class, kind.name(), id);
+        }
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, String> variables(HttpServletRequest request) {
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return variables != null ? variables : Map.of();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.myProject.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Pool fixe des réponses en flux (StreamingResponseBody). La requête passe en mode asynchrone et rend
+ * son thread Tomcat : les ouvertures en attente patientent dans la file, pas dans des threads.
+ * Les threads de ce pool ne tiennent une connexion JDBC que le temps de lire une page du flux, jamais
+ * pendant l'écriture vers le client (ProjectStreamService). Un client lent occupe donc un thread du
+ * pool, au plus timeout, mais plus de connexion. Cela suppose que le thread de la requête n'en garde
+ * aucune : open-in-view est désactivé (application.properties) et le contrôle d'existence passe par
+ * JdbcTemplate (ProjectStreamService.exists).
+ */
+@Configuration
+public class StreamingConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    private final Duration timeout;
+
+    public StreamingConfig(
+            @Value("${myproject.stream.threads:4}") int threads,
+            @Value("${myproject.stream.queue-capacity:5000}") int queueCapacity,
+            @Value("${myproject.stream.timeout:120s}") Duration timeout
+    ) {
+        this.timeout = timeout;
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("project-stream-");
+        executor.initialize();
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(executor);
+        configurer.setDefaultTimeout(timeout.toMillis());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
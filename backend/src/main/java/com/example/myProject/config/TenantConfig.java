@@ -0,0 +1,44 @@
+package com.example.myProject.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class TenantConfig {
+
+    // Toute session JPA, transactionnelle ou non, passe par la fabrique : le filtre société y est activé
+    @Bean
+    public static BeanPostProcessor tenantFilterInitializer() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof AbstractEntityManagerFactoryBean factory) {
+                    factory.setEntityManagerInitializer(TenantFilterInterceptor::enableFilter);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer tenantFilterConfigurer(
+            JdbcTemplate jdbcTemplate,
+            @Value("${myproject.tenant.require-company:false}") boolean requireCompany
+    ) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                // En dernier : la société du jeton est connue, l'admission est déjà passée
+                registry.addInterceptor(new TenantFilterInterceptor(jdbcTemplate, requireCompany))
+                        .order(Ordered.LOWEST_PRECEDENCE);
+            }
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.myProject.config;
+
+import com.example.myProject.model.Project;
+import com.example.myProject.service.AuthenticatedUser;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.Session;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retient pour le thread de la requête la société du jeton d'authentification (l'en-tête X-Company-Id,
+ * accepté seulement avec un jeton, ne peut que la répéter) : chaque session JPA ouverte ensuite sur ce thread active le filtre société
+ * (voir enableFilter, branché sur la fabrique d'EntityManager). Le filtre ne couvre pas les lectures par
+ * id : le projet visé par l'URL, directement ou via le chapitre, la ligne ou le détail qu'elle désigne,
+ * est donc vérifié ici, et un projet d'une autre société répond 404. Les écritures dont le projet vient
+ * du corps de la requête sont vérifiées par ProjectWriteCoordinator (voir currentCompany).
+ * Avec myproject.tenant.require-company, une requête d'API sans jeton porteur d'une société est refusée (401).
+ */
+public class TenantFilterInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String COMPANY_HEADER = "X-Company-Id";
+
+    private static final ThreadLocal<Long> COMPANY = new ThreadLocal<>();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RequestProjectResolver projectResolver;
+    private final boolean requireCompany;
+
+    public TenantFilterInterceptor(JdbcTemplate jdbcTemplate, boolean requireCompany) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.projectResolver = new RequestProjectResolver(jdbcTemplate);
+        this.requireCompany = requireCompany;
+    }
+
+    // Société de la requête en cours sur ce thread, null si elle n'est pas connue
+    public static Long currentCompany() {
+        return COMPANY.get();
+    }
+
+    // Initialiseur de chaque EntityManager créé : sans société connue sur le thread, rien n'est filtré
+    public static void enableFilter(EntityManager entityManager) {
+        Long companyId = COMPANY.get();
+        if (companyId != null) {
+            entityManager.unwrap(Session.class)
+                    .enableFilter(Project.TENANT_FILTER)
+                    .setParameter("companyId", companyId);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        AuthenticatedUser authenticated = AuthTokenInterceptor.authenticatedUser(request);
+        String header = request.getHeader(COMPANY_HEADER);
+        Long companyId = authenticated != null ? authenticated.companyId() : null;
+        if (header != null && !header.isBlank()) {
+            // Posé par le client : sans jeton, il ne prouve rien
+            if (authenticated == null) {
+                response.sendError(HttpStatus.UNAUTHORIZED.value(), "En-tête " + COMPANY_HEADER + " accepté seulement avec un jeton");
+                return false;
+            }
+            Long requested;
+            try {
+                requested = Long.valueOf(header.trim());
+            } catch (NumberFormatException e) {
+                response.sendError(HttpStatus.BAD_REQUEST.value(), "En-tête " + COMPANY_HEADER + " invalide");
+                return false;
+            }
+            // Le jeton fait foi : l'en-tête ne peut pas viser une autre société
+            if (!requested.equals(companyId)) {
+                response.sendError(HttpStatus.FORBIDDEN.value());
+                return false;
+            }
+        }
+        if (companyId == null) {
+            if (requireCompany && request.getRequestURI().contains("/myProject/api/") && !request.getRequestURI().contains("/auth/")) {
+                response.sendError(HttpStatus.UNAUTHORIZED.value(), "Société inconnue : jeton requis");
+                return false;
+            }
+            return true;
+        }
+
+        Map<String, String> variables = RequestProjectResolver.variables(request);
+        String requestedCompany = variables.get("companyId");
+        if (requestedCompany != null && !requestedCompany.equals(companyId.toString())) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return false;
+        }
+
+        Long projectId = projectResolver.projectId(request);
+        if (projectId != null) {
+            List<Long> owner = jdbcTemplate.queryForList("SELECT company_id FROM project WHERE id = ?", Long.class, projectId);
+            if (!owner.isEmpty() && !companyId.equals(owner.get(0))) {
+                response.sendError(HttpStatus.NOT_FOUND.value());
+                return false;
+            }
+        }
+
+        COMPANY.set(companyId);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        COMPANY.remove();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        COMPANY.remove();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.myProject.controller;
+
+import com.example.myProject.dto.LoginRequestDTO;
+import com.example.myProject.dto.LoginResponseDTO;
+import com.example.myProject.service.AuthService;
+import jakarta.validation.Valid;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/myProject/api/auth")
+public class AuthController {
+
+    private final AuthService authService;
+
+    public AuthController(AuthService authService) {
+        this.authService = authService;
+    }
+
+    @PostMapping("/login")
+    public LoginResponseDTO login(@Valid @RequestBody LoginRequestDTO dto) {
+        return authService.login(dto.getEmail(), dto.getPassword());
+    }
+}
@@ -1,55 +1,129 @@
 package com.example.myProject.controller;
 
+import com.example.myProject.config.TenantFilterInterceptor;
+import com.example.myProject.dto.ChapterMoveDTO;
 import com.example.myProject.dto.ChapterRequestDTO;
+import com.example.myProject.dto.ChapterWithLinesDTO;
+import com.example.myProject.event.ProjectChangedEvent.ChangeType;
 import com.example.myProject.model.Chapter;
+import com.example.myProject.model.ProjectArchiveRow.Kind;
 import com.example.myProject.repository.ChapterRepository;
+import com.example.myProject.service.ChapterMoveService;
+import com.example.myProject.service.ChapterNumberingService;
+import com.example.myProject.service.ProjectArchiveService;
+import com.example.myProject.service.ProjectChangePublisher;
+import com.example.myProject.service.ProjectWriteCoordinator;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("myProject/api/chapters")
 public class ChapterController {
 
     private final ChapterRepository chapterRepository;
+    private final ProjectChangePublisher changePublisher;
+    private final ProjectArchiveService archiveService;
+    private final ChapterNumberingService numberingService;
+    private final ChapterMoveService chapterMoveService;
+    private final ProjectWriteCoordinator writeCoordinator;
 
-    public ChapterController(ChapterRepository chapterRepository) {
+    public ChapterController(ChapterRepository chapterRepository, ProjectChangePublisher changePublisher,
+                             ProjectArchiveService archiveService, ChapterNumberingService numberingService,
+                             ChapterMoveService chapterMoveService, ProjectWriteCoordinator writeCoordinator) {
         this.chapterRepository = chapterRepository;
+        this.changePublisher = changePublisher;
+        this.archiveService = archiveService;
+        this.numberingService = numberingService;
+        this.chapterMoveService = chapterMoveService;
+        this.writeCoordinator = writeCoordinator;
     }
 
     @GetMapping
+    @Transactional(readOnly = true)
     public List<Chapter> getAll() {
+        // Filtré par société (TenantFilterInterceptor) ; sans société connue, la liste couvrirait toutes les sociétés
+        if (TenantFilterInterceptor.currentCompany() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Société requise (jeton)");
+        }
         return chapterRepository.findAll();
     }
 
     @GetMapping("/project/{projectId}")
+    @Transactional(readOnly = true)
     public List<Chapter> getByProject(@PathVariable Long projectId) {
-        return chapterRepository.findByProjectId(projectId);
+        return archiveService.findArchivedContent(projectId)
+                .map(content -> content.getChapters().stream().map(ChapterWithLinesDTO::getChapter).toList())
+                .orElseGet(() -> chapterRepository.findByProjectIdOrderByPositionAscIdAsc(projectId));
     }
 
     @PostMapping
     public Chapter create(@RequestBody ChapterRequestDTO dto) {
-        Chapter chapter = Chapter.builder()
-                .projectId(dto.getProjectId())
-                .parentId(dto.getParentId())
-                .num(dto.getNum())
-                .label(dto.getLabel())
-                .build();
-        return chapterRepository.save(chapter);
+        archiveService.ensureActive(dto.getProjectId());
+        return writeCoordinator.execute(dto.getProjectId(), () -> {
+            // Ajouté en dernier parmi ses frères ; son numéro est calculé par le serveur, dto.num est ignoré
+            Chapter chapter = Chapter.builder()
+                    .projectId(dto.getProjectId())
+                    .parentId(dto.getParentId())
+                    .label(dto.getLabel())
+                    .position(numberingService.nextPosition(dto.getProjectId(), dto.getParentId()))
+                    .build();
+            Chapter saved = chapterRepository.save(chapter);
+            saved.setNum(numberingService.renumber(saved.getProjectId()).chapters().get(saved.getId()));
+            changePublisher.chapterChanged(saved, ChangeType.CREATED);
+            return saved;
+        });
     }
 
     @PutMapping("/{id}")
     public Chapter update(@PathVariable Long id, @RequestBody ChapterRequestDTO dto) {
-        Chapter chapter = chapterRepository.findById(id).orElseThrow();
-        chapter.setProjectId(dto.getProjectId());
-        chapter.setParentId(dto.getParentId());
-        chapter.setNum(dto.getNum());
-        chapter.setLabel(dto.getLabel());
-        return chapterRepository.save(chapter);
+        archiveService.ensureActive(Kind.CHAPTER, id);
+        Chapter current = chapterRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Chapitre introuvable"));
+        if (!Objects.equals(current.getProjectId(), dto.getProjectId()) || !Objects.equals(current.getParentId(), dto.getParentId())) {
+            // Même traitement que /move (sous-arbre, cycles, verrous), le chapitre passant en dernier ;
+            // le libellé est écrit dans la même opération verrouillée
+            return chapterMoveService.moveToEnd(id, dto.getProjectId(), dto.getParentId(),
+                    chapter -> chapter.setLabel(dto.getLabel()));
+        }
+        return writeCoordinator.executeOwned(() -> chapterProject(id), projectId -> {
+            Chapter chapter = chapterRepository.findById(id).orElseThrow();
+            chapter.setLabel(dto.getLabel());
+            Chapter saved = chapterRepository.save(chapter);
+            changePublisher.chapterChanged(saved, ChangeType.UPDATED);
+            return saved;
+        });
+    }
+
+    // Re-parentage d'un sous-arbre, éventuellement vers un autre projet de la même société
+    @PutMapping("/{id}/move")
+    public Chapter move(@PathVariable Long id, @RequestBody ChapterMoveDTO move) {
+        archiveService.ensureActive(Kind.CHAPTER, id);
+        return chapterMoveService.move(id, move);
     }
 
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
-        chapterRepository.deleteById(id);
+        archiveService.ensureActive(Kind.CHAPTER, id);
+        if (!chapterRepository.existsById(id)) {
+            return;
+        }
+        writeCoordinator.executeOwned(() -> chapterProject(id), projectId -> {
+            Chapter chapter = chapterRepository.findById(id).orElseThrow();
+            chapterRepository.delete(chapter);
+            numberingService.renumber(projectId);
+            changePublisher.chapterChanged(chapter, ChangeType.DELETED);
+            return null;
+        });
+    }
+
+    private Long chapterProject(Long id) {
+        return chapterRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Chapitre introuvable"))
+                .getProjectId();
     }
 }
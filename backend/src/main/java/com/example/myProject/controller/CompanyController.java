@@ -7,6 +7,7 @@ import com.example.myProject.repository.CompanyRepository;
 import com.example.myProject.dto.CompanyRequestDTO;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -24,11 +25,13 @@ public class CompanyController {
     }
 
     @GetMapping
+    @Transactional(readOnly = true)
     public List<Company> getAllCompanies() {
         return companyRepository.findAll();
     }
 
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Company> getCompany(@PathVariable Long id) {
         Optional<Company> existingCompany = companyRepository.findById(id);
 
@@ -1,9 +1,24 @@
 package com.example.myProject.controller;
 
+import com.example.myProject.dto.BatchResultDTO;
+import com.example.myProject.dto.LineMoveDTO;
+import com.example.myProject.dto.DetailTableLineBatchDTO;
 import com.example.myProject.dto.DetailTableLineRequestDTO;
+import com.example.myProject.event.ProjectChangedEvent.ChangeType;
 import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.ProjectArchiveRow.Kind;
 import com.example.myProject.repository.DetailTableLineRepository;
+import com.example.myProject.repository.MainTableLineRepository;
+import com.example.myProject.service.AutosaveBuffer;
+import com.example.myProject.service.LineBatchService;
+import com.example.myProject.service.LinePositionService;
+import com.example.myProject.service.ProjectArchiveService;
+import com.example.myProject.service.ProjectChangePublisher;
+import com.example.myProject.service.ProjectWriteCoordinator;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -12,51 +27,126 @@ import java.util.List;
 public class DetailTableLineController {
 
     private final DetailTableLineRepository repository;
+    private final MainTableLineRepository mainTableLineRepository;
+    private final ProjectChangePublisher changePublisher;
+    private final LineBatchService lineBatchService;
+    private final LinePositionService linePositionService;
+    private final ProjectWriteCoordinator writeCoordinator;
+    private final ProjectArchiveService archiveService;
+    private final AutosaveBuffer autosaveBuffer;
 
-    public DetailTableLineController(DetailTableLineRepository repository) {
+    public DetailTableLineController(DetailTableLineRepository repository, MainTableLineRepository mainTableLineRepository,
+                                     ProjectChangePublisher changePublisher, LineBatchService lineBatchService,
+                                     LinePositionService linePositionService, ProjectWriteCoordinator writeCoordinator,
+                                     ProjectArchiveService archiveService, AutosaveBuffer autosaveBuffer) {
         this.repository = repository;
+        this.mainTableLineRepository = mainTableLineRepository;
+        this.changePublisher = changePublisher;
+        this.lineBatchService = lineBatchService;
+        this.linePositionService = linePositionService;
+        this.writeCoordinator = writeCoordinator;
+        this.archiveService = archiveService;
+        this.autosaveBuffer = autosaveBuffer;
     }
 
     @GetMapping("/main-line/{mainLineId}")
+    @Transactional(readOnly = true)
     public List<DetailTableLine> getByMainLine(@PathVariable Long mainLineId) {
-        return repository.findByMainTableLineId(mainLineId);
+        // Les détails d'un projet archivé sont lus dans l'archive, sans le réintégrer (comme ChapterController.getByProject)
+        return archiveService.findArchivedProject(Kind.LINE, mainLineId)
+                .flatMap(archiveService::findArchivedContent)
+                .map(content -> content.getChapters().stream()
+                        .flatMap(chapter -> chapter.getLines().stream())
+                        .filter(line -> mainLineId.equals(line.getMainTableLine().getId()))
+                        .flatMap(line -> line.getDetails().stream())
+                        .toList())
+                .orElseGet(() -> repository.findByMainTableLineIdOrderByPositionAscIdAsc(mainLineId));
     }
 
+    // Écritures unitaires sous le verrou du projet, le détail relu dans la transaction
     @PostMapping
     public DetailTableLine create(@RequestBody DetailTableLineRequestDTO dto) {
-        return repository.save(
-                DetailTableLine.builder()
-                        .mainTableLineId(dto.getMainTableLineId())
-                        .title(dto.getTitle())
-                        .number(dto.getNumber())
-                        .length(dto.getLength())
-                        .width(dto.getWidth())
-                        .height(dto.getHeight())
-                        .factor(dto.getFactor())
-                        .total(dto.getTotal())
-                        .comments(dto.getComments())
-                        .position(dto.getPosition())
-                        .build()
-        );
+        archiveService.ensureActive(Kind.LINE, dto.getMainTableLineId());
+        return writeCoordinator.executeOwned(() -> mainLineProject(dto.getMainTableLineId()), projectId -> {
+            DetailTableLine saved = repository.save(
+                    DetailTableLine.builder()
+                            .mainTableLineId(dto.getMainTableLineId())
+                            .projectId(projectId)
+                            .title(dto.getTitle())
+                            .number(dto.getNumber())
+                            .length(dto.getLength())
+                            .width(dto.getWidth())
+                            .height(dto.getHeight())
+                            .factor(dto.getFactor())
+                            .total(dto.getTotal())
+                            .comments(dto.getComments())
+                            .position(dto.getPosition() != null ? dto.getPosition() : linePositionService.nextDetailPosition(dto.getMainTableLineId()))
+                            .build()
+            );
+            changePublisher.detailLineChanged(saved, ChangeType.CREATED);
+            return saved;
+        });
     }
 
     @PutMapping("/{id}")
     public DetailTableLine update(@PathVariable Long id, @RequestBody DetailTableLineRequestDTO dto) {
-        DetailTableLine line = repository.findById(id).orElseThrow();
-        line.setTitle(dto.getTitle());
-        line.setNumber(dto.getNumber());
-        line.setLength(dto.getLength());
-        line.setWidth(dto.getWidth());
-        line.setHeight(dto.getHeight());
-        line.setFactor(dto.getFactor());
-        line.setTotal(dto.getTotal());
-        line.setComments(dto.getComments());
-        line.setPosition(dto.getPosition());
-        return repository.save(line);
+        archiveService.ensureActive(Kind.DETAIL, id);
+        return writeCoordinator.executeOwned(() -> detailProject(id), projectId -> {
+            DetailTableLine line = repository.findById(id).orElseThrow();
+            line.setTitle(dto.getTitle());
+            line.setNumber(dto.getNumber());
+            line.setLength(dto.getLength());
+            line.setWidth(dto.getWidth());
+            line.setHeight(dto.getHeight());
+            line.setFactor(dto.getFactor());
+            line.setTotal(dto.getTotal());
+            line.setComments(dto.getComments());
+            // Position absente : la ligne garde sa place (comme les mises à jour par lot)
+            if (dto.getPosition() != null) {
+                line.setPosition(dto.getPosition());
+            }
+            DetailTableLine saved = repository.save(line);
+            changePublisher.detailLineChanged(saved, ChangeType.UPDATED);
+            return saved;
+        });
+    }
+
+    // N'écrit que la ligne déplacée, sauf quand l'intervalle entre ses voisins est épuisé
+    @PutMapping("/{id}/move")
+    public DetailTableLine move(@PathVariable Long id, @RequestBody LineMoveDTO move) {
+        archiveService.ensureActive(Kind.DETAIL, id);
+        return linePositionService.moveDetail(id, move);
+    }
+
+    // Collage de tableur : tout le lot en une requête et une transaction, après le vidage du tampon du projet
+    @PostMapping("/batch")
+    public BatchResultDTO batch(@RequestBody DetailTableLineBatchDTO batch) {
+        return lineBatchService.applyDetails(batch, autosaveBuffer::flush);
     }
 
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
-        repository.deleteById(id);
+        archiveService.ensureActive(Kind.DETAIL, id);
+        if (!repository.existsById(id)) {
+            return;
+        }
+        writeCoordinator.executeOwned(() -> detailProject(id), projectId -> {
+            DetailTableLine line = repository.findById(id).orElseThrow();
+            repository.delete(line);
+            changePublisher.detailLineChanged(line, ChangeType.DELETED);
+            return null;
+        });
+    }
+
+    private Long mainLineProject(Long mainLineId) {
+        return mainTableLineRepository.findById(mainLineId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Ligne introuvable"))
+                .getProjectId();
+    }
+
+    private Long detailProject(Long id) {
+        return repository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Détail introuvable"))
+                .getProjectId();
     }
 }
@@ -0,0 +1,21 @@
+package com.example.myProject.controller;
+
+import com.example.myProject.config.PersistenceSettingsReporter;
+import com.example.myProject.dto.PersistenceSettingsDTO;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/myProject/api/diagnostics")
+public class DiagnosticsController {
+
+    private final PersistenceSettingsReporter persistenceSettingsReporter;
+
+    public DiagnosticsController(PersistenceSettingsReporter persistenceSettingsReporter) {
+        this.persistenceSettingsReporter = persistenceSettingsReporter;
+    }
+
+    @GetMapping("/persistence")
+    public PersistenceSettingsDTO getPersistenceSettings() {
+        return persistenceSettingsReporter.collect();
+    }
+}
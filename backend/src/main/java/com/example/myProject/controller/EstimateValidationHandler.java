@@ -0,0 +1,20 @@
+package com.example.myProject.controller;
+
+import com.example.myProject.validation.EstimateValidationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// 400 avec la liste complète des violations, pour que le client les signale toutes en une fois
+@RestControllerAdvice
+public class EstimateValidationHandler {
+
+    @ExceptionHandler(EstimateValidationException.class)
+    public ProblemDetail handle(EstimateValidationException e) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+        problem.setProperty("violations", e.getViolations());
+        problem.setProperty("truncated", e.isTruncated());
+        return problem;
+    }
+}
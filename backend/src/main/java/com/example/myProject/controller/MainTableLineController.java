@@ -1,9 +1,26 @@
 package com.example.myProject.controller;
 
+import com.example.myProject.dto.BatchResultDTO;
+import com.example.myProject.dto.LineMoveDTO;
+import com.example.myProject.dto.MainTableLineBatchDTO;
 import com.example.myProject.dto.MainTableLineRequestDTO;
+import com.example.myProject.dto.MainTableLineWithDetailsDTO;
+import com.example.myProject.event.ProjectChangedEvent.ChangeType;
 import com.example.myProject.model.MainTableLine;
+import com.example.myProject.model.ProjectArchiveRow.Kind;
+import com.example.myProject.repository.ChapterRepository;
 import com.example.myProject.repository.MainTableLineRepository;
+import com.example.myProject.service.AutosaveBuffer;
+import com.example.myProject.service.ChapterNumberingService;
+import com.example.myProject.service.LineBatchService;
+import com.example.myProject.service.LinePositionService;
+import com.example.myProject.service.ProjectArchiveService;
+import com.example.myProject.service.ProjectChangePublisher;
+import com.example.myProject.service.ProjectWriteCoordinator;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -12,53 +29,151 @@ import java.util.List;
 public class MainTableLineController {
 
     private final MainTableLineRepository repository;
+    private final ChapterRepository chapterRepository;
+    private final ProjectChangePublisher changePublisher;
+    private final LineBatchService lineBatchService;
+    private final LinePositionService linePositionService;
+    private final ChapterNumberingService numberingService;
+    private final AutosaveBuffer autosaveBuffer;
+    private final ProjectWriteCoordinator writeCoordinator;
+    private final ProjectArchiveService archiveService;
 
-    public MainTableLineController(MainTableLineRepository repository) {
+    public MainTableLineController(MainTableLineRepository repository, ChapterRepository chapterRepository,
+                                   ProjectChangePublisher changePublisher, LineBatchService lineBatchService,
+                                   LinePositionService linePositionService, ChapterNumberingService numberingService,
+                                   AutosaveBuffer autosaveBuffer, ProjectWriteCoordinator writeCoordinator,
+                                   ProjectArchiveService archiveService) {
         this.repository = repository;
+        this.chapterRepository = chapterRepository;
+        this.changePublisher = changePublisher;
+        this.lineBatchService = lineBatchService;
+        this.linePositionService = linePositionService;
+        this.numberingService = numberingService;
+        this.autosaveBuffer = autosaveBuffer;
+        this.writeCoordinator = writeCoordinator;
+        this.archiveService = archiveService;
     }
 
     @GetMapping("/chapter/{chapterId}")
+    @Transactional(readOnly = true)
     public List<MainTableLine> getByChapter(@PathVariable Long chapterId) {
-        return repository.findByChapterId(chapterId);
+        // Les lignes d'un projet archivé sont lues dans l'archive, sans le réintégrer (comme ChapterController.getByProject)
+        return archiveService.findArchivedProject(Kind.CHAPTER, chapterId)
+                .flatMap(archiveService::findArchivedContent)
+                .map(content -> content.getChapters().stream()
+                        .filter(chapter -> chapterId.equals(chapter.getChapter().getId()))
+                        .flatMap(chapter -> chapter.getLines().stream())
+                        .map(MainTableLineWithDetailsDTO::getMainTableLine)
+                        .toList())
+                .orElseGet(() -> repository.findByChapterIdOrderByPositionAscIdAsc(chapterId));
     }
 
+    // Écritures unitaires sous le verrou du projet, la ligne relue dans la transaction
     @PostMapping
     public MainTableLine create(@RequestBody MainTableLineRequestDTO dto) {
-        return repository.save(
-                MainTableLine.builder()
-                        .chapterId(dto.getChapterId())
-                        .gr(dto.getGr())
-                        .num(dto.getNum())
-                        .title(dto.getTitle())
-                        .nm(dto.getNm())
-                        .unit(dto.getUnit())
-                        .quantity(dto.getQuantity())
-                        .unitPrice(dto.getUnitPrice())
-                        .totalPrice(dto.getTotalPrice())
-                        .comments(dto.getComments())
-                        .position(dto.getPosition())
-                        .build()
-        );
+        archiveService.ensureActive(Kind.CHAPTER, dto.getChapterId());
+        return writeCoordinator.executeOwned(() -> chapterProject(dto.getChapterId()), projectId -> {
+            MainTableLine saved = repository.save(
+                    MainTableLine.builder()
+                            .chapterId(dto.getChapterId())
+                            .projectId(projectId)
+                            .gr(dto.getGr())
+                            .code(dto.getCode())
+                            .title(dto.getTitle())
+                            .nm(dto.getNm())
+                            .unit(dto.getUnit())
+                            .quantity(dto.getQuantity())
+                            .unitPrice(dto.getUnitPrice())
+                            .totalPrice(dto.getTotalPrice())
+                            .comments(dto.getComments())
+                            .position(dto.getPosition() != null ? dto.getPosition() : linePositionService.nextMainLinePosition(dto.getChapterId()))
+                            .build()
+            );
+            saved.setNum(numberingService.renumberLines(projectId, saved.getChapterId()).getOrDefault(saved.getId(), saved.getNum()));
+            changePublisher.mainLineChanged(saved, ChangeType.CREATED);
+            return saved;
+        });
     }
 
     @PutMapping("/{id}")
     public MainTableLine update(@PathVariable Long id, @RequestBody MainTableLineRequestDTO dto) {
+        archiveService.ensureActive(Kind.LINE, id);
+        // Une sauvegarde automatique plus ancienne ne doit pas écraser cette modification en étant écrite après
+        autosaveBuffer.flush(lineProject(id));
+        return writeCoordinator.executeOwned(() -> lineProject(id), projectId -> {
+            MainTableLine line = repository.findById(id).orElseThrow();
+            // num est déduit de la position par le serveur
+            line.setGr(dto.getGr());
+            line.setCode(dto.getCode());
+            line.setTitle(dto.getTitle());
+            line.setNm(dto.getNm());
+            line.setUnit(dto.getUnit());
+            line.setQuantity(dto.getQuantity());
+            line.setUnitPrice(dto.getUnitPrice());
+            line.setTotalPrice(dto.getTotalPrice());
+            line.setComments(dto.getComments());
+            // Position absente : la ligne garde sa place (comme les mises à jour par lot)
+            boolean moved = dto.getPosition() != null && !dto.getPosition().equals(line.getPosition());
+            if (moved) {
+                line.setPosition(dto.getPosition());
+            }
+            MainTableLine saved = repository.save(line);
+            // Les numéros ne changent que si la ligne change de place ; sinon aucun frère n'est relu ni réécrit
+            if (moved) {
+                saved.setNum(numberingService.renumberLines(projectId, saved.getChapterId()).getOrDefault(saved.getId(), saved.getNum()));
+            }
+            changePublisher.mainLineChanged(saved, ChangeType.UPDATED);
+            return saved;
+        });
+    }
+
+    // Sauvegarde automatique de l'éditeur : journalisée puis écrite en différé, regroupée avec les suivantes
+    @PutMapping("/{id}/autosave")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void autosave(@PathVariable Long id, @RequestBody MainTableLineRequestDTO dto) {
+        archiveService.ensureActive(Kind.LINE, id);
         MainTableLine line = repository.findById(id).orElseThrow();
-        line.setGr(dto.getGr());
-        line.setNum(dto.getNum());
-        line.setTitle(dto.getTitle());
-        line.setNm(dto.getNm());
-        line.setUnit(dto.getUnit());
-        line.setQuantity(dto.getQuantity());
-        line.setUnitPrice(dto.getUnitPrice());
-        line.setTotalPrice(dto.getTotalPrice());
-        line.setComments(dto.getComments());
-        line.setPosition(dto.getPosition());
-        return repository.save(line);
+        autosaveBuffer.acceptLine(line.getProjectId(), id, dto);
+    }
+
+    // N'écrit que la ligne déplacée, sauf quand l'intervalle entre ses voisins est épuisé
+    @PutMapping("/{id}/move")
+    public MainTableLine move(@PathVariable Long id, @RequestBody LineMoveDTO move) {
+        archiveService.ensureActive(Kind.LINE, id);
+        autosaveBuffer.flush(lineProject(id));
+        return linePositionService.moveMainLine(id, move);
+    }
+
+    // Collage de tableur : tout le lot en une requête et une transaction, après le vidage du tampon du projet
+    @PostMapping("/batch")
+    public BatchResultDTO batch(@RequestBody MainTableLineBatchDTO batch) {
+        return lineBatchService.applyMainLines(batch, autosaveBuffer::flush);
     }
 
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
-        repository.deleteById(id);
+        archiveService.ensureActive(Kind.LINE, id);
+        if (!repository.existsById(id)) {
+            return;
+        }
+        writeCoordinator.executeOwned(() -> lineProject(id), projectId -> {
+            MainTableLine line = repository.findById(id).orElseThrow();
+            repository.delete(line);
+            numberingService.renumberLines(projectId, line.getChapterId());
+            changePublisher.mainLineChanged(line, ChangeType.DELETED);
+            return null;
+        });
+    }
+
+    private Long chapterProject(Long chapterId) {
+        return chapterRepository.findById(chapterId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Chapitre introuvable"))
+                .getProjectId();
+    }
+
+    private Long lineProject(Long id) {
+        return repository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Ligne introuvable"))
+                .getProjectId();
     }
 }
@@ -0,0 +1,54 @@
+package com.example.myProject.controller;
+
+import com.example.myProject.dto.PriceLibraryItemRequestDTO;
+import com.example.myProject.dto.RepriceResultDTO;
+import com.example.myProject.model.PriceLibraryItem;
+import com.example.myProject.service.PriceLibraryService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/myProject/api/price-library")
+public class PriceLibraryController {
+
+    private final PriceLibraryService priceLibraryService;
+
+    public PriceLibraryController(PriceLibraryService priceLibraryService) {
+        this.priceLibraryService = priceLibraryService;
+    }
+
+    @GetMapping("/company/{companyId}")
+    public List<PriceLibraryItem> getByCompany(@PathVariable Long companyId) {
+        return priceLibraryService.getByCompany(companyId);
+    }
+
+    @GetMapping("/company/{companyId}/autocomplete")
+    public List<PriceLibraryItem> autocomplete(
+            @PathVariable Long companyId,
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return priceLibraryService.autocomplete(companyId, prefix, limit);
+    }
+
+    @PostMapping
+    public PriceLibraryItem create(@RequestBody PriceLibraryItemRequestDTO dto) {
+        return priceLibraryService.create(dto);
+    }
+
+    @PutMapping("/{id}")
+    public PriceLibraryItem update(@PathVariable Long id, @RequestBody PriceLibraryItemRequestDTO dto) {
+        return priceLibraryService.update(id, dto);
+    }
+
+    @DeleteMapping("/{id}")
+    public void delete(@PathVariable Long id) {
+        priceLibraryService.delete(id);
+    }
+
+    @PostMapping("/reprice/project/{projectId}")
+    public RepriceResultDTO repriceProject(@PathVariable Long projectId) {
+        return new RepriceResultDTO(projectId, priceLibraryService.repriceProject(projectId));
+    }
+}
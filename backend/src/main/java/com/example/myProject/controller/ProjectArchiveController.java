@@ -0,0 +1,25 @@
+package com.example.myProject.controller;
+
+import com.example.myProject.service.ProjectArchiveService;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/myProject/api/projects/{projectId}")
+public class ProjectArchiveController {
+
+    private final ProjectArchiveService archiveService;
+
+    public ProjectArchiveController(ProjectArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    @PostMapping("/archive")
+    public void archive(@PathVariable Long projectId) {
+        archiveService.archive(projectId);
+    }
+
+    @PostMapping("/restore")
+    public void restore(@PathVariable Long projectId) {
+        archiveService.ensureActive(projectId);
+    }
+}
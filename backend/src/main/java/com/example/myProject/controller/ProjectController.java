@@ -1,15 +1,29 @@
 package com.example.myProject.controller;
 
+import com.example.myProject.config.ReplicaRoutingDataSource;
 import com.example.myProject.dto.*;
-import com.example.myProject.model.Chapter;
-import com.example.myProject.model.DetailTableLine;
-import com.example.myProject.model.MainTableLine;
+import com.example.myProject.event.ProjectChangedEvent.ChangeType;
 import com.example.myProject.model.Project;
 import com.example.myProject.repository.ChapterRepository;
 import com.example.myProject.repository.DetailTableLineRepository;
 import com.example.myProject.repository.MainTableLineRepository;
 import com.example.myProject.repository.ProjectRepository;
+import com.example.myProject.service.AutosaveBuffer;
+import com.example.myProject.service.ProjectArchiveService;
+import com.example.myProject.service.ProjectChangePublisher;
+import com.example.myProject.service.ProjectContentLoader;
+import com.example.myProject.service.ProjectSnapshotService;
+import com.example.myProject.service.ProjectStreamService;
+import com.example.myProject.service.ProjectSyncService;
+import com.example.myProject.service.ProjectWriteCoordinator;
+import com.example.myProject.validation.EstimateValidator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.*;
 
@@ -21,25 +35,54 @@ public class ProjectController {
     private final ChapterRepository chapterRepository;
     private final MainTableLineRepository mainTableLineRepository;
     private final DetailTableLineRepository detailTableLineRepository;
+    private final ProjectChangePublisher changePublisher;
+    private final ProjectSyncService projectSyncService;
+    private final ProjectWriteCoordinator writeCoordinator;
+    private final ProjectSnapshotService projectSnapshotService;
+    private final ProjectArchiveService archiveService;
+    private final ProjectContentLoader projectContentLoader;
+    private final ProjectStreamService projectStreamService;
+    private final EstimateValidator estimateValidator;
+    private final AutosaveBuffer autosaveBuffer;
 
     public ProjectController(
             ProjectRepository projectRepository,
             ChapterRepository chapterRepository,
             MainTableLineRepository mainTableLineRepository,
-            DetailTableLineRepository detailTableLineRepository
+            DetailTableLineRepository detailTableLineRepository,
+            ProjectChangePublisher changePublisher,
+            ProjectSyncService projectSyncService,
+            ProjectWriteCoordinator writeCoordinator,
+            ProjectSnapshotService projectSnapshotService,
+            ProjectArchiveService archiveService,
+            ProjectContentLoader projectContentLoader,
+            ProjectStreamService projectStreamService,
+            EstimateValidator estimateValidator,
+            AutosaveBuffer autosaveBuffer
     ) {
         this.projectRepository = projectRepository;
         this.chapterRepository = chapterRepository;
         this.mainTableLineRepository = mainTableLineRepository;
         this.detailTableLineRepository = detailTableLineRepository;
+        this.changePublisher = changePublisher;
+        this.projectSyncService = projectSyncService;
+        this.writeCoordinator = writeCoordinator;
+        this.projectSnapshotService = projectSnapshotService;
+        this.archiveService = archiveService;
+        this.projectContentLoader = projectContentLoader;
+        this.projectStreamService = projectStreamService;
+        this.estimateValidator = estimateValidator;
+        this.autosaveBuffer = autosaveBuffer;
     }
 
     @GetMapping
+    @Transactional(readOnly = true)
     public List<Project> getAll() {
         return projectRepository.findAll();
     }
 
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public Project getById(@PathVariable Long id) {
         return projectRepository.findById(id).orElseThrow();
     }
@@ -51,175 +94,87 @@ public class ProjectController {
                 .userId(dto.getUserId())
                 .companyId(dto.getCompanyId())
                 .build();
-        return projectRepository.save(project);
+        Project saved = projectRepository.save(project);
+        changePublisher.projectChanged(saved.getId(), ChangeType.CREATED);
+        return saved;
     }
 
     @PutMapping("/{id}")
     public Project update(@PathVariable Long id, @RequestBody ProjectRequestDTO dto) {
-        Project project = projectRepository.findById(id).orElseThrow();
-        project.setName(dto.getName());
-        project.setUserId(dto.getUserId());
-        project.setCompanyId(dto.getCompanyId());
-        return projectRepository.save(project);
+        archiveService.ensureActive(id);
+        return writeCoordinator.execute(id, () -> {
+            Project project = projectRepository.findById(id).orElseThrow();
+            project.setName(dto.getName());
+            project.setUserId(dto.getUserId());
+            project.setCompanyId(dto.getCompanyId());
+            Project saved = projectRepository.save(project);
+            changePublisher.projectChanged(saved.getId(), ChangeType.UPDATED);
+            return saved;
+        });
     }
 
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
-        projectRepository.deleteById(id);
+        writeCoordinator.run(id, () -> {
+            detailTableLineRepository.deleteAllByProjectId(id);
+            mainTableLineRepository.deleteAllByProjectId(id);
+            chapterRepository.deleteAllByProjectId(id);
+            projectRepository.deleteById(id);
+            changePublisher.projectChanged(id, ChangeType.DELETED);
+        });
     }
 
     @GetMapping("/{id}/full")
+    @Transactional(readOnly = true)
     public ProjectFullDTO getFullProject(@PathVariable Long id) {
-        Project project = projectRepository.findById(id).orElseThrow();
-        List<Chapter> chapters = chapterRepository.findByProjectId(id);
-
-        List<ChapterWithLinesDTO> chapterDTOs = chapters.stream().map(ch -> {
-            List<MainTableLine> lines = mainTableLineRepository.findByChapterId(ch.getId());
-
-            List<MainTableLineWithDetailsDTO> lineDTOs = lines.stream().map(line -> {
-                List<DetailTableLine> details = detailTableLineRepository.findByMainTableLineId(line.getId());
-                MainTableLineWithDetailsDTO dto = new MainTableLineWithDetailsDTO();
-                dto.setMainTableLine(line);
-                dto.setDetails(details);
-                return dto;
-            }).toList();
-
-            ChapterWithLinesDTO chapterDTO = new ChapterWithLinesDTO();
-            chapterDTO.setChapter(ch);
-            chapterDTO.setLines(lineDTOs);
-            return chapterDTO;
-        }).toList();
-
-        ProjectFullDTO fullDTO = new ProjectFullDTO();
-        fullDTO.setProject(project);
-        fullDTO.setChapters(chapterDTOs);
-
-        return fullDTO;
-    }
-
-    @PutMapping("/{id}/full")
-        public void syncProject(@PathVariable Long id, @RequestBody ProjectFullDTO fullDTO) {
-
-        Project project = projectRepository.findById(id).orElseThrow();
-        project.setName(fullDTO.getProject().getName());
-        project.setUserId(fullDTO.getProject().getUserId());
-        project.setCompanyId(fullDTO.getProject().getCompanyId());
-        projectRepository.save(project);
-
-        Map<String, Long> tempIdToRealId = new HashMap<>();
-        List<Long> sentChapterIds = new ArrayList<>();
-
-        // 1. Enregistrement initial des chapitres sans parentId
-        for (ChapterWithLinesDTO chapterDTO : fullDTO.getChapters()) {
-            Chapter chapter = chapterDTO.getChapter();
-            chapter.setProjectId(id);
-
-            String tempId = chapter.getTempId();
-            Chapter saved = chapterRepository.save(chapter);
-
-            if (tempId != null) {
-                tempIdToRealId.put(tempId, saved.getId());
-            }
-
-            chapter.setId(saved.getId());
-            chapterDTO.setChapter(saved);
-            sentChapterIds.add(saved.getId());
+        Optional<ProjectFullDTO> archived = archiveService.findArchivedContent(id);
+        if (archived.isPresent()) {
+            return archived.get();
         }
+        return projectContentLoader.load(projectRepository.findById(id).orElseThrow());
+    }
 
-        // 2. Mise à jour des parentId après insertion
-        for (ChapterWithLinesDTO chapterDTO : fullDTO.getChapters()) {
-            Chapter chapter = chapterDTO.getChapter();
-            String parentTempId = chapter.getParentTempId();
-
-            Chapter updated = chapterRepository.findById(chapter.getId()).orElseThrow();
-
-            if (parentTempId != null && tempIdToRealId.containsKey(parentTempId)) {
-                // ✅ Parent temporaire → on convertit
-                updated.setParentId(tempIdToRealId.get(parentTempId));
-                System.out.println("✅ parentId mis à jour via parentTempId : " + updated.getParentId());
-            } else {
-                // ✅ Aucun parentTempId → on conserve le parentId réel s’il existe
-                updated.setParentId(chapter.getParentId());
-                System.out.println("✅ parentId conservé depuis payload : " + updated.getParentId());
-            }
-
-            chapterRepository.save(updated);
-            chapterDTO.setChapter(updated); // important pour suite du traitement
-        }
-
-
-        // 3. Traitement des lignes principales et détails
-        for (ChapterWithLinesDTO chapterDTO : fullDTO.getChapters()) {
-            Chapter chapter = chapterDTO.getChapter();
-            List<Long> sentLineIds = new ArrayList<>();
-
-            for (MainTableLineWithDetailsDTO lineDTO : chapterDTO.getLines()) {
-                MainTableLine line = lineDTO.getMainTableLine();
-                line.setChapterId(chapter.getId());
-
-                MainTableLine savedLine = mainTableLineRepository.save(line);
-                sentLineIds.add(savedLine.getId());
-
-                List<Long> sentDetailIds = new ArrayList<>();
-
-                for (DetailTableLine detail : lineDTO.getDetails()) {
-                    detail.setMainTableLineId(savedLine.getId());
-                    DetailTableLine savedDetail = detailTableLineRepository.save(detail);
-                    sentDetailIds.add(savedDetail.getId());
-                }
-
-                // Supprimer les détails retirés
-                List<DetailTableLine> existingDetails = detailTableLineRepository.findByMainTableLineId(savedLine.getId());
-                for (DetailTableLine existing : existingDetails) {
-                    if (!sentDetailIds.contains(existing.getId())) {
-                        detailTableLineRepository.delete(existing);
-                    }
-                }
-            }
-
-            // Supprimer les lignes principales retirées (avec suppression des détails d'abord)
-            List<MainTableLine> existingLines = mainTableLineRepository.findByChapterId(chapter.getId());
-            for (MainTableLine existing : existingLines) {
-                if (!sentLineIds.contains(existing.getId())) {
-                    List<DetailTableLine> details = detailTableLineRepository.findByMainTableLineId(existing.getId());
-                    detailTableLineRepository.deleteAll(details);
-                    mainTableLineRepository.delete(existing);
-                }
-            }
-        }
-
-        // 4. Suppression récursive des chapitres supprimés
-        List<Chapter> existingChapters = chapterRepository.findByProjectId(id);
-        Set<Long> sentChapterIdSet = new HashSet<>(sentChapterIds);
-
-        for (Chapter existing : existingChapters) {
-            if (!sentChapterIdSet.contains(existing.getId())) {
-                deleteChapterRecursively(existing.getId());
-            }
+    // Même contenu que /full, en NDJSON écrit au fil de la lecture sur le pool de flux (StreamingConfig).
+    // Le contrôle d'existence passe par JDBC : le thread de la requête ne garde aucune connexion
+    @GetMapping(value = "/{id}/full/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFullProject(@PathVariable Long id) {
+        if (!projectStreamService.exists(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
-
-        System.out.println("✅ Projet synchronisé avec succès.");
+        ReplicaRoutingDataSource.Routing routing = ReplicaRoutingDataSource.currentRouting();
+        StreamingResponseBody body = out -> projectStreamService.write(id, out, routing);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
+    @GetMapping("/{id}/totals")
+    public ProjectTotalsDTO getTotals(@PathVariable Long id) {
+        return projectSnapshotService.getTotals(id);
+    }
 
-    private void deleteChapterRecursively(Long chapterId) {
-        List<Chapter> children = chapterRepository.findAll().stream()
-                .filter(ch -> chapterId.equals(ch.getParentId()))
-                .toList();
-
-        for (Chapter child : children) {
-            deleteChapterRecursively(child.getId());
-        }
+    @PutMapping("/{id}/full")
+    public void syncProject(@PathVariable Long id, @RequestBody ProjectFullDTO fullDTO) {
+        // Hors verrou et hors transaction : un envoi refusé ne retarde pas les autres écritures du projet
+        estimateValidator.validate(fullDTO);
+        // Les synchronisations d'un même projet sont sérialisées, celles de projets différents non
+        writeCoordinator.run(id, () -> projectSyncService.sync(id, fullDTO));
+    }
 
-        // Supprime les lignes principales + détails
-        List<MainTableLine> lines = mainTableLineRepository.findByChapterId(chapterId);
-        for (MainTableLine line : lines) {
-            List<DetailTableLine> details = detailTableLineRepository.findByMainTableLineId(line.getId());
-            detailTableLineRepository.deleteAll(details);
+    // Sauvegarde automatique de l'éditeur : validée tout de suite, écrite en différé ; seul le dernier envoi
+    // d'une fenêtre est synchronisé. Les lectures de /full et /totals vident d'abord le tampon (AutosaveConfig)
+    @PutMapping("/{id}/full/autosave")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void autosaveProject(@PathVariable Long id, @RequestBody ProjectFullDTO fullDTO) {
+        if (!projectRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
-        mainTableLineRepository.deleteAll(lines);
+        estimateValidator.validate(fullDTO);
+        autosaveBuffer.acceptProject(id, fullDTO);
+    }
 
-        // Supprime le chapitre lui-même
-        chapterRepository.deleteById(chapterId);
+    // Sauvegardes automatiques (projet ou lignes) refusées à l'écriture différée : le tampon est vidé avant
+    // (AutosaveConfig), la liste couvre donc tout envoi accepté avant la requête
+    @GetMapping("/{id}/autosave/rejected")
+    public List<RejectedAutosaveDTO> getRejectedAutosaves(@PathVariable Long id) {
+        return autosaveBuffer.rejected(id);
     }
 }
@@ -0,0 +1,22 @@
+package com.example.myProject.controller;
+
+import com.example.myProject.service.ProjectEventHub;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/myProject/api/projects")
+public class ProjectEventController {
+
+    private final ProjectEventHub eventHub;
+
+    public ProjectEventController(ProjectEventHub eventHub) {
+        this.eventHub = eventHub;
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable Long id) {
+        return eventHub.subscribe(id);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.myProject.controller;
+
+import com.example.myProject.dto.ProjectDiffDTO;
+import com.example.myProject.dto.ProjectRevisionDTO;
+import com.example.myProject.dto.ProjectVersionDTO;
+import com.example.myProject.service.ProjectHistoryService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/myProject/api/projects/{projectId}/versions")
+public class ProjectHistoryController {
+
+    private final ProjectHistoryService historyService;
+
+    public ProjectHistoryController(ProjectHistoryService historyService) {
+        this.historyService = historyService;
+    }
+
+    @GetMapping
+    public List<ProjectRevisionDTO> listVersions(@PathVariable Long projectId) {
+        return historyService.listVersions(projectId);
+    }
+
+    @GetMapping("/{version}")
+    public ProjectVersionDTO getVersion(@PathVariable Long projectId, @PathVariable Integer version) {
+        return historyService.getVersion(projectId, version);
+    }
+
+    @GetMapping("/diff")
+    public ProjectDiffDTO diff(@PathVariable Long projectId, @RequestParam Integer from, @RequestParam Integer to) {
+        return historyService.diff(projectId, from, to);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.myProject.controller;
+
+import com.example.myProject.dto.ProjectReportDTO;
+import com.example.myProject.dto.UnitTotalDTO;
+import com.example.myProject.model.CompanySummary;
+import com.example.myProject.model.ProjectSummary;
+import com.example.myProject.service.ReportingService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/myProject/api/reports")
+public class ReportController {
+
+    private final ReportingService reportingService;
+
+    public ReportController(ReportingService reportingService) {
+        this.reportingService = reportingService;
+    }
+
+    @GetMapping("/projects/{projectId}")
+    public ProjectReportDTO getProjectReport(@PathVariable Long projectId) {
+        return reportingService.getProjectReport(projectId);
+    }
+
+    @GetMapping("/companies/{companyId}")
+    public CompanySummary getCompanySummary(@PathVariable Long companyId) {
+        return reportingService.getCompanySummary(companyId);
+    }
+
+    @GetMapping("/companies/{companyId}/projects")
+    public List<ProjectSummary> getCompanyProjects(@PathVariable Long companyId) {
+        return reportingService.getCompanyProjects(companyId);
+    }
+
+    @GetMapping("/companies/{companyId}/units")
+    public List<UnitTotalDTO> getCompanyUnits(@PathVariable Long companyId) {
+        return reportingService.getCompanyUnits(companyId);
+    }
+
+    @GetMapping("/users/{userId}/projects")
+    public List<ProjectSummary> getUserProjects(@PathVariable Long userId) {
+        return reportingService.getUserProjects(userId);
+    }
+
+    @PostMapping("/rebuild")
+    public void rebuild() {
+        reportingService.rebuildAll();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.myProject.controller;
+
+import com.example.myProject.dto.SearchResultDTO;
+import com.example.myProject.service.SearchService;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/myProject/api/search")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @GetMapping
+    public SearchResultDTO search(
+            @RequestParam Long companyId,
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return searchService.search(companyId, query, page, size);
+    }
+}
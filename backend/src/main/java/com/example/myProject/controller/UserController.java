@@ -1,35 +1,51 @@
 package com.example.myProject.controller;
 
+import com.example.myProject.config.AuthTokenInterceptor;
 import com.example.myProject.model.User;
 import com.example.myProject.repository.UserRepository;
 import com.example.myProject.dto.UserRequestDTO;
+import com.example.myProject.service.AuthenticatedUser;
+import com.example.myProject.service.PasswordHasher;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import jakarta.validation.Valid;
 import java.time.LocalDateTime;
+import java.util.Objects;
 import java.util.Optional;
 
+// Jeton exigé sur toutes ces routes (AuthConfig) : chacun ne voit que les comptes de sa société, les crée
+// dans sa société et ne change que son propre mot de passe ; la société d'un compte n'est jamais modifiable
 @RestController
 @RequestMapping("/myProject/api/users")
 public class UserController {
 
     private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
 
-    public UserController(UserRepository userRepository) {
+    public UserController(UserRepository userRepository, PasswordHasher passwordHasher) {
         this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
     }
 
     @GetMapping
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<User> getAllUsers(HttpServletRequest request) {
+        AuthenticatedUser caller = AuthTokenInterceptor.authenticatedUser(request);
+        if (caller.companyId() == null) {
+            return userRepository.findById(caller.userId()).stream().toList();
+        }
+        return userRepository.findByCompanyId(caller.companyId().intValue());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUser(@PathVariable Long id) {
-        Optional<User> user = userRepository.findById(id);
+    @Transactional(readOnly = true)
+    public ResponseEntity<User> getUser(@PathVariable Long id, HttpServletRequest request) {
+        Optional<User> user = visible(id, request);
         if (user.isPresent()) {
             return new ResponseEntity<>(user.get(), HttpStatus.OK);
         }
@@ -38,12 +54,16 @@ public class UserController {
     }
 
     @PostMapping
-    public ResponseEntity<User> createUser(@Valid @RequestBody UserRequestDTO userRequestDTO) {
-        // Créer un nouvel utilisateur à partir du DTO
+    public ResponseEntity<User> createUser(@Valid @RequestBody UserRequestDTO userRequestDTO, HttpServletRequest request) {
+        AuthenticatedUser caller = AuthTokenInterceptor.authenticatedUser(request);
+        if (caller.companyId() == null) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        // Créer un nouvel utilisateur à partir du DTO, dans la société de l'appelant
         User user = new User();
         user.setEmail(userRequestDTO.getEmail());
-        user.setPassword(userRequestDTO.getPassword());
-        user.setCompanyId(userRequestDTO.getCompanyId());
+        user.setPassword(passwordHasher.hash(userRequestDTO.getPassword()));
+        user.setCompanyId(caller.companyId().intValue());
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
 
@@ -55,16 +75,20 @@ public class UserController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, @Valid @RequestBody UserRequestDTO userRequestDTO) {
-        User existingUser = userRepository.findById(id).orElse(null);
+    public ResponseEntity<User> updateUser(@PathVariable Long id, @Valid @RequestBody UserRequestDTO userRequestDTO,
+                                           HttpServletRequest request) {
+        User existingUser = visible(id, request).orElse(null);
 
         if (existingUser == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
+        // E-mail et mot de passe : seulement les siens
+        if (!existingUser.getId().equals(AuthTokenInterceptor.authenticatedUser(request).userId())) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
 
         existingUser.setEmail(userRequestDTO.getEmail());
-        existingUser.setPassword(userRequestDTO.getPassword());
-        existingUser.setCompanyId(userRequestDTO.getCompanyId());
+        existingUser.setPassword(passwordHasher.hash(userRequestDTO.getPassword()));
         existingUser.setUpdatedAt(LocalDateTime.now());
 
         User updatedUser = userRepository.save(existingUser);
@@ -73,8 +97,8 @@ public class UserController {
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<User> deleteUser(@PathVariable Long id){
-        User existingUser = userRepository.findById(id).orElse(null);
+    public ResponseEntity<User> deleteUser(@PathVariable Long id, HttpServletRequest request){
+        User existingUser = visible(id, request).orElse(null);
 
         if (existingUser == null) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -84,5 +108,12 @@ public class UserController {
 
         return new ResponseEntity<>(HttpStatus.OK);
     }
-}
 
+    // Le compte de l'appelant ou un compte de sa société ; les autres répondent 404
+    private Optional<User> visible(Long id, HttpServletRequest request) {
+        AuthenticatedUser caller = AuthTokenInterceptor.authenticatedUser(request);
+        return userRepository.findById(id).filter(user -> user.getId().equals(caller.userId())
+                || (caller.companyId() != null && user.getCompanyId() != null
+                && Objects.equals(caller.companyId(), user.getCompanyId().longValue())));
+    }
+}
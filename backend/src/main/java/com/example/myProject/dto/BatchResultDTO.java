@@ -0,0 +1,17 @@
+package com.example.myProject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BatchResultDTO {
+    private Long projectId;
+    // Dans l'ordre des créations reçues
+    private List<Long> createdIds;
+    private int updated;
+    private int deleted;
+    private int reordered;
+}
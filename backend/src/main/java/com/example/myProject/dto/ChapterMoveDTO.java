@@ -0,0 +1,13 @@
+package com.example.myProject.dto;
+
+import lombok.Data;
+
+@Data
+public class ChapterMoveDTO {
+    // Projet de destination ; null = projet inchangé
+    private Long projectId;
+    // Nouveau parent ; null = chapitre racine
+    private Long parentId;
+    // Frère après lequel placer le chapitre ; null = en tête
+    private Long afterId;
+}
@@ -6,7 +6,7 @@ import lombok.Data;
 public class ChapterRequestDTO {
     private Long projectId;
     private Long parentId; // peut être null
-    private String num;
+    private String num; // ignoré : numéro calculé par le serveur
     private String label;
     private String content; // contenu HTML du chapitre
 }
\ No newline at end of file
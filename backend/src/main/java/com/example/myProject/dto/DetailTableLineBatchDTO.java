@@ -0,0 +1,16 @@
+package com.example.myProject.dto;
+
+import com.example.myProject.model.DetailTableLine;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Les détails à mettre à jour portent leur id ; la ligne parente d'un détail existant n'est pas modifiée
+@Data
+public class DetailTableLineBatchDTO {
+    private List<DetailTableLineRequestDTO> creates = new ArrayList<>();
+    private List<DetailTableLine> updates = new ArrayList<>();
+    private List<Long> deletes = new ArrayList<>();
+    private List<PositionDTO> reorders = new ArrayList<>();
+}
@@ -0,0 +1,11 @@
+package com.example.myProject.dto;
+
+import lombok.Data;
+
+@Data
+public class LineMoveDTO {
+    // Nouveau parent (chapitre pour une ligne, ligne pour un détail) ; null = parent inchangé
+    private Long parentId;
+    // Ligne après laquelle placer la ligne déplacée ; null = en tête
+    private Long afterId;
+}
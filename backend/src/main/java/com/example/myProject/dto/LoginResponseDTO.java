@@ -0,0 +1,7 @@
+package com.example.myProject.dto;
+
+import java.time.Instant;
+
+// Jeton à renvoyer dans l'en-tête Authorization: Bearer ...
+public record LoginResponseDTO(String token, Instant expiresAt, Long userId, Long companyId) {
+}
@@ -0,0 +1,16 @@
+package com.example.myProject.dto;
+
+import com.example.myProject.model.MainTableLine;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Les lignes à mettre à jour portent leur id ; le chapitre d'une ligne existante n'est pas modifié
+@Data
+public class MainTableLineBatchDTO {
+    private List<MainTableLineRequestDTO> creates = new ArrayList<>();
+    private List<MainTableLine> updates = new ArrayList<>();
+    private List<Long> deletes = new ArrayList<>();
+    private List<PositionDTO> reorders = new ArrayList<>();
+}
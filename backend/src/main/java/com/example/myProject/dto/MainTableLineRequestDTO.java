@@ -7,6 +7,7 @@ public class MainTableLineRequestDTO {
     private Long chapterId;
     private String gr;
     private String num;
+    private String code;
     private String title;
     private String nm;
     private String unit;
@@ -0,0 +1,14 @@
+package com.example.myProject.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class PersistenceSettingsDTO {
+    private Map<String, Object> pool;
+    private Map<String, Object> hibernate;
+    private Map<String, Object> driver;
+    private List<String> warnings;
+}
@@ -0,0 +1,9 @@
+package com.example.myProject.dto;
+
+import lombok.Data;
+
+@Data
+public class PositionDTO {
+    private Long id;
+    private Integer position;
+}
@@ -0,0 +1,12 @@
+package com.example.myProject.dto;
+
+import lombok.Data;
+
+@Data
+public class PriceLibraryItemRequestDTO {
+    private Long companyId;
+    private String code;
+    private String title;
+    private String unit;
+    private Double unitPrice;
+}
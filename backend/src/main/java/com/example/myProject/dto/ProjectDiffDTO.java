@@ -0,0 +1,22 @@
+package com.example.myProject.dto;
+
+import com.example.myProject.model.Chapter;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProjectDiffDTO {
+    private Long projectId;
+    private Integer fromVersion;
+    private Integer toVersion;
+    private String name; // null si inchangé
+    private List<Chapter> upsertedChapters;
+    private List<Long> deletedChapterIds;
+    private List<MainTableLine> upsertedLines;
+    private List<Long> deletedLineIds;
+    private List<DetailTableLine> upsertedDetails;
+    private List<Long> deletedDetailIds;
+}
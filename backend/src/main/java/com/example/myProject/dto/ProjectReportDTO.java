@@ -0,0 +1,15 @@
+package com.example.myProject.dto;
+
+import com.example.myProject.model.ChapterSummary;
+import com.example.myProject.model.ProjectSummary;
+import com.example.myProject.model.UnitSummary;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProjectReportDTO {
+    private ProjectSummary summary;
+    private List<ChapterSummary> chapters;
+    private List<UnitSummary> units;
+}
@@ -0,0 +1,18 @@
+package com.example.myProject.dto;
+
+import com.example.myProject.model.ProjectRevision;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectRevisionDTO {
+    private Integer version;
+    private ProjectRevision.Kind kind;
+    private Integer changeCount;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,31 @@
+package com.example.myProject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProjectTotalsDTO {
+    private Long projectId;
+    private int lineCount;
+    private double totalPrice;
+    private double computedTotalPrice; // somme des quantité x prix unitaire
+    private List<UnitTotal> units;
+    private List<ChapterTotal> chapters; // sous-chapitres compris
+
+    @Data
+    @AllArgsConstructor
+    public static class UnitTotal {
+        private String unit;
+        private double quantity;
+        private double totalPrice;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ChapterTotal {
+        private Long chapterId;
+        private double totalPrice;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.myProject.dto;
+
+import com.example.myProject.model.Chapter;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProjectVersionDTO {
+    private Long projectId;
+    private Integer version;
+    private String name;
+    private List<Chapter> chapters;
+    private List<MainTableLine> lines;
+    private List<DetailTableLine> details;
+}
@@ -0,0 +1,18 @@
+package com.example.myProject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class RejectedAutosaveDTO {
+    // Numéro d'ordre de la sauvegarde dans le tampon
+    private long seq;
+    // Null pour un projet complet
+    private Long lineId;
+    private int status;
+    private String reason;
+    private LocalDateTime rejectedAt;
+}
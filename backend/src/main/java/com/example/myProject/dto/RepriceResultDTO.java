@@ -0,0 +1,11 @@
+package com.example.myProject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RepriceResultDTO {
+    private Long projectId;
+    private int updatedLines;
+}
@@ -0,0 +1,14 @@
+package com.example.myProject.dto;
+
+import lombok.Data;
+
+@Data
+public class SearchHitDTO {
+    private String type; // CHAPTER ou MAIN_LINE
+    private Long id;
+    private Long projectId;
+    private Long chapterId;
+    private String num;
+    private String title;
+    private Double score;
+}
@@ -0,0 +1,14 @@
+package com.example.myProject.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SearchResultDTO {
+    private String query;
+    private int page;
+    private int size;
+    private long total;
+    private List<SearchHitDTO> hits;
+}
@@ -0,0 +1,15 @@
+package com.example.myProject.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnitTotalDTO {
+    private String unit;
+    private Long lineCount;
+    private Double totalQuantity;
+    private Double totalPrice;
+}
@@ -13,8 +13,6 @@ public class UserRequestDTO {
     @NotBlank(message = "Password cannot be blank")
     private String password;
 
-    private Integer companyId;
-
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -32,13 +30,6 @@ public class UserRequestDTO {
         this.password = password;
     }
 
-    public Integer getCompanyId() {
-        return companyId;
-    }
-    public void setCompanyId(Integer companyId) {
-        this.companyId = companyId;
-    }
-
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,24 @@
+package com.example.myProject.event;
+
+// Publié après chaque écriture touchant un projet (projet, chapitre, ligne ou détail). revision est
+// project.revision après l'écriture (null si le projet est supprimé) : un client qui a lu /full à la
+// révision R applique les événements suivants dans l'ordre et recharge s'il en manque un. data est la
+// ligne écrite (Chapter, MainTableLine ou DetailTableLine) pour une création ou une mise à jour unitaire ;
+// null pour une suppression, un lot ou une synchronisation, qui demandent de relire le projet.
+public record ProjectChangedEvent(Long projectId, EntityType entityType, ChangeType changeType, Long entityId,
+                                  Long revision, Object data) {
+
+    public enum EntityType {
+        PROJECT,
+        CHAPTER,
+        MAIN_LINE,
+        DETAIL_LINE
+    }
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED,
+        SYNCED
+    }
+}
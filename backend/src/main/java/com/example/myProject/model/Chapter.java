@@ -2,9 +2,15 @@ package com.example.myProject.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Filter;
 
 @Entity
-@Table(name = "chapter")
+@Table(name = "chapter", indexes = {
+        @Index(name = "idx_chapter_project_parent", columnList = "project_id, parent_id, position"),
+        @Index(name = "idx_chapter_parent", columnList = "parent_id")
+})
+@Filter(name = Project.TENANT_FILTER, deduceAliasInjectionPoints = false,
+        condition = "{alias}.project_id IN (SELECT p.id FROM project p WHERE p.company_id = :companyId)")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -29,6 +35,9 @@ public class Chapter {
     @Column(columnDefinition = "TEXT")
     private String content;
 
+    // Rang parmi les frères (positions espacées) ; num en est déduit par ChapterNumberingService
+    private Integer position;
+
     @Transient
     private String parentTempId;
 
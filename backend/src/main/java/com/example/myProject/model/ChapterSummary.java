@@ -0,0 +1,27 @@
+package com.example.myProject.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "chapter_summary", indexes = @Index(name = "idx_chapter_summary_project", columnList = "project_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChapterSummary {
+
+    @Id
+    @Column(name = "chapter_id")
+    private Long chapterId;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(name = "line_count")
+    private Long lineCount;
+
+    @Column(name = "total_price")
+    private Double totalPrice;
+}
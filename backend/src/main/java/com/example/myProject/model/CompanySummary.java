@@ -0,0 +1,31 @@
+package com.example.myProject.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "company_summary")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CompanySummary {
+
+    @Id
+    @Column(name = "company_id")
+    private Long companyId;
+
+    @Column(name = "project_count")
+    private Long projectCount;
+
+    @Column(name = "line_count")
+    private Long lineCount;
+
+    @Column(name = "total_price")
+    private Double totalPrice;
+
+    private LocalDateTime updatedAt;
+}
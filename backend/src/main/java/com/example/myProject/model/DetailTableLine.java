@@ -2,9 +2,15 @@ package com.example.myProject.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Filter;
 
 @Entity
-@Table(name = "detail_table_line")
+@Table(name = "detail_table_line", indexes = {
+        @Index(name = "idx_detail_line_parent_position", columnList = "main_table_line_id, position"),
+        @Index(name = "idx_detail_line_project", columnList = "project_id")
+})
+@Filter(name = Project.TENANT_FILTER, deduceAliasInjectionPoints = false,
+        condition = "{alias}.project_id IN (SELECT p.id FROM project p WHERE p.company_id = :companyId)")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,6 +25,10 @@ public class DetailTableLine {
     @Column(name = "main_table_line_id", nullable = false)
     private Long mainTableLineId;
 
+    // Copie du projet de la ligne parente, comme main_table_line.project_id
+    @Column(name = "project_id")
+    private Long projectId;
+
     private String title;
     private Double number;
     private Double length;
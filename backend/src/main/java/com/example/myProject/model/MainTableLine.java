@@ -2,9 +2,15 @@ package com.example.myProject.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Filter;
 
 @Entity
-@Table(name = "main_table_line")
+@Table(name = "main_table_line", indexes = {
+        @Index(name = "idx_main_line_chapter_position", columnList = "chapter_id, position"),
+        @Index(name = "idx_main_line_project", columnList = "project_id")
+})
+@Filter(name = Project.TENANT_FILTER, deduceAliasInjectionPoints = false,
+        condition = "{alias}.project_id IN (SELECT p.id FROM project p WHERE p.company_id = :companyId)")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,10 +25,18 @@ public class MainTableLine {
     @Column(name = "chapter_id", nullable = false)
     private Long chapterId;
 
+    // Copie de chapter.project_id : un projet entier se lit ou se supprime sans jointure
+    @Column(name = "project_id")
+    private Long projectId;
+
     private String gr;
 
+    // Numéro affiché (1.2.3), déduit de la position par ChapterNumberingService
     private String num;
 
+    // Code article, clé de la bibliothèque de prix (PriceLibraryItem.code) ; saisi, jamais renuméroté
+    private String code;
+
     private String title;
 
     private String nm;
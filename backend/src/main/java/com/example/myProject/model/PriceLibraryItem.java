@@ -0,0 +1,52 @@
+package com.example.myProject.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        name = "price_library_item",
+        uniqueConstraints = @UniqueConstraint(name = "uk_price_library_company_code_unit", columnNames = {"company_id", "code", "unit"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceLibraryItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    // Correspond à MainTableLine.code
+    @Column(nullable = false)
+    private String code;
+
+    private String title;
+
+    private String unit;
+
+    @Column(name = "unit_price")
+    private Double unitPrice;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
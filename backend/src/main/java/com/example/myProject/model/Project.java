@@ -4,11 +4,20 @@ import jakarta.persistence.*;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import lombok.*;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "project")
+@Table(name = "project", indexes = {
+        @Index(name = "idx_project_archived_updated", columnList = "archived_at, updated_at"),
+        @Index(name = "idx_project_company_updated", columnList = "company_id, updated_at")
+})
+// Cloisonnement par société, activé par requête (société du jeton) ; findById n'est pas filtré
+@FilterDef(name = Project.TENANT_FILTER, parameters = @ParamDef(name = "companyId", type = Long.class))
+@Filter(name = Project.TENANT_FILTER, condition = "company_id = :companyId")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,6 +25,8 @@ import java.time.LocalDateTime;
 @Builder
 public class Project {
 
+    public static final String TENANT_FILTER = "tenantFilter";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -32,6 +43,16 @@ public class Project {
 
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // Renseigné quand le contenu du projet a été déplacé dans project_archive
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    // Incrémenté en base à chaque écriture sur le projet (ProjectChangePublisher), jamais par JPA :
+    // un projet rechargé puis sauvé n'écrase pas un incrément fait entre-temps
+    @Column(name = "revision", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private long revision;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,36 @@
+package com.example.myProject.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "project_archive")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProjectArchive {
+
+    @Id
+    @Column(name = "project_id")
+    private Long projectId;
+
+    @Column(name = "chapter_count")
+    private Integer chapterCount;
+
+    @Column(name = "line_count")
+    private Integer lineCount;
+
+    @Column(name = "detail_count")
+    private Integer detailCount;
+
+    // ProjectFullDTO sérialisé en JSON puis gzippé
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] payload;
+
+    private LocalDateTime archivedAt;
+}
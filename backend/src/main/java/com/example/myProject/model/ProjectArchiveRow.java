@@ -0,0 +1,37 @@
+package com.example.myProject.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Chapitres, lignes et détails d'un projet archivé : retrouve le projet à réintégrer à partir d'un identifiant de ligne
+@Entity
+@Table(
+        name = "project_archive_row",
+        uniqueConstraints = @UniqueConstraint(name = "uk_project_archive_row", columnNames = {"kind", "row_id"}),
+        indexes = @Index(name = "idx_project_archive_row_project", columnList = "project_id")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProjectArchiveRow {
+
+    public enum Kind {
+        CHAPTER, LINE, DETAIL
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Kind kind;
+
+    @Column(name = "row_id", nullable = false)
+    private Long rowId;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+}
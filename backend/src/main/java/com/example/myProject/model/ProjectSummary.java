@@ -0,0 +1,42 @@
+package com.example.myProject.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "project_summary", indexes = {
+        @Index(name = "idx_project_summary_company", columnList = "company_id"),
+        @Index(name = "idx_project_summary_user", columnList = "user_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProjectSummary {
+
+    @Id
+    @Column(name = "project_id")
+    private Long projectId;
+
+    @Column(name = "company_id")
+    private Long companyId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    private String name;
+
+    @Column(name = "chapter_count")
+    private Long chapterCount;
+
+    @Column(name = "line_count")
+    private Long lineCount;
+
+    @Column(name = "total_price")
+    private Double totalPrice;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.example.myProject.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "unit_summary", indexes = {
+        @Index(name = "idx_unit_summary_project", columnList = "project_id"),
+        @Index(name = "idx_unit_summary_company_unit", columnList = "company_id, unit")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UnitSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(name = "company_id")
+    private Long companyId;
+
+    private String unit;
+
+    @Column(name = "line_count")
+    private Long lineCount;
+
+    @Column(name = "total_quantity")
+    private Double totalQuantity;
+
+    @Column(name = "total_price")
+    private Double totalPrice;
+}
@@ -1,17 +1,20 @@
 package com.example.myProject.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name="users")
+@Table(name="users", indexes = @Index(name = "idx_users_email", columnList = "email"))
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     private String email;
+    // Haché (BCrypt) ; accepté en entrée, jamais renvoyé
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
 
     @Column(name = "company_id")
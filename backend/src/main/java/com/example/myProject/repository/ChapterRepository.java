@@ -2,11 +2,19 @@ package com.example.myProject.repository;
 
 import com.example.myProject.model.Chapter;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface ChapterRepository extends JpaRepository<Chapter, Long> {
     List<Chapter> findByProjectId(Long projectId);
+    List<Chapter> findByProjectIdOrderByPositionAscIdAsc(Long projectId);
     List<Chapter> findByParentId(Long parentId);
+
+    @Modifying
+    @Query("DELETE FROM Chapter c WHERE c.projectId = :projectId")
+    int deleteAllByProjectId(@Param("projectId") Long projectId);
 }
 
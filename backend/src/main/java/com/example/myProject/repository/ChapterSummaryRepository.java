@@ -0,0 +1,10 @@
+package com.example.myProject.repository;
+
+import com.example.myProject.model.ChapterSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ChapterSummaryRepository extends JpaRepository<ChapterSummary, Long> {
+    List<ChapterSummary> findByProjectId(Long projectId);
+}
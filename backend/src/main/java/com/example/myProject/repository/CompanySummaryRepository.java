@@ -0,0 +1,7 @@
+package com.example.myProject.repository;
+
+import com.example.myProject.model.CompanySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CompanySummaryRepository extends JpaRepository<CompanySummary, Long> {
+}
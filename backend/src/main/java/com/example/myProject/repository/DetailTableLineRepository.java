@@ -2,9 +2,18 @@ package com.example.myProject.repository;
 
 import com.example.myProject.model.DetailTableLine;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface DetailTableLineRepository extends JpaRepository<DetailTableLine, Long> {
     List<DetailTableLine> findByMainTableLineId(Long mainTableLineId);
+    List<DetailTableLine> findByMainTableLineIdOrderByPositionAscIdAsc(Long mainTableLineId);
+    List<DetailTableLine> findByProjectIdOrderByPositionAscIdAsc(Long projectId);
+
+    @Modifying
+    @Query("DELETE FROM DetailTableLine d WHERE d.projectId = :projectId")
+    int deleteAllByProjectId(@Param("projectId") Long projectId);
 }
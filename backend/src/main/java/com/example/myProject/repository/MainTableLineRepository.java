@@ -2,9 +2,18 @@ package com.example.myProject.repository;
 
 import com.example.myProject.model.MainTableLine;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface MainTableLineRepository extends JpaRepository<MainTableLine, Long> {
     List<MainTableLine> findByChapterId(Long chapterId);
+    List<MainTableLine> findByChapterIdOrderByPositionAscIdAsc(Long chapterId);
+    List<MainTableLine> findByProjectIdOrderByPositionAscIdAsc(Long projectId);
+
+    @Modifying
+    @Query("DELETE FROM MainTableLine l WHERE l.projectId = :projectId")
+    int deleteAllByProjectId(@Param("projectId") Long projectId);
 }
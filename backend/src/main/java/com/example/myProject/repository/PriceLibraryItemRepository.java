@@ -0,0 +1,27 @@
+package com.example.myProject.repository;
+
+import com.example.myProject.model.PriceLibraryItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface PriceLibraryItemRepository extends JpaRepository<PriceLibraryItem, Long> {
+    List<PriceLibraryItem> findByCompanyId(Long companyId);
+
+    // Une seule requête ensembliste : toutes les lignes du projet dont le code et l'unité
+    // correspondent à un article de la bibliothèque de la société reçoivent son prix.
+    @Modifying
+    @Query(value = """
+            UPDATE main_table_line l
+            JOIN project p ON p.id = l.project_id
+            JOIN price_library_item i
+              ON i.company_id = p.company_id AND i.code = l.code AND i.unit <=> l.unit
+            SET l.up = i.unit_price,
+                l.total_price = l.quantity * i.unit_price
+            WHERE l.project_id = :projectId
+            """, nativeQuery = true)
+    int repriceProject(@Param("projectId") Long projectId);
+}
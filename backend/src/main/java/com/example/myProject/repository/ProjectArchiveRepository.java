@@ -0,0 +1,7 @@
+package com.example.myProject.repository;
+
+import com.example.myProject.model.ProjectArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProjectArchiveRepository extends JpaRepository<ProjectArchive, Long> {
+}
@@ -1,7 +1,24 @@
 package com.example.myProject.repository;
 
 import com.example.myProject.model.Project;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface ProjectRepository extends JpaRepository<Project, Long> {
+
+    @Query("SELECT p.id FROM Project p WHERE p.archivedAt IS NULL AND p.updatedAt < :cutoff ORDER BY p.updatedAt")
+    List<Long> findIdsInactiveSince(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // updatedAt suit toute écriture sur le contenu, pas seulement celles sur la ligne project
+    @Transactional
+    @Modifying
+    @Query("UPDATE Project p SET p.updatedAt = :now WHERE p.id = :id")
+    int touch(@Param("id") Long id, @Param("now") LocalDateTime now);
 }
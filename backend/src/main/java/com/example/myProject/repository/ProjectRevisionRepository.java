@@ -0,0 +1,31 @@
+package com.example.myProject.repository;
+
+import com.example.myProject.dto.ProjectRevisionDTO;
+import com.example.myProject.model.ProjectRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ProjectRevisionRepository extends JpaRepository<ProjectRevision, Long> {
+
+    // Sans le payload, pour lister les versions sans les décompresser
+    @Query("""
+            SELECT new com.example.myProject.dto.ProjectRevisionDTO(r.version, r.kind, r.changeCount, r.createdAt)
+            FROM ProjectRevision r
+            WHERE r.projectId = :projectId
+            ORDER BY r.version DESC
+            """)
+    List<ProjectRevisionDTO> listVersions(@Param("projectId") Long projectId);
+
+    Optional<ProjectRevision> findTopByProjectIdOrderByVersionDesc(Long projectId);
+
+    Optional<ProjectRevision> findTopByProjectIdAndKindAndVersionLessThanEqualOrderByVersionDesc(
+            Long projectId, ProjectRevision.Kind kind, Integer version);
+
+    List<ProjectRevision> findByProjectIdAndVersionBetweenOrderByVersion(Long projectId, Integer from, Integer to);
+
+    void deleteByProjectId(Long projectId);
+}
@@ -0,0 +1,11 @@
+package com.example.myProject.repository;
+
+import com.example.myProject.model.ProjectSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ProjectSummaryRepository extends JpaRepository<ProjectSummary, Long> {
+    List<ProjectSummary> findByCompanyId(Long companyId);
+    List<ProjectSummary> findByUserId(Long userId);
+}
@@ -0,0 +1,22 @@
+package com.example.myProject.repository;
+
+import com.example.myProject.dto.UnitTotalDTO;
+import com.example.myProject.model.UnitSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface UnitSummaryRepository extends JpaRepository<UnitSummary, Long> {
+    List<UnitSummary> findByProjectId(Long projectId);
+
+    @Query("""
+            SELECT new com.example.myProject.dto.UnitTotalDTO(u.unit, SUM(u.lineCount), SUM(u.totalQuantity), SUM(u.totalPrice))
+            FROM UnitSummary u
+            WHERE u.companyId = :companyId
+            GROUP BY u.unit
+            ORDER BY u.unit
+            """)
+    List<UnitTotalDTO> sumByUnitForCompany(@Param("companyId") Long companyId);
+}
@@ -3,7 +3,13 @@ package com.example.myProject.repository;
 import com.example.myProject.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    Optional<User> findFirstByEmail(String email);
+
+    List<User> findByCompanyId(Integer companyId);
 }
 
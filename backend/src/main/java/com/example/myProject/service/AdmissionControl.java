@@ -0,0 +1,260 @@
+package com.example.myProject.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Contrôle d'admission des requêtes. Toutes passent par des seaux à jetons par utilisateur et par
+ * société, distincts pour chaque type d'opération. Les opérations lourdes (lecture ou synchronisation
+ * d'un projet complet, lot de lignes) prennent en plus, le temps de la requête, un nombre de permis égal
+ * au nombre de lignes du projet (du lot pour BATCH_WRITE) dans un sémaphore global et dans celui de leur
+ * société : elles attendent leur tour (FIFO) jusqu'à max-wait, puis sont refusées. Les opérations légères
+ * ne font jamais la queue.
+ */
+@Service
+public class AdmissionControl {
+
+    public enum Operation {
+        LIGHT, FULL_READ, FULL_SYNC, BATCH_WRITE;
+
+        public boolean isHeavy() {
+            return this != LIGHT;
+        }
+    }
+
+    // Chapitres, lignes et détails du projet, qu'il soit actif ou archivé
+    private static final String COST_SQL = """
+            SELECT p.company_id,
+                   (SELECT COUNT(*) FROM chapter c WHERE c.project_id = p.id)
+                   + (SELECT COUNT(*) FROM main_table_line l WHERE l.project_id = p.id)
+                   + (SELECT COUNT(*) FROM detail_table_line d WHERE d.project_id = p.id)
+                   + COALESCE((SELECT a.chapter_count + a.line_count + a.detail_count
+                               FROM project_archive a WHERE a.project_id = p.id), 0) AS row_count
+            FROM project p WHERE p.id = ?
+            """;
+    private static final long COST_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+    // Taille JSON approximative d'une ligne dans un lot : le corps n'est pas encore lu à l'admission
+    private static final long BATCH_ROW_BYTES = 256;
+    private static final int MAX_TRACKED = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Limit lightUser;
+    private final Limit lightCompany;
+    private final Limit heavyUser;
+    private final Limit heavyCompany;
+    private final int companyCapacity;
+    private final long maxWaitNanos;
+    private final Semaphore heavyPermits;
+    private final Map<Long, Semaphore> companyPermits = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<Long, Cost> costs = new ConcurrentHashMap<>();
+
+    public AdmissionControl(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${myproject.admission.light.user-rate:50}") double lightUserRate,
+            @Value("${myproject.admission.light.user-burst:100}") double lightUserBurst,
+            @Value("${myproject.admission.light.company-rate:200}") double lightCompanyRate,
+            @Value("${myproject.admission.light.company-burst:400}") double lightCompanyBurst,
+            @Value("${myproject.admission.heavy.user-rate:1}") double heavyUserRate,
+            @Value("${myproject.admission.heavy.user-burst:5}") double heavyUserBurst,
+            @Value("${myproject.admission.heavy.company-rate:5}") double heavyCompanyRate,
+            @Value("${myproject.admission.heavy.company-burst:20}") double heavyCompanyBurst,
+            @Value("${myproject.admission.heavy.capacity:20000}") int capacity,
+            @Value("${myproject.admission.heavy.company-share:0.5}") double companyShare,
+            @Value("${myproject.admission.heavy.max-wait:2s}") Duration maxWait
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.lightUser = new Limit(lightUserRate, lightUserBurst);
+        this.lightCompany = new Limit(lightCompanyRate, lightCompanyBurst);
+        this.heavyUser = new Limit(heavyUserRate, heavyUserBurst);
+        this.heavyCompany = new Limit(heavyCompanyRate, heavyCompanyBurst);
+        this.companyCapacity = Math.max(1, (int) (capacity * companyShare));
+        this.maxWaitNanos = maxWait.toNanos();
+        // Équitable : un gros projet en attente n'est pas doublé indéfiniment par les petits
+        this.heavyPermits = new Semaphore(capacity, true);
+
+        meterRegistry.gauge("admission.heavy.cost.in.use", heavyPermits, permits -> capacity - permits.availablePermits());
+    }
+
+    /**
+     * Admet la requête ou lève AdmissionRejectedException. user est l'identifiant de l'appelant
+     * (utilisateur, à défaut adresse) ; la société est déduite du projet quand elle n'est pas connue.
+     * bodyBytes (-1 si inconnue) ne sert qu'à estimer la taille d'un BATCH_WRITE.
+     * Le permis rendu doit être libéré à la fin de la requête.
+     */
+    public Permit admit(Operation operation, String user, Long companyId, Long projectId, long bodyBytes) {
+        long now = System.nanoTime();
+        Cost cost;
+        if (operation == Operation.BATCH_WRITE) {
+            cost = batchCost(bodyBytes);
+        } else {
+            cost = operation.isHeavy() && projectId != null ? cost(projectId, now) : null;
+        }
+        if (companyId == null && cost != null) {
+            companyId = cost.companyId();
+        }
+
+        TokenBucket userBucket = bucket("user:" + user + ":" + operation, operation.isHeavy() ? heavyUser : lightUser, now);
+        TokenBucket companyBucket = companyId == null ? null
+                : bucket("company:" + companyId + ":" + operation, operation.isHeavy() ? heavyCompany : lightCompany, now);
+        long wait = take(userBucket, now);
+        if (wait > 0) {
+            throw reject(operation, "user_rate", wait);
+        }
+        wait = take(companyBucket, now);
+        if (wait > 0) {
+            giveBack(userBucket, now);
+            throw reject(operation, "company_rate", wait);
+        }
+        if (!operation.isHeavy() || cost == null || cost.rows() == 0) {
+            admitted(operation);
+            return Permit.NONE;
+        }
+
+        // Un projet plus gros que la part d'une société passe seul plutôt que jamais
+        int permits = (int) Math.max(1, Math.min(cost.rows(), companyCapacity));
+        Semaphore company = companyId == null ? null
+                : companyPermits.computeIfAbsent(companyId, id -> new Semaphore(companyCapacity, true));
+        long deadline = now + maxWaitNanos;
+        String reason = null;
+        boolean companyHeld = false;
+        try {
+            companyHeld = company == null || company.tryAcquire(permits, maxWaitNanos, TimeUnit.NANOSECONDS);
+            if (!companyHeld) {
+                reason = "company_capacity";
+            } else if (!heavyPermits.tryAcquire(permits, deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                reason = "capacity";
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reason = "interrupted";
+        }
+        if (reason != null && companyHeld) {
+            release(company, permits);
+        }
+        Timer.builder("admission.queue.wait")
+                .tag("operation", tag(operation))
+                .description("Attente des opérations lourdes avant admission")
+                .register(meterRegistry)
+                .record(System.nanoTime() - now, TimeUnit.NANOSECONDS);
+        if (reason != null) {
+            giveBack(userBucket, now);
+            giveBack(companyBucket, now);
+            throw reject(operation, reason, maxWaitNanos);
+        }
+
+        admitted(operation);
+        return new Permit(() -> {
+            heavyPermits.release(permits);
+            release(company, permits);
+        });
+    }
+
+    private Cost cost(Long projectId, long now) {
+        Cost cached = costs.get(projectId);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached;
+        }
+        if (costs.size() > MAX_TRACKED) {
+            costs.values().removeIf(cost -> cost.expiresAt() <= now);
+        }
+        List<Cost> found = jdbcTemplate.query(COST_SQL, (rs, i) -> new Cost(rs.getObject("company_id", Long.class),
+                rs.getLong("row_count"), now + COST_TTL_NANOS), projectId);
+        // Projet inconnu : la requête finira en 404 ; comme un projet vide, elle n'occupe pas de capacité
+        Cost cost = found.isEmpty() ? new Cost(null, 0, now + COST_TTL_NANOS) : found.get(0);
+        costs.put(projectId, cost);
+        return cost;
+    }
+
+    // Envoi fragmenté, de taille inconnue : compté comme le plus gros lot qu'une société peut faire passer
+    private Cost batchCost(long bodyBytes) {
+        long rows = bodyBytes < 0 ? companyCapacity : Math.max(1, bodyBytes / BATCH_ROW_BYTES);
+        return new Cost(null, rows, 0);
+    }
+
+    private TokenBucket bucket(String key, Limit limit, long now) {
+        if (limit.rate() <= 0) {
+            return null;
+        }
+        if (buckets.size() > MAX_TRACKED) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(limit.rate(), limit.burst(), now));
+    }
+
+    private static long take(TokenBucket bucket, long now) {
+        return bucket == null ? 0 : bucket.tryTake(now);
+    }
+
+    private static void giveBack(TokenBucket bucket, long now) {
+        if (bucket != null) {
+            bucket.giveBack(now);
+        }
+    }
+
+    private static void release(Semaphore semaphore, int permits) {
+        if (semaphore != null) {
+            semaphore.release(permits);
+        }
+    }
+
+    private void admitted(Operation operation) {
+        Counter.builder("admission.admitted").tag("operation", tag(operation)).register(meterRegistry).increment();
+    }
+
+    private AdmissionRejectedException reject(Operation operation, String reason, long waitNanos) {
+        Counter.builder("admission.rejected")
+                .tag("operation", tag(operation))
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        long seconds = Math.max(1, (long) Math.ceil(waitNanos / 1_000_000_000d));
+        return new AdmissionRejectedException("Trop de requêtes (" + reason + "), réessayer dans " + seconds + " s", seconds);
+    }
+
+    private static String tag(Operation operation) {
+        return operation.name().toLowerCase(Locale.ROOT);
+    }
+
+    // Libération idempotente : appelée en fin de requête, synchrone ou asynchrone
+    public static final class Permit {
+
+        static final Permit NONE = new Permit(() -> {
+        });
+
+        private final Runnable release;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Runnable release) {
+            this.release = release;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                release.run();
+            }
+        }
+    }
+
+    private record Limit(double rate, double burst) {
+    }
+
+    private record Cost(Long companyId, long rows, long expiresAt) {
+    }
+}
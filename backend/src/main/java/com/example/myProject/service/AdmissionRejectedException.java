@@ -0,0 +1,15 @@
+package com.example.myProject.service;
+
+import lombok.Getter;
+
+// Requête refusée par le contrôle d'admission : à retenter après retryAfterSeconds (429 + Retry-After)
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
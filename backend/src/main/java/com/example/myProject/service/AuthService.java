@@ -0,0 +1,54 @@
+package com.example.myProject.service;
+
+import com.example.myProject.dto.LoginResponseDTO;
+import com.example.myProject.model.User;
+import com.example.myProject.repository.UserRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Connexion par e-mail et mot de passe : seule étape qui lit l'utilisateur et calcule un BCrypt.
+ * Les requêtes suivantes présentent le jeton signé rendu ici.
+ */
+@Service
+public class AuthService {
+
+    private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+    private final AuthTokenService tokenService;
+
+    public AuthService(UserRepository userRepository, PasswordHasher passwordHasher, AuthTokenService tokenService) {
+        this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.tokenService = tokenService;
+    }
+
+    public LoginResponseDTO login(String email, String password) {
+        Optional<User> found = userRepository.findFirstByEmail(email);
+        if (found.isEmpty()) {
+            passwordHasher.matchUnknownUser(password);
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "E-mail ou mot de passe incorrect");
+        }
+        User user = found.get();
+        if (!passwordHasher.matches(password, user.getPassword())) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "E-mail ou mot de passe incorrect");
+        }
+        // Coût BCrypt relevé depuis le hachage : rehaché avec le mot de passe vérifié
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHasher.hash(password));
+            user.setUpdatedAt(LocalDateTime.now());
+            userRepository.save(user);
+        }
+
+        AuthenticatedUser authenticated = new AuthenticatedUser(user.getId(),
+                user.getCompanyId() == null ? null : user.getCompanyId().longValue());
+        Instant expiresAt = tokenService.nextExpiry();
+        return new LoginResponseDTO(tokenService.issue(authenticated, expiresAt), expiresAt,
+                authenticated.userId(), authenticated.companyId());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.myProject.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Jetons sans état : "userId:companyId:expiration" en base64url, suivi de sa signature HMAC-SHA256.
+ * Vérifier un jeton ne coûte qu'un HMAC, sans accès à la base ni BCrypt ; en contrepartie un jeton
+ * reste valable jusqu'à son expiration (token-ttl), même si l'utilisateur est supprimé. Toutes les
+ * instances doivent partager token-secret : sans lui, le démarrage échoue hors du profil dev.
+ */
+@Service
+public class AuthTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> mac;
+    private final Duration ttl;
+
+    public AuthTokenService(
+            Environment environment,
+            @Value("${myproject.auth.token-secret:}") String secret,
+            @Value("${myproject.auth.token-ttl:12h}") Duration ttl
+    ) {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            // Une clé tirée par instance : un jeton émis par un nœud serait refusé par les autres
+            if (!environment.acceptsProfiles(Profiles.of("dev"))) {
+                throw new IllegalStateException("myproject.auth.token-secret (AUTH_TOKEN_SECRET) est requis hors du profil dev");
+            }
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            System.out.println("⚠️ myproject.auth.token-secret absent (profil dev) : clé aléatoire, les jetons ne survivront pas au redémarrage");
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        SecretKeySpec keySpec = new SecretKeySpec(key, ALGORITHM);
+        // Mac n'est pas thread-safe : une instance par thread
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(keySpec);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        this.ttl = ttl;
+    }
+
+    public Instant nextExpiry() {
+        return Instant.now().plus(ttl);
+    }
+
+    public String issue(AuthenticatedUser user, Instant expiresAt) {
+        String payload = user.userId() + ":" + (user.companyId() == null ? "" : user.companyId()) + ":" + expiresAt.getEpochSecond();
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(bytes) + "." + ENCODER.encodeToString(sign(bytes));
+    }
+
+    // Vide si le jeton est malformé, falsifié ou expiré
+    public Optional<AuthenticatedUser> verify(String token) {
+        int dot = token == null ? -1 : token.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+        try {
+            byte[] payload = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                return Optional.empty();
+            }
+            String[] parts = new String(payload, StandardCharsets.UTF_8).split(":", -1);
+            if (parts.length != 3 || Long.parseLong(parts[2]) < Instant.now().getEpochSecond()) {
+                return Optional.empty();
+            }
+            return Optional.of(new AuthenticatedUser(Long.valueOf(parts[0]), parts[1].isEmpty() ? null : Long.valueOf(parts[1])));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        return mac.get().doFinal(payload);
+    }
+}
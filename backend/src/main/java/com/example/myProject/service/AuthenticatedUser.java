@@ -0,0 +1,5 @@
+package com.example.myProject.service;
+
+// Appelant identifié par un jeton valide, sans lecture de la table users
+public record AuthenticatedUser(Long userId, Long companyId) {
+}
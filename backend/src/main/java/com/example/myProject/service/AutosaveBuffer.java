@@ -0,0 +1,383 @@
+package com.example.myProject.service;
+
+import com.example.myProject.dto.MainTableLineBatchDTO;
+import com.example.myProject.dto.MainTableLineRequestDTO;
+import com.example.myProject.dto.ProjectFullDTO;
+import com.example.myProject.dto.RejectedAutosaveDTO;
+import com.example.myProject.model.MainTableLine;
+import com.example.myProject.service.AutosaveLog.Entry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tampon d'écriture différée des sauvegardes automatiques de l'éditeur. Chaque envoi est journalisé
+ * sur disque puis gardé en mémoire : une ligne modifiée plusieurs fois dans la fenêtre n'est écrite
+ * qu'une fois, toutes les lignes d'un projet partent en un seul lot, et un projet complet envoyé
+ * remplace tout ce qui était en attente pour ce projet. Au démarrage, le journal est rejoué.
+ * Les lectures complètes et les écritures directes d'un projet vident d'abord son tampon.
+ * Les sauvegardes refusées à l'écriture (ligne ou projet supprimé entre-temps) sont gardées par projet
+ * et consultables par le client (GET /projects/{id}/autosave/rejected).
+ */
+// Jamais paresseux (profil startup) : le journal doit être rejoué sans attendre une première requête
+@Lazy(false)
+@Service
+public class AutosaveBuffer {
+
+    private static final int REJECTED_KEPT = 50;
+
+    private final LineBatchService lineBatchService;
+    private final ProjectSyncService projectSyncService;
+    private final ProjectWriteCoordinator writeCoordinator;
+    private final AutosaveLog log;
+    // Un seul vidage à la fois : le journal n'est réécrit qu'une fois les entrées retirées écrites en base
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Écritures du journal : un seul fsync pour toutes les entrées arrivées pendant le précédent.
+    // Pris avant le moniteur, jamais sous lui
+    private final ReentrantLock logLock = new ReentrantLock();
+    private final List<Appending> appending = new ArrayList<>();
+    private final Map<Long, Pending> pending = new HashMap<>();
+    // Projets retirés du tampon et en cours d'écriture par un vidage
+    private final Set<Long> writing = new HashSet<>();
+    // Dernières sauvegardes refusées de chaque projet, les plus anciennes d'abord
+    private final Map<Long, Deque<RejectedAutosaveDTO>> rejected = new HashMap<>();
+    private final Counter acceptedLines;
+    private final Counter acceptedProjects;
+    private final Counter writtenLines;
+    private final Counter writtenProjects;
+    private long seq;
+
+    public AutosaveBuffer(
+            LineBatchService lineBatchService,
+            ProjectSyncService projectSyncService,
+            ProjectWriteCoordinator writeCoordinator,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${myproject.autosave.wal-file:data/autosave.wal}") Path walFile
+    ) {
+        this.lineBatchService = lineBatchService;
+        this.projectSyncService = projectSyncService;
+        this.writeCoordinator = writeCoordinator;
+        this.log = new AutosaveLog(walFile, objectMapper);
+
+        this.acceptedLines = counter(meterRegistry, "project.autosave.accepted", "line");
+        this.acceptedProjects = counter(meterRegistry, "project.autosave.accepted", "project");
+        this.writtenLines = counter(meterRegistry, "project.autosave.written", "line");
+        this.writtenProjects = counter(meterRegistry, "project.autosave.written", "project");
+        meterRegistry.gauge("project.autosave.pending", this, AutosaveBuffer::pendingCount);
+    }
+
+    @PostConstruct
+    void replay() {
+        List<Entry> entries = log.read();
+        synchronized (this) {
+            for (Entry entry : entries) {
+                seq = Math.max(seq, entry.seq());
+                enqueue(entry);
+            }
+        }
+        if (!entries.isEmpty()) {
+            System.out.println("ℹ️ " + entries.size() + " sauvegardes automatiques rejouées depuis le journal");
+            flushAll();
+        }
+    }
+
+    public void acceptLine(Long projectId, Long lineId, MainTableLineRequestDTO line) {
+        accept(new Entry(nextSeq(), projectId, lineId, line, null));
+        acceptedLines.increment();
+    }
+
+    public void acceptProject(Long projectId, ProjectFullDTO project) {
+        accept(new Entry(nextSeq(), projectId, null, null, project));
+        acceptedProjects.increment();
+    }
+
+    // Les plus récentes en dernier ; le client compare seq ou rejectedAt à son dernier envoi
+    public synchronized List<RejectedAutosaveDTO> rejected(Long projectId) {
+        return new ArrayList<>(rejected.getOrDefault(projectId, new ArrayDeque<>()));
+    }
+
+    @Scheduled(fixedDelayString = "${myproject.autosave.window:1000}")
+    public void flushAll() {
+        List<Long> projectIds;
+        synchronized (this) {
+            projectIds = new ArrayList<>(pending.keySet());
+        }
+        flush(projectIds);
+    }
+
+    // Sans effet si rien n'est en attente ni en cours d'écriture pour le projet. Si un vidage planifié
+    // écrit déjà le projet, attend qu'il ait fini : au retour, toute sauvegarde acceptée avant est en base.
+    // Jamais sous le verrou d'un projet : le vidage prend flushLock puis les verrous des projets
+    public void flush(Long projectId) {
+        synchronized (this) {
+            if (!pending.containsKey(projectId) && !writing.contains(projectId)) {
+                return;
+            }
+        }
+        flush(List.of(projectId));
+    }
+
+    public synchronized int pendingCount() {
+        return pending.values().stream().mapToInt(p -> p.lines.size() + (p.project != null ? 1 : 0)).sum();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        try {
+            flushAll();
+        } finally {
+            logLock.lock();
+            try {
+                log.close();
+            } finally {
+                logLock.unlock();
+            }
+        }
+    }
+
+    private synchronized long nextSeq() {
+        return ++seq;
+    }
+
+    // Sérialisée hors de tout verrou. Le premier appelant qui obtient logLock écrit et force sur disque
+    // toutes les entrées en file, les autres trouvent la leur déjà écrite. L'entrée n'est mise en attente
+    // qu'une fois sur disque, et toujours sous logLock : une réécriture du journal ne peut pas la perdre
+    private void accept(Entry entry) {
+        Appending own = new Appending(entry, log.serialize(entry));
+        synchronized (this) {
+            appending.add(own);
+        }
+        logLock.lock();
+        try {
+            if (!own.done) {
+                List<Appending> group;
+                synchronized (this) {
+                    group = new ArrayList<>(appending);
+                    appending.clear();
+                }
+                RuntimeException failure = null;
+                try {
+                    log.append(group.stream().map(Appending::json).toList());
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+                synchronized (this) {
+                    for (Appending member : group) {
+                        if (failure == null) {
+                            enqueue(member.entry);
+                        }
+                        member.failure = failure;
+                        member.done = true;
+                    }
+                }
+            }
+        } finally {
+            logLock.unlock();
+        }
+        if (own.failure != null) {
+            throw own.failure;
+        }
+    }
+
+    private void flush(List<Long> projectIds) {
+        if (projectIds.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            boolean taken = false;
+            for (Long projectId : projectIds) {
+                Pending pendingWrites;
+                synchronized (this) {
+                    pendingWrites = pending.remove(projectId);
+                    if (pendingWrites != null) {
+                        writing.add(projectId);
+                    }
+                }
+                if (pendingWrites != null) {
+                    taken = true;
+                    try {
+                        write(projectId, pendingWrites);
+                    } finally {
+                        synchronized (this) {
+                            writing.remove(projectId);
+                        }
+                    }
+                }
+            }
+            if (!taken) {
+                return;
+            }
+            logLock.lock();
+            try {
+                List<Entry> remaining = new ArrayList<>();
+                synchronized (this) {
+                    pending.values().forEach(p -> remaining.addAll(p.entries()));
+                }
+                remaining.sort(Comparator.comparingLong(Entry::seq));
+                log.rewrite(remaining);
+            } finally {
+                logLock.unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(Long projectId, Pending taken) {
+        if (taken.project != null) {
+            try {
+                writeCoordinator.run(projectId, () -> projectSyncService.sync(projectId, taken.project.project()));
+                writtenProjects.increment();
+            } catch (ResponseStatusException e) {
+                // Refus définitif (projet supprimé, archivé...) : la sauvegarde est abandonnée et signalée
+                reject(taken.project, e.getStatusCode().value(), e.getReason());
+            } catch (NoSuchElementException e) {
+                reject(taken.project, HttpStatus.NOT_FOUND.value(), "Projet introuvable");
+            } catch (RuntimeException e) {
+                requeue(taken);
+                System.out.println("⚠️ Sauvegarde automatique du projet " + projectId + " reportée : " + e.getMessage());
+                return;
+            }
+        }
+        if (taken.lines.isEmpty()) {
+            return;
+        }
+
+        try {
+            MainTableLineBatchDTO batch = new MainTableLineBatchDTO();
+            taken.lines.values().forEach(entry -> batch.getUpdates().add(toLine(entry)));
+            try {
+                lineBatchService.applyMainLines(batch);
+                writtenLines.increment(taken.lines.size());
+            } catch (ResponseStatusException e) {
+                // Une ligne supprimée (ou changée de projet) entre-temps fait échouer le lot : les autres passent une à une
+                for (Entry entry : taken.lines.values()) {
+                    MainTableLineBatchDTO single = new MainTableLineBatchDTO();
+                    single.getUpdates().add(toLine(entry));
+                    try {
+                        lineBatchService.applyMainLines(single);
+                        writtenLines.increment();
+                    } catch (ResponseStatusException rejection) {
+                        // Ligne disparue ou changée de projet : la modification est abandonnée et signalée
+                        reject(entry, rejection.getStatusCode().value(), rejection.getReason());
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Réécrire une ligne déjà écrite est sans effet : tout le lot est remis en attente
+            requeue(new Pending(null, taken.lines));
+            System.out.println("⚠️ Sauvegardes automatiques du projet " + projectId + " reportées : " + e.getMessage());
+        }
+    }
+
+    // Une entrée plus récente arrivée pendant l'écriture l'emporte sur celle qui est remise en attente
+    private synchronized void requeue(Pending failed) {
+        failed.entries().forEach(this::enqueue);
+    }
+
+    private synchronized void reject(Entry entry, int status, String reason) {
+        Deque<RejectedAutosaveDTO> kept = rejected.computeIfAbsent(entry.projectId(), id -> new ArrayDeque<>());
+        kept.addLast(new RejectedAutosaveDTO(entry.seq(), entry.lineId(), status, reason, LocalDateTime.now()));
+        while (kept.size() > REJECTED_KEPT) {
+            kept.removeFirst();
+        }
+        System.out.println("⚠️ Sauvegarde automatique " + entry.seq() + " du projet " + entry.projectId()
+                + " abandonnée : " + status + " " + reason);
+    }
+
+    // Appelé sous le moniteur ; un projet complet rend caduques les lignes en attente avant lui. Les numéros
+    // sont attribués avant l'écriture du journal : une entrée peut arriver après une plus récente, qui l'emporte
+    private void enqueue(Entry entry) {
+        Pending current = pending.get(entry.projectId());
+        if (entry.project() != null) {
+            if (current != null && current.project != null && current.project.seq() > entry.seq()) {
+                return;
+            }
+            LinkedHashMap<Long, Entry> newer = new LinkedHashMap<>();
+            if (current != null) {
+                current.lines.values().stream().filter(line -> line.seq() > entry.seq())
+                        .forEach(line -> newer.put(line.lineId(), line));
+            }
+            pending.put(entry.projectId(), new Pending(entry, newer));
+        } else {
+            if (current == null) {
+                current = new Pending(null, new LinkedHashMap<>());
+                pending.put(entry.projectId(), current);
+            }
+            Entry existing = current.lines.get(entry.lineId());
+            boolean superseded = (current.project != null && current.project.seq() > entry.seq())
+                    || (existing != null && existing.seq() > entry.seq());
+            if (!superseded) {
+                current.lines.put(entry.lineId(), entry);
+            }
+        }
+    }
+
+    private static MainTableLine toLine(Entry entry) {
+        MainTableLineRequestDTO dto = entry.line();
+        // Mêmes champs que MainTableLineController.update ; num est recalculé par le lot, et une position
+        // absente laisse celle en base (le lot n'écrit pas de position NULL)
+        return MainTableLine.builder()
+                .id(entry.lineId())
+                .gr(dto.getGr())
+                .code(dto.getCode())
+                .title(dto.getTitle())
+                .nm(dto.getNm())
+                .unit(dto.getUnit())
+                .quantity(dto.getQuantity())
+                .unitPrice(dto.getUnitPrice())
+                .totalPrice(dto.getTotalPrice())
+                .comments(dto.getComments())
+                .position(dto.getPosition())
+                .build();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String kind) {
+        return Counter.builder(name).tag("kind", kind).register(meterRegistry);
+    }
+
+    // Entrée sérialisée en attente d'écriture dans le journal ; done et failure sont écrits sous le moniteur
+    // par le fil qui a fait le fsync, et relus sous logLock
+    private static final class Appending {
+        private final Entry entry;
+        private final byte[] json;
+        private boolean done;
+        private RuntimeException failure;
+
+        private Appending(Entry entry, byte[] json) {
+            this.entry = entry;
+            this.json = json;
+        }
+
+        private byte[] json() {
+            return json;
+        }
+    }
+
+    private record Pending(Entry project, LinkedHashMap<Long, Entry> lines) {
+
+        List<Entry> entries() {
+            List<Entry> entries = new ArrayList<>();
+            if (project != null) {
+                entries.add(project);
+            }
+            entries.addAll(lines.values());
+            return entries;
+        }
+    }
+}
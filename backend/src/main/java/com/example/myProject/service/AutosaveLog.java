@@ -0,0 +1,149 @@
+package com.example.myProject.service;
+
+import com.example.myProject.dto.MainTableLineRequestDTO;
+import com.example.myProject.dto.ProjectFullDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Journal local des sauvegardes automatiques acceptées et pas encore écrites en base : une entrée JSON
+ * par ligne, forcée sur disque (fsync) avant de répondre au client. Le fichier n'est ouvert qu'au premier
+ * ajout ; après chaque vidage il est réécrit avec les seules entrées encore en attente.
+ * Seul serialize peut être appelé en parallèle ; pour le reste, l'appelant sérialise les accès.
+ */
+class AutosaveLog {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private FileChannel channel;
+
+    AutosaveLog(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    // Entrées du journal laissé par l'instance précédente ; une dernière ligne tronquée (arrêt brutal) est ignorée
+    List<Entry> read() {
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return entries;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    entries.add(objectMapper.readValue(line, Entry.class));
+                } catch (JsonProcessingException e) {
+                    System.out.println("⚠️ Entrée illisible ignorée dans " + path + " : " + e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return entries;
+    }
+
+    byte[] serialize(Entry entry) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(entry);
+            byte[] line = Arrays.copyOf(json, json.length + 1);
+            line[json.length] = '\n';
+            return line;
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Entrées déjà sérialisées, écrites ensemble puis forcées sur disque en un seul fsync
+    void append(List<byte[]> lines) {
+        try {
+            FileChannel out = channel();
+            for (byte[] line : lines) {
+                ByteBuffer buffer = ByteBuffer.wrap(line);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+            out.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Fichier temporaire forcé sur disque puis renommé : un arrêt pendant la réécriture laisse l'ancien journal intact
+    void rewrite(Collection<Entry> entries) {
+        try {
+            if (entries.isEmpty()) {
+                if (channel != null || Files.exists(path)) {
+                    channel().truncate(0);
+                    channel.force(true);
+                }
+                return;
+            }
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (Entry entry : entries) {
+                    write(out, entry);
+                }
+                out.force(true);
+            }
+            close();
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private void write(FileChannel out, Entry entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(serialize(entry));
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    // Soit une ligne (lineId et line), soit un projet complet (project)
+    record Entry(long seq, Long projectId, Long lineId, MainTableLineRequestDTO line, ProjectFullDTO project) {
+    }
+}
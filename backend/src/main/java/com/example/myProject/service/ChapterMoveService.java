@@ -0,0 +1,203 @@
+package com.example.myProject.service;
+
+import com.example.myProject.dto.ChapterMoveDTO;
+import com.example.myProject.event.ProjectChangedEvent.ChangeType;
+import com.example.myProject.model.Chapter;
+import com.example.myProject.repository.ChapterRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Déplace un chapitre et tout son sous-arbre (sous un autre parent, éventuellement dans un autre projet)
+ * en une transaction : une mise à jour pour le chapitre, puis des UPDATE ensemblistes pour le projet des
+ * descendants, de leurs lignes et de leurs détails, et enfin la renumérotation des projets concernés.
+ * Les deux projets sont verrouillés pendant toute l'opération ; le projet du chapitre est relu sous les
+ * verrous, et un chapitre déplacé entre-temps vers un autre projet est refusé (409).
+ */
+@Service
+public class ChapterMoveService {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ChapterRepository chapterRepository;
+    private final ProjectWriteCoordinator writeCoordinator;
+    private final ChapterNumberingService numberingService;
+    private final ProjectArchiveService archiveService;
+    private final ProjectChangePublisher changePublisher;
+    private final EntityManager entityManager;
+
+    public ChapterMoveService(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            ChapterRepository chapterRepository,
+            ProjectWriteCoordinator writeCoordinator,
+            ChapterNumberingService numberingService,
+            ProjectArchiveService archiveService,
+            ProjectChangePublisher changePublisher,
+            EntityManager entityManager
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chapterRepository = chapterRepository;
+        this.writeCoordinator = writeCoordinator;
+        this.numberingService = numberingService;
+        this.archiveService = archiveService;
+        this.changePublisher = changePublisher;
+        this.entityManager = entityManager;
+    }
+
+    public Chapter move(Long id, ChapterMoveDTO move) {
+        return move(id, move.getProjectId(), move.getParentId(), move.getAfterId(), false, null);
+    }
+
+    // Changement de parent par la mise à jour classique : le chapitre passe en dernier, et edit (libellé...)
+    // est appliqué dans la même transaction, sous les mêmes verrous
+    public Chapter moveToEnd(Long id, Long projectId, Long parentId, Consumer<Chapter> edit) {
+        return move(id, projectId, parentId, null, true, edit);
+    }
+
+    private Chapter move(Long id, Long projectId, Long parentId, Long afterId, boolean append, Consumer<Chapter> edit) {
+        Chapter chapter = chapterRepository.findById(id).orElseThrow();
+        Long sourceProjectId = chapter.getProjectId();
+        Long targetProjectId = projectId != null ? projectId : sourceProjectId;
+        archiveService.ensureActive(sourceProjectId);
+        archiveService.ensureActive(targetProjectId);
+
+        return writeCoordinator.execute(sourceProjectId, targetProjectId, () -> {
+            // Lu avant les verrous : un déplacement concurrent a pu changer le projet du sous-arbre
+            List<Long> currentProject = jdbcTemplate.queryForList("SELECT project_id FROM chapter WHERE id = :id",
+                    new MapSqlParameterSource("id", id), Long.class);
+            if (currentProject.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Chapitre introuvable");
+            }
+            if (!sourceProjectId.equals(currentProject.get(0))) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Le chapitre a changé de projet, réessayez");
+            }
+            checkTarget(sourceProjectId, targetProjectId, parentId);
+            List<Long> subtree = subtree(id, sourceProjectId);
+            if (parentId != null && subtree.contains(parentId)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Un chapitre ne peut pas être déplacé sous lui-même ou sous un de ses descendants");
+            }
+            if (afterId != null && subtree.contains(afterId)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Un chapitre ne peut être placé après lui-même");
+            }
+
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("id", id)
+                    .addValue("parentId", parentId)
+                    .addValue("projectId", targetProjectId)
+                    .addValue("position", position(targetProjectId, parentId, id, afterId, append))
+                    .addValue("ids", subtree);
+            jdbcTemplate.update("UPDATE chapter SET parent_id = :parentId, position = :position WHERE id = :id", params);
+            if (!targetProjectId.equals(sourceProjectId)) {
+                jdbcTemplate.update("UPDATE chapter SET project_id = :projectId WHERE id IN (:ids)", params);
+                jdbcTemplate.update("UPDATE main_table_line SET project_id = :projectId WHERE chapter_id IN (:ids)", params);
+                jdbcTemplate.update("""
+                        UPDATE detail_table_line SET project_id = :projectId
+                        WHERE main_table_line_id IN (SELECT l.id FROM main_table_line l WHERE l.chapter_id IN (:ids))
+                        """, params);
+                numberingService.renumber(sourceProjectId);
+                changePublisher.projectChanged(sourceProjectId, ChangeType.UPDATED);
+            }
+            numberingService.renumber(targetProjectId);
+
+            // Les entités chargées avant les UPDATE ne reflètent pas le déplacement
+            entityManager.clear();
+            Chapter moved = chapterRepository.findById(id).orElseThrow();
+            if (edit != null) {
+                edit.accept(moved);
+                moved = chapterRepository.save(moved);
+            }
+            changePublisher.chapterChanged(moved, ChangeType.UPDATED);
+            return moved;
+        });
+    }
+
+    private void checkTarget(Long sourceProjectId, Long targetProjectId, Long parentId) {
+        if (!targetProjectId.equals(sourceProjectId)) {
+            // Jamais d'un locataire à l'autre, quel que soit l'en-tête de la requête
+            List<Long> companies = jdbcTemplate.queryForList(
+                    "SELECT company_id FROM project WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", List.of(sourceProjectId, targetProjectId)), Long.class);
+            if (companies.size() != 2) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Projet de destination introuvable");
+            }
+            if (!Objects.equals(companies.get(0), companies.get(1))) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Déplacement vers le projet d'une autre société impossible");
+            }
+        }
+        if (parentId != null) {
+            List<Long> parentProject = jdbcTemplate.queryForList("SELECT project_id FROM chapter WHERE id = :id",
+                    new MapSqlParameterSource("id", parentId), Long.class);
+            if (parentProject.isEmpty() || !targetProjectId.equals(parentProject.get(0))) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Le chapitre parent n'appartient pas au projet de destination");
+            }
+        }
+    }
+
+    // Le chapitre et ses descendants, niveau par niveau (une requête par niveau, bornée même si les données bouclent)
+    private List<Long> subtree(Long id, Long projectId) {
+        Set<Long> ids = new LinkedHashSet<>(List.of(id));
+        List<Long> level = List.of(id);
+        while (!level.isEmpty()) {
+            List<Long> children = jdbcTemplate.queryForList(
+                    "SELECT id FROM chapter WHERE project_id = :projectId AND parent_id IN (:ids)",
+                    new MapSqlParameterSource("projectId", projectId).addValue("ids", level), Long.class);
+            level = children.stream().filter(ids::add).toList();
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private Integer position(Long projectId, Long parentId, Long id, Long afterId, boolean append) {
+        if (append) {
+            return numberingService.nextPosition(projectId, parentId);
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("projectId", projectId)
+                .addValue("parentId", parentId)
+                .addValue("id", id);
+        String siblings = parentId == null
+                ? "FROM chapter WHERE project_id = :projectId AND parent_id IS NULL AND id <> :id"
+                : "FROM chapter WHERE parent_id = :parentId AND id <> :id";
+
+        Integer before = null;
+        if (afterId != null) {
+            List<Integer> found = jdbcTemplate.queryForList("SELECT position " + siblings + " AND id = :afterId",
+                    params.addValue("afterId", afterId), Integer.class);
+            if (found.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Chapitre de référence introuvable parmi les frères");
+            }
+            before = found.get(0);
+        }
+        Integer unpositioned = jdbcTemplate.queryForObject("SELECT COUNT(*) " + siblings + " AND position IS NULL",
+                params, Integer.class);
+        if (unpositioned == 0) {
+            Integer after = jdbcTemplate.queryForObject(
+                    "SELECT MIN(position) " + siblings + (before == null ? "" : " AND position > :before"),
+                    params.addValue("before", before), Integer.class);
+            Integer position = GapPositions.between(before, after);
+            if (position != null) {
+                return position;
+            }
+        }
+
+        // Plus de place (ou positions historiques) : la fratrie est réespacée autour du chapitre déplacé
+        List<Long> ids = new ArrayList<>(jdbcTemplate.queryForList("SELECT id " + siblings + " ORDER BY position, id",
+                params, Long.class));
+        ids.add(afterId == null ? 0 : ids.indexOf(afterId) + 1, id);
+        int[] positions = GapPositions.renumber(ids.size());
+        List<MapSqlParameterSource> rows = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (!ids.get(i).equals(id)) {
+                rows.add(new MapSqlParameterSource("id", ids.get(i)).addValue("position", positions[i]));
+            }
+        }
+        jdbcTemplate.batchUpdate("UPDATE chapter SET position = :position WHERE id = :id", rows.toArray(new MapSqlParameterSource[0]));
+        return positions[ids.indexOf(id)];
+    }
+}
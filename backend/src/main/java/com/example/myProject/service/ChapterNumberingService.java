@@ -0,0 +1,156 @@
+package com.example.myProject.service;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Numérotation des chapitres (1, 1.2, 1.2.3) et des lignes (1.2.3.4) déduite de l'arbre et des positions.
+ * L'arbre est lu en deux requêtes et numéroté en un parcours ; seules les lignes dont le numéro (ou la
+ * position, pour les chapitres historiques sans position) change sont réécrites, en lot. Un déplacement
+ * ne réécrit donc que les frères qui changent de rang et leurs descendants.
+ */
+@Service
+public class ChapterNumberingService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final ProjectWriteCoordinator writeCoordinator;
+
+    public ChapterNumberingService(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                                   ProjectWriteCoordinator writeCoordinator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+        this.writeCoordinator = writeCoordinator;
+    }
+
+    public Integer nextPosition(Long projectId, Long parentId) {
+        Integer last = parentId == null
+                ? jdbcTemplate.queryForObject("SELECT MAX(position) FROM chapter WHERE project_id = ? AND parent_id IS NULL",
+                        Integer.class, projectId)
+                : jdbcTemplate.queryForObject("SELECT MAX(position) FROM chapter WHERE parent_id = ?", Integer.class, parentId);
+        Integer position = GapPositions.between(last, null);
+        return position != null ? position : last;
+    }
+
+    // Numéros de tous les chapitres et lignes atteignables depuis les racines, par id
+    public Numbers renumber(Long projectId) {
+        return writeCoordinator.execute(projectId, () -> {
+            // Les écritures JPA en attente doivent être visibles des lectures JDBC
+            entityManager.flush();
+            Numbers numbers = new Numbers(new HashMap<>(), new HashMap<>());
+            List<Object[]> chapterUpdates = new ArrayList<>();
+            Map<Long, List<Node>> children = new HashMap<>();
+            jdbcTemplate.query("SELECT id, parent_id, position, num FROM chapter WHERE project_id = ?", rs -> {
+                Node node = new Node(rs.getLong("id"), rs.getObject("parent_id", Long.class),
+                        rs.getObject("position", Integer.class), rs.getString("num"));
+                children.computeIfAbsent(node.parentId(), id -> new ArrayList<>()).add(node);
+            }, projectId);
+
+            // Parcours depuis les racines : un chapitre orphelin ou pris dans un cycle n'est pas numéroté
+            Deque<Map.Entry<Long, String>> groups = new ArrayDeque<>();
+            groups.push(new AbstractMap.SimpleEntry<>(null, ""));
+            while (!groups.isEmpty()) {
+                Map.Entry<Long, String> group = groups.pop();
+                List<Node> siblings = children.get(group.getKey());
+                if (siblings == null) {
+                    continue;
+                }
+                siblings.sort(SIBLING_ORDER);
+                int[] positions = GapPositions.assign(siblings.stream().map(Node::position).toArray(Integer[]::new));
+                for (int i = 0; i < siblings.size(); i++) {
+                    Node node = siblings.get(i);
+                    String num = group.getValue().isEmpty() ? String.valueOf(i + 1) : group.getValue() + "." + (i + 1);
+                    if (!num.equals(node.num()) || !Objects.equals(node.position(), positions[i])) {
+                        chapterUpdates.add(new Object[]{num, positions[i], node.id()});
+                    }
+                    numbers.chapters().put(node.id(), num);
+                    groups.push(new AbstractMap.SimpleEntry<>(node.id(), num));
+                }
+            }
+
+            List<Object[]> lineUpdates = new ArrayList<>();
+            Map<Long, Integer> lineCounts = new HashMap<>();
+            jdbcTemplate.query("SELECT id, chapter_id, num FROM main_table_line WHERE project_id = ? ORDER BY position, id", rs -> {
+                String chapterNum = numbers.chapters().get(rs.getLong("chapter_id"));
+                if (chapterNum != null) {
+                    int rank = lineCounts.merge(rs.getLong("chapter_id"), 1, Integer::sum);
+                    String num = chapterNum + "." + rank;
+                    if (!num.equals(rs.getString("num"))) {
+                        lineUpdates.add(new Object[]{num, rs.getLong("id")});
+                    }
+                    numbers.lines().put(rs.getLong("id"), num);
+                }
+            }, projectId);
+
+            write(chapterUpdates, lineUpdates);
+            return numbers;
+        });
+    }
+
+    // Après un ajout, une suppression ou un déplacement de ligne : seule la fratrie du chapitre est relue
+    public Map<Long, String> renumberLines(Long projectId, Long chapterId) {
+        return writeCoordinator.execute(projectId, () -> {
+            entityManager.flush();
+            Map<Long, String> numbers = new HashMap<>();
+            List<String> chapterNum = jdbcTemplate.queryForList("SELECT num FROM chapter WHERE id = ?", String.class, chapterId);
+            if (chapterNum.isEmpty() || chapterNum.get(0) == null) {
+                return numbers;
+            }
+            List<Object[]> lineUpdates = new ArrayList<>();
+            jdbcTemplate.query("SELECT id, num FROM main_table_line WHERE chapter_id = ? ORDER BY position, id", rs -> {
+                String num = chapterNum.get(0) + "." + (numbers.size() + 1);
+                if (!num.equals(rs.getString("num"))) {
+                    lineUpdates.add(new Object[]{num, rs.getLong("id")});
+                }
+                numbers.put(rs.getLong("id"), num);
+            }, chapterId);
+            write(List.of(), lineUpdates);
+            return numbers;
+        });
+    }
+
+    private void write(List<Object[]> chapterUpdates, List<Object[]> lineUpdates) {
+        if (!chapterUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE chapter SET num = ?, position = ? WHERE id = ?", chapterUpdates);
+        }
+        if (!lineUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE main_table_line SET num = ? WHERE id = ?", lineUpdates);
+        }
+        if (!chapterUpdates.isEmpty() || !lineUpdates.isEmpty()) {
+            // Les entités déjà chargées porteraient les anciens numéros
+            entityManager.clear();
+        }
+    }
+
+    // Les chapitres historiques sans position restent en tête, dans l'ordre de leur ancien numéro (2 avant 10)
+    private static final Comparator<Node> SIBLING_ORDER = Comparator
+            .comparing(Node::position, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Node::num, Comparator.nullsLast(ChapterNumberingService::compareNums))
+            .thenComparing(Node::id);
+
+    static int compareNums(String a, String b) {
+        String[] left = a.split("\\.");
+        String[] right = b.split("\\.");
+        for (int i = 0; i < Math.min(left.length, right.length); i++) {
+            int result;
+            try {
+                result = Long.compare(Long.parseLong(left[i].trim()), Long.parseLong(right[i].trim()));
+            } catch (NumberFormatException e) {
+                result = left[i].compareTo(right[i]);
+            }
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(left.length, right.length);
+    }
+
+    public record Numbers(Map<Long, String> chapters, Map<Long, String> lines) {
+    }
+
+    private record Node(Long id, Long parentId, Integer position, String num) {
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.myProject.service;
+
+/**
+ * Clés d'ordre espacées (pas de GAP) : une insertion ou un déplacement prend le milieu de l'intervalle
+ * entre ses voisins et n'écrit qu'une ligne. Quand l'intervalle est épuisé, la fratrie est renumérotée.
+ */
+final class GapPositions {
+
+    static final int GAP = 1024;
+
+    private GapPositions() {
+    }
+
+    // Milieu strict entre deux positions (null = pas de voisin de ce côté), ou null s'il n'y a plus de place
+    static Integer between(Integer before, Integer after) {
+        long value;
+        if (before == null && after == null) {
+            value = GAP;
+        } else if (before == null) {
+            value = (long) after - GAP;
+        } else if (after == null) {
+            value = (long) before + GAP;
+        } else {
+            if ((long) after - before < 2) {
+                return null;
+            }
+            value = ((long) before + after) / 2;
+        }
+        return fits(value) ? (int) value : null;
+    }
+
+    static int[] renumber(int count) {
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = (i + 1) * GAP;
+        }
+        return positions;
+    }
+
+    /**
+     * Positions pour des lignes dans l'ordre voulu, à partir de leurs positions en base (null si nouvelle
+     * ou venant d'un autre parent). La plus longue sous-suite déjà croissante est conservée telle quelle :
+     * seules les lignes réellement insérées ou déplacées reçoivent une nouvelle position.
+     */
+    static int[] assign(Integer[] stored) {
+        int n = stored.length;
+        boolean[] kept = longestIncreasing(stored);
+        int[] positions = new int[n];
+
+        int i = 0;
+        Integer previous = null;
+        while (i < n) {
+            if (kept[i]) {
+                positions[i] = stored[i];
+                previous = stored[i];
+                i++;
+                continue;
+            }
+            // Série de lignes à placer entre previous et la prochaine ligne conservée
+            int end = i;
+            while (end < n && !kept[end]) {
+                end++;
+            }
+            Integer next = end < n ? stored[end] : null;
+            if (!fill(positions, i, end, previous, next)) {
+                return renumber(n);
+            }
+            i = end;
+        }
+        return positions;
+    }
+
+    private static boolean fill(int[] positions, int from, int to, Integer before, Integer after) {
+        int count = to - from;
+        long start;
+        long step;
+        if (before == null && after == null) {
+            start = GAP;
+            step = GAP;
+        } else if (before == null) {
+            start = (long) after - (long) count * GAP;
+            step = GAP;
+        } else if (after == null) {
+            start = (long) before + GAP;
+            step = GAP;
+        } else {
+            step = ((long) after - before) / (count + 1);
+            if (step < 1) {
+                return false;
+            }
+            start = before + step;
+        }
+        for (int k = 0; k < count; k++) {
+            long value = start + k * step;
+            if (!fits(value)) {
+                return false;
+            }
+            positions[from + k] = (int) value;
+        }
+        return true;
+    }
+
+    // Plus longue sous-suite strictement croissante des positions connues (O(n log n))
+    private static boolean[] longestIncreasing(Integer[] stored) {
+        int n = stored.length;
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            previous[i] = -1;
+            if (stored[i] == null) {
+                continue;
+            }
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (stored[tails[middle]] < stored[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+        boolean[] kept = new boolean[n];
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            kept[i] = true;
+        }
+        return kept;
+    }
+
+    private static boolean fits(long value) {
+        return value > Integer.MIN_VALUE && value < Integer.MAX_VALUE;
+    }
+}
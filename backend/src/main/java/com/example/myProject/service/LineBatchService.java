@@ -0,0 +1,317 @@
+package com.example.myProject.service;
+
+import com.example.myProject.dto.*;
+import com.example.myProject.event.ProjectChangedEvent.EntityType;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import com.example.myProject.model.ProjectArchiveRow.Kind;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Applique en une transaction un lot de créations, mises à jour, suppressions et réordonnancements
+ * de lignes ou de détails, chaque catégorie partant en un seul batch JDBC.
+ * Toutes les lignes d'un lot doivent appartenir au même projet, verrouillé le temps du lot.
+ * Une mise à jour sans position garde la position en base.
+ */
+@Service
+public class LineBatchService {
+
+    private static final String INSERT_MAIN_LINE = "INSERT INTO main_table_line "
+            + "(chapter_id, project_id, gr, num, code, title, nm, unit, quantity, up, total_price, comments, position) "
+            + "VALUES (:chapterId, :projectId, :gr, :num, :code, :title, :nm, :unit, :quantity, :unitPrice, :totalPrice, :comments, :position)";
+    private static final String UPDATE_MAIN_LINE = "UPDATE main_table_line SET gr = :gr, code = :code, title = :title, nm = :nm, "
+            + "unit = :unit, quantity = :quantity, up = :unitPrice, total_price = :totalPrice, comments = :comments, "
+            + "position = COALESCE(:position, position) WHERE id = :id";
+    private static final String INSERT_DETAIL = "INSERT INTO detail_table_line "
+            + "(main_table_line_id, project_id, title, number, length, width, height, factor, total, comments, position) "
+            + "VALUES (:mainTableLineId, :projectId, :title, :number, :length, :width, :height, :factor, :total, :comments, :position)";
+    private static final String UPDATE_DETAIL = "UPDATE detail_table_line SET title = :title, number = :number, length = :length, "
+            + "width = :width, height = :height, factor = :factor, total = :total, comments = :comments, "
+            + "position = COALESCE(:position, position) WHERE id = :id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ProjectWriteCoordinator writeCoordinator;
+    private final ProjectChangePublisher changePublisher;
+    private final ChapterNumberingService numberingService;
+    private final ProjectArchiveService archiveService;
+
+    public LineBatchService(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            ProjectWriteCoordinator writeCoordinator,
+            ProjectChangePublisher changePublisher,
+            ChapterNumberingService numberingService,
+            ProjectArchiveService archiveService
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeCoordinator = writeCoordinator;
+        this.changePublisher = changePublisher;
+        this.numberingService = numberingService;
+        this.archiveService = archiveService;
+    }
+
+    public BatchResultDTO applyMainLines(MainTableLineBatchDTO batch) {
+        return applyMainLines(batch, projectId -> {
+        });
+    }
+
+    // beforeLock reçoit le projet du lot avant la prise de son verrou (vidage des sauvegardes automatiques)
+    public BatchResultDTO applyMainLines(MainTableLineBatchDTO batch, Consumer<Long> beforeLock) {
+        List<Long> chapterIds = batch.getCreates().stream().map(MainTableLineRequestDTO::getChapterId).toList();
+        List<Long> lineIds = lineIds(batch.getUpdates().stream().map(MainTableLine::getId), batch.getDeletes(), batch.getReorders());
+        // Un projet archivé est réintégré avant la résolution : ses lignes ne sont plus dans les tables
+        archiveService.ensureActive(Kind.CHAPTER, chapterIds);
+        archiveService.ensureActive(Kind.LINE, lineIds);
+        Set<Long> projectIds = new HashSet<>();
+        resolveProjects("SELECT id, project_id FROM chapter WHERE id IN (:ids)", chapterIds, projectIds);
+        resolveProjects("SELECT id, project_id FROM main_table_line WHERE id IN (:ids)", lineIds, projectIds);
+        if (projectIds.isEmpty()) {
+            return new BatchResultDTO(null, List.of(), 0, 0, 0);
+        }
+        Long projectId = singleProject(projectIds);
+        beforeLock.accept(projectId);
+
+        return writeCoordinator.execute(projectId, () -> {
+            // Résolu hors verrou : une ligne ou un chapitre déplacé entre-temps ferait écrire sous le mauvais verrou
+            Set<Long> lockedProjectIds = new HashSet<>();
+            resolveProjects("SELECT id, project_id FROM chapter WHERE id IN (:ids)", chapterIds, lockedProjectIds);
+            resolveProjects("SELECT id, project_id FROM main_table_line WHERE id IN (:ids)", lineIds, lockedProjectIds);
+            ensureSameProject(projectId, lockedProjectIds);
+
+            Integer[] positions = appendPositions("main_table_line", "chapter_id", chapterIds,
+                    batch.getCreates().stream().map(MainTableLineRequestDTO::getPosition).toList());
+            List<MapSqlParameterSource> creates = new ArrayList<>();
+            for (int i = 0; i < positions.length; i++) {
+                creates.add(mainLineParams(batch.getCreates().get(i)).addValue("projectId", projectId).addValue("position", positions[i]));
+            }
+            List<Long> createdIds = insert(jdbcTemplate, INSERT_MAIN_LINE, creates.toArray(SqlParameterSource[]::new));
+            int updated = update(UPDATE_MAIN_LINE, batch.getUpdates().stream()
+                    .map(LineBatchService::mainLineParams).toArray(SqlParameterSource[]::new));
+            int reordered = update("UPDATE main_table_line SET position = :position WHERE id = :id",
+                    positionParams(batch.getReorders()));
+            int deleted = 0;
+            if (!batch.getDeletes().isEmpty()) {
+                MapSqlParameterSource ids = new MapSqlParameterSource("ids", batch.getDeletes());
+                jdbcTemplate.update("DELETE FROM detail_table_line WHERE main_table_line_id IN (:ids)", ids);
+                deleted = jdbcTemplate.update("DELETE FROM main_table_line WHERE id IN (:ids)", ids);
+            }
+            // Seuls les ajouts, suppressions et changements de position déplacent des numéros
+            if (!createdIds.isEmpty() || reordered > 0 || deleted > 0
+                    || batch.getUpdates().stream().anyMatch(line -> line.getPosition() != null)) {
+                numberingService.renumber(projectId);
+            }
+            changePublisher.batchApplied(projectId, EntityType.MAIN_LINE);
+            return new BatchResultDTO(projectId, createdIds, updated, deleted, reordered);
+        });
+    }
+
+    public BatchResultDTO applyDetails(DetailTableLineBatchDTO batch) {
+        return applyDetails(batch, projectId -> {
+        });
+    }
+
+    public BatchResultDTO applyDetails(DetailTableLineBatchDTO batch, Consumer<Long> beforeLock) {
+        List<Long> mainLineIds = batch.getCreates().stream().map(DetailTableLineRequestDTO::getMainTableLineId).toList();
+        List<Long> detailIds = lineIds(batch.getUpdates().stream().map(DetailTableLine::getId), batch.getDeletes(), batch.getReorders());
+        archiveService.ensureActive(Kind.LINE, mainLineIds);
+        archiveService.ensureActive(Kind.DETAIL, detailIds);
+        Set<Long> projectIds = new HashSet<>();
+        resolveProjects("SELECT id, project_id FROM main_table_line WHERE id IN (:ids)", mainLineIds, projectIds);
+        resolveProjects("SELECT id, project_id FROM detail_table_line WHERE id IN (:ids)", detailIds, projectIds);
+        if (projectIds.isEmpty()) {
+            return new BatchResultDTO(null, List.of(), 0, 0, 0);
+        }
+        Long projectId = singleProject(projectIds);
+        beforeLock.accept(projectId);
+
+        return writeCoordinator.execute(projectId, () -> {
+            Set<Long> lockedProjectIds = new HashSet<>();
+            resolveProjects("SELECT id, project_id FROM main_table_line WHERE id IN (:ids)", mainLineIds, lockedProjectIds);
+            resolveProjects("SELECT id, project_id FROM detail_table_line WHERE id IN (:ids)", detailIds, lockedProjectIds);
+            ensureSameProject(projectId, lockedProjectIds);
+
+            Integer[] positions = appendPositions("detail_table_line", "main_table_line_id", mainLineIds,
+                    batch.getCreates().stream().map(DetailTableLineRequestDTO::getPosition).toList());
+            List<MapSqlParameterSource> creates = new ArrayList<>();
+            for (int i = 0; i < positions.length; i++) {
+                creates.add(detailParams(batch.getCreates().get(i)).addValue("projectId", projectId).addValue("position", positions[i]));
+            }
+            List<Long> createdIds = insert(jdbcTemplate, INSERT_DETAIL, creates.toArray(SqlParameterSource[]::new));
+            int updated = update(UPDATE_DETAIL, batch.getUpdates().stream()
+                    .map(LineBatchService::detailParams).toArray(SqlParameterSource[]::new));
+            int reordered = update("UPDATE detail_table_line SET position = :position WHERE id = :id",
+                    positionParams(batch.getReorders()));
+            int deleted = batch.getDeletes().isEmpty() ? 0 : jdbcTemplate.update(
+                    "DELETE FROM detail_table_line WHERE id IN (:ids)", new MapSqlParameterSource("ids", batch.getDeletes()));
+            changePublisher.batchApplied(projectId, EntityType.DETAIL_LINE);
+            return new BatchResultDTO(projectId, createdIds, updated, deleted, reordered);
+        });
+    }
+
+    // Les clés générées d'un batch reviennent dans l'ordre des lignes insérées ; sert aussi à ProjectSyncService
+    static List<Long> insert(NamedParameterJdbcTemplate jdbcTemplate, String sql, SqlParameterSource[] rows) {
+        if (rows.length == 0) {
+            return List.of();
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(sql, rows, keyHolder, new String[]{"id"});
+        List<Long> ids = new ArrayList<>(rows.length);
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    // Une ligne absente fait échouer tout le lot, comme le ferait l'endpoint unitaire
+    private int update(String sql, SqlParameterSource[] rows) {
+        if (rows.length == 0) {
+            return 0;
+        }
+        int[] counts = jdbcTemplate.batchUpdate(sql, rows);
+        int updated = 0;
+        for (int count : counts) {
+            if (count == 0) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Ligne introuvable dans le lot");
+            }
+            // SUCCESS_NO_INFO (-2) avec rewriteBatchedStatements : le nombre exact n'est pas connu
+            updated += count > 0 ? count : 1;
+        }
+        return updated;
+    }
+
+    private void resolveProjects(String sql, Collection<Long> ids, Set<Long> projectIds) {
+        Set<Long> wanted = new HashSet<>(ids);
+        if (wanted.isEmpty()) {
+            return;
+        }
+        if (wanted.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Identifiant manquant dans le lot");
+        }
+        Set<Long> found = new HashSet<>();
+        jdbcTemplate.query(sql, new MapSqlParameterSource("ids", wanted), rs -> {
+            found.add(rs.getLong(1));
+            projectIds.add(rs.getLong(2));
+        });
+        if (found.size() != wanted.size()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Ligne introuvable dans le lot");
+        }
+    }
+
+    // Créations sans position : ajoutées en fin de leur parent dans l'ordre du lot, comme par l'endpoint unitaire
+    private Integer[] appendPositions(String table, String parentColumn, List<Long> parentIds, List<Integer> requested) {
+        Integer[] positions = requested.toArray(Integer[]::new);
+        if (!requested.contains(null)) {
+            return positions;
+        }
+        Map<Long, Integer> last = new HashMap<>();
+        jdbcTemplate.query("SELECT " + parentColumn + ", MAX(position) FROM " + table + " WHERE " + parentColumn + " IN (:ids) GROUP BY " + parentColumn,
+                new MapSqlParameterSource("ids", new HashSet<>(parentIds)),
+                rs -> {
+                    last.put(rs.getLong(1), rs.getObject(2, Integer.class));
+                });
+        for (int i = 0; i < positions.length; i++) {
+            Long parentId = parentIds.get(i);
+            Integer previous = last.get(parentId);
+            if (positions[i] == null) {
+                Integer next = GapPositions.between(previous, null);
+                // Plafond atteint : même repli que LinePositionService.next
+                positions[i] = next != null ? next : previous;
+            }
+            if (positions[i] != null && (previous == null || positions[i] > previous)) {
+                last.put(parentId, positions[i]);
+            }
+        }
+        return positions;
+    }
+
+    private static void ensureSameProject(Long projectId, Set<Long> projectIds) {
+        if (!Set.of(projectId).equals(projectIds)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Des lignes du lot ont changé de projet, réessayez");
+        }
+    }
+
+    private static Long singleProject(Set<Long> projectIds) {
+        if (projectIds.size() > 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Un lot ne peut concerner qu'un seul projet");
+        }
+        return projectIds.iterator().next();
+    }
+
+    private static List<Long> lineIds(Stream<Long> updateIds, List<Long> deletes, List<PositionDTO> reorders) {
+        List<Long> ids = new ArrayList<>(updateIds.toList());
+        ids.addAll(deletes);
+        reorders.forEach(reorder -> ids.add(reorder.getId()));
+        return ids;
+    }
+
+    private static SqlParameterSource[] positionParams(List<PositionDTO> reorders) {
+        return reorders.stream()
+                .map(reorder -> new MapSqlParameterSource("id", reorder.getId()).addValue("position", reorder.getPosition()))
+                .toArray(SqlParameterSource[]::new);
+    }
+
+    private static MapSqlParameterSource mainLineParams(MainTableLineRequestDTO dto) {
+        return new MapSqlParameterSource("chapterId", dto.getChapterId())
+                .addValue("gr", dto.getGr())
+                .addValue("num", dto.getNum())
+                .addValue("code", dto.getCode())
+                .addValue("title", dto.getTitle())
+                .addValue("nm", dto.getNm())
+                .addValue("unit", dto.getUnit())
+                .addValue("quantity", dto.getQuantity())
+                .addValue("unitPrice", dto.getUnitPrice())
+                .addValue("totalPrice", dto.getTotalPrice())
+                .addValue("comments", dto.getComments())
+                .addValue("position", dto.getPosition());
+    }
+
+    private static SqlParameterSource mainLineParams(MainTableLine line) {
+        return new MapSqlParameterSource("id", line.getId())
+                .addValue("gr", line.getGr())
+                .addValue("code", line.getCode())
+                .addValue("title", line.getTitle())
+                .addValue("nm", line.getNm())
+                .addValue("unit", line.getUnit())
+                .addValue("quantity", line.getQuantity())
+                .addValue("unitPrice", line.getUnitPrice())
+                .addValue("totalPrice", line.getTotalPrice())
+                .addValue("comments", line.getComments())
+                .addValue("position", line.getPosition());
+    }
+
+    private static MapSqlParameterSource detailParams(DetailTableLineRequestDTO dto) {
+        return new MapSqlParameterSource("mainTableLineId", dto.getMainTableLineId())
+                .addValue("title", dto.getTitle())
+                .addValue("number", dto.getNumber())
+                .addValue("length", dto.getLength())
+                .addValue("width", dto.getWidth())
+                .addValue("height", dto.getHeight())
+                .addValue("factor", dto.getFactor())
+                .addValue("total", dto.getTotal())
+                .addValue("comments", dto.getComments())
+                .addValue("position", dto.getPosition());
+    }
+
+    private static SqlParameterSource detailParams(DetailTableLine detail) {
+        return new MapSqlParameterSource("id", detail.getId())
+                .addValue("title", detail.getTitle())
+                .addValue("number", detail.getNumber())
+                .addValue("length", detail.getLength())
+                .addValue("width", detail.getWidth())
+                .addValue("height", detail.getHeight())
+                .addValue("factor", detail.getFactor())
+                .addValue("total", detail.getTotal())
+                .addValue("comments", detail.getComments())
+                .addValue("position", detail.getPosition());
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.myProject.service;
+
+import com.example.myProject.dto.LineMoveDTO;
+import com.example.myProject.event.ProjectChangedEvent.ChangeType;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import com.example.myProject.repository.DetailTableLineRepository;
+import com.example.myProject.repository.MainTableLineRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Déplacements et ajouts en fin de liste : une seule ligne écrite tant que l'intervalle le permet
+@Service
+public class LinePositionService {
+
+    private static final Siblings MAIN_LINES = new Siblings("main_table_line", "chapter_id");
+    private static final Siblings DETAILS = new Siblings("detail_table_line", "main_table_line_id");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MainTableLineRepository mainTableLineRepository;
+    private final DetailTableLineRepository detailTableLineRepository;
+    private final ProjectWriteCoordinator writeCoordinator;
+    private final ProjectChangePublisher changePublisher;
+    private final ChapterNumberingService numberingService;
+
+    public LinePositionService(
+            JdbcTemplate jdbcTemplate,
+            MainTableLineRepository mainTableLineRepository,
+            DetailTableLineRepository detailTableLineRepository,
+            ProjectWriteCoordinator writeCoordinator,
+            ProjectChangePublisher changePublisher,
+            ChapterNumberingService numberingService
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mainTableLineRepository = mainTableLineRepository;
+        this.detailTableLineRepository = detailTableLineRepository;
+        this.writeCoordinator = writeCoordinator;
+        this.changePublisher = changePublisher;
+        this.numberingService = numberingService;
+    }
+
+    public Integer nextMainLinePosition(Long chapterId) {
+        return next(MAIN_LINES, chapterId);
+    }
+
+    public Integer nextDetailPosition(Long mainTableLineId) {
+        return next(DETAILS, mainTableLineId);
+    }
+
+    // Lecture et contrôles sous le verrou ; seuls parent et position sont écrits, la ligne est relue ensuite
+    public MainTableLine moveMainLine(Long id, LineMoveDTO move) {
+        return writeCoordinator.executeOwned(() -> owner(MAIN_LINES, id), projectId -> {
+            Long previousChapterId = parent(MAIN_LINES, id);
+            Long chapterId = move.getParentId() != null ? move.getParentId() : previousChapterId;
+            List<Long> chapterProject = jdbcTemplate.queryForList("SELECT project_id FROM chapter WHERE id = ?", Long.class, chapterId);
+            if (chapterProject.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Chapitre introuvable");
+            }
+            if (!projectId.equals(chapterProject.get(0))) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Déplacement vers un autre projet impossible");
+            }
+            place(MAIN_LINES, id, chapterId, move.getAfterId());
+            if (!chapterId.equals(previousChapterId)) {
+                numberingService.renumberLines(projectId, previousChapterId);
+            }
+            numberingService.renumberLines(projectId, chapterId);
+            MainTableLine line = mainTableLineRepository.findById(id).orElseThrow();
+            changePublisher.mainLineChanged(line, ChangeType.UPDATED);
+            return line;
+        });
+    }
+
+    public DetailTableLine moveDetail(Long id, LineMoveDTO move) {
+        return writeCoordinator.executeOwned(() -> owner(DETAILS, id), projectId -> {
+            Long mainTableLineId = move.getParentId() != null ? move.getParentId() : parent(DETAILS, id);
+            Long lineProject;
+            try {
+                lineProject = owner(MAIN_LINES, mainTableLineId);
+            } catch (ResponseStatusException e) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Ligne parente introuvable");
+            }
+            if (!projectId.equals(lineProject)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Déplacement vers un autre projet impossible");
+            }
+            place(DETAILS, id, mainTableLineId, move.getAfterId());
+            DetailTableLine detail = detailTableLineRepository.findById(id).orElseThrow();
+            changePublisher.detailLineChanged(detail, ChangeType.UPDATED);
+            return detail;
+        });
+    }
+
+    private Long owner(Siblings siblings, Long id) {
+        return column(siblings, "project_id", id);
+    }
+
+    private Long parent(Siblings siblings, Long id) {
+        return column(siblings, siblings.parentColumn(), id);
+    }
+
+    private Long column(Siblings siblings, String column, Long id) {
+        List<Long> found = jdbcTemplate.queryForList("SELECT " + column + " FROM " + siblings.table() + " WHERE id = ?", Long.class, id);
+        if (found.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Ligne introuvable");
+        }
+        return found.get(0);
+    }
+
+    private Integer next(Siblings siblings, Long parentId) {
+        Integer last = jdbcTemplate.queryForObject(
+                "SELECT MAX(position) FROM " + siblings.table() + " WHERE " + siblings.parentColumn() + " = ?",
+                Integer.class, parentId);
+        Integer position = GapPositions.between(last, null);
+        // Plafond atteint : la ligne prend la dernière place et sera espacée au prochain déplacement
+        return position != null ? position : last;
+    }
+
+    private int place(Siblings siblings, Long id, Long parentId, Long afterId) {
+        if (id.equals(afterId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Une ligne ne peut être placée après elle-même");
+        }
+        String table = siblings.table();
+        String parent = siblings.parentColumn();
+
+        Integer before = null;
+        if (afterId != null) {
+            List<Integer> found = jdbcTemplate.queryForList(
+                    "SELECT position FROM " + table + " WHERE id = ? AND " + parent + " = ?", Integer.class, afterId, parentId);
+            if (found.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Ligne de référence introuvable");
+            }
+            before = found.get(0);
+        }
+        Integer unpositioned = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE " + parent + " = ? AND id <> ? AND position IS NULL",
+                Integer.class, parentId, id);
+
+        Integer position = null;
+        if (unpositioned == 0) {
+            Integer after = before == null
+                    ? jdbcTemplate.queryForObject("SELECT MIN(position) FROM " + table + " WHERE " + parent + " = ? AND id <> ?",
+                            Integer.class, parentId, id)
+                    : jdbcTemplate.queryForObject("SELECT MIN(position) FROM " + table + " WHERE " + parent + " = ? AND id <> ? AND position > ?",
+                            Integer.class, parentId, id, before);
+            position = GapPositions.between(before, after);
+        }
+        if (position != null) {
+            jdbcTemplate.update("UPDATE " + table + " SET " + parent + " = ?, position = ? WHERE id = ?", parentId, position, id);
+            return position;
+        }
+        return rebalance(siblings, id, parentId, afterId);
+    }
+
+    // Intervalle épuisé (ou positions historiques nulles) : toute la fratrie est réespacée
+    private int rebalance(Siblings siblings, Long id, Long parentId, Long afterId) {
+        List<Long> ids = new ArrayList<>(jdbcTemplate.queryForList(
+                "SELECT id FROM " + siblings.table() + " WHERE " + siblings.parentColumn() + " = ? AND id <> ? ORDER BY position, id",
+                Long.class, parentId, id));
+        ids.add(afterId == null ? 0 : ids.indexOf(afterId) + 1, id);
+        int[] positions = GapPositions.renumber(ids.size());
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            rows.add(new Object[]{parentId, positions[i], ids.get(i)});
+        }
+        jdbcTemplate.batchUpdate("UPDATE " + siblings.table() + " SET " + siblings.parentColumn() + " = ?, position = ? WHERE id = ?", rows);
+        return positions[ids.indexOf(id)];
+    }
+
+    private record Siblings(String table, String parentColumn) {
+    }
+}
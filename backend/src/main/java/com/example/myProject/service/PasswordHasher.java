@@ -0,0 +1,114 @@
+package com.example.myProject.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+
+/**
+ * Hachage BCrypt des mots de passe. Chaque calcul (volontairement coûteux) passe par un pool fixe et
+ * une file bornés : une rafale de connexions occupe au plus threads cœurs, au-delà elle répond 503
+ * au lieu de bloquer les threads des requêtes. Les mots de passe historiques stockés en clair sont
+ * hachés au démarrage (PlaintextPasswordMigration) et ne sont plus acceptés tels quels.
+ */
+@Service
+public class PasswordHasher {
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutNanos;
+    private final Timer hashTimer;
+    // Comparé quand l'e-mail est inconnu : la réponse prend le même temps qu'un mauvais mot de passe
+    private final String unknownUserHash;
+
+    public PasswordHasher(
+            MeterRegistry meterRegistry,
+            @Value("${myproject.auth.bcrypt-strength:10}") int strength,
+            @Value("${myproject.auth.hash-threads:0}") int threads,
+            @Value("${myproject.auth.hash-queue-capacity:64}") int queueCapacity,
+            @Value("${myproject.auth.hash-timeout:5s}") Duration timeout
+    ) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "password-hash");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutNanos = timeout.toNanos();
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("Durée d'un calcul BCrypt, attente dans la file comprise")
+                .register(meterRegistry);
+        meterRegistry.gauge("auth.password.hash.queue", executor, pool -> pool.getQueue().size());
+        this.unknownUserHash = encoder.encode("unknown-user");
+    }
+
+    public String hash(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (!isHash(storedPassword)) {
+            // Jamais accepté ; même coût qu'un mauvais mot de passe
+            matchUnknownUser(rawPassword);
+            return false;
+        }
+        return submit(() -> encoder.matches(rawPassword, storedPassword));
+    }
+
+    public void matchUnknownUser(String rawPassword) {
+        submit(() -> encoder.matches(rawPassword == null ? "" : rawPassword, unknownUserHash));
+    }
+
+    // Haché avec un coût inférieur à celui configuré
+    public boolean needsRehash(String storedPassword) {
+        return isHash(storedPassword) && encoder.upgradeEncoding(storedPassword);
+    }
+
+    public static boolean isHash(String storedPassword) {
+        return storedPassword != null && BCRYPT.matcher(storedPassword).matches();
+    }
+
+    private <T> T submit(Callable<T> work) {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(work);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Trop d'authentifications simultanées");
+        }
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Authentification trop lente, réessayer");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } finally {
+            hashTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.myProject.service;
+
+import com.example.myProject.model.PriceLibraryItem;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Index immuable d'une bibliothèque de prix : deux tableaux de clés triées (codes et mots des
+ * libellés) interrogés par recherche dichotomique sur le préfixe.
+ */
+final class PriceLibraryIndex {
+
+    private final PriceLibraryItem[] items;
+    private final String[] codeKeys;
+    private final int[] codeItems;
+    private final String[] titleKeys;
+    private final int[] titleItems;
+
+    private PriceLibraryIndex(PriceLibraryItem[] items, List<String> codeKeys, List<Integer> codeItems,
+                              List<String> titleKeys, List<Integer> titleItems) {
+        this.items = items;
+        this.codeKeys = new String[codeKeys.size()];
+        this.codeItems = new int[codeKeys.size()];
+        sortInto(codeKeys, codeItems, this.codeKeys, this.codeItems);
+        this.titleKeys = new String[titleKeys.size()];
+        this.titleItems = new int[titleKeys.size()];
+        sortInto(titleKeys, titleItems, this.titleKeys, this.titleItems);
+    }
+
+    static PriceLibraryIndex build(List<PriceLibraryItem> source) {
+        PriceLibraryItem[] items = source.toArray(new PriceLibraryItem[0]);
+        List<String> codeKeys = new ArrayList<>();
+        List<Integer> codeItems = new ArrayList<>();
+        List<String> titleKeys = new ArrayList<>();
+        List<Integer> titleItems = new ArrayList<>();
+
+        for (int i = 0; i < items.length; i++) {
+            String code = normalize(items[i].getCode());
+            if (!code.isEmpty()) {
+                codeKeys.add(code);
+                codeItems.add(i);
+            }
+            // Le libellé complet et chacun de ses mots : "béton armé C25" répond à "arm"
+            String title = normalize(items[i].getTitle());
+            if (!title.isEmpty()) {
+                titleKeys.add(title);
+                titleItems.add(i);
+                String[] words = title.split("\\s+");
+                for (int w = 1; w < words.length; w++) {
+                    titleKeys.add(words[w]);
+                    titleItems.add(i);
+                }
+            }
+        }
+        return new PriceLibraryIndex(items, codeKeys, codeItems, titleKeys, titleItems);
+    }
+
+    int size() {
+        return items.length;
+    }
+
+    // Les correspondances sur le code passent avant celles sur le libellé
+    List<PriceLibraryItem> lookup(String prefix, int limit) {
+        String key = normalize(prefix);
+        List<PriceLibraryItem> result = new ArrayList<>(Math.min(limit, 16));
+        if (key.isEmpty() || limit <= 0) {
+            return result;
+        }
+        boolean[] seen = new boolean[items.length];
+        collect(codeKeys, codeItems, key, limit, seen, result);
+        collect(titleKeys, titleItems, key, limit, seen, result);
+        return result;
+    }
+
+    private void collect(String[] keys, int[] itemIndexes, String prefix, int limit,
+                         boolean[] seen, List<PriceLibraryItem> result) {
+        for (int i = lowerBound(keys, prefix); i < keys.length && result.size() < limit; i++) {
+            if (!keys[i].startsWith(prefix)) {
+                break;
+            }
+            int item = itemIndexes[i];
+            if (!seen[item]) {
+                seen[item] = true;
+                result.add(items[item]);
+            }
+        }
+    }
+
+    private static int lowerBound(String[] keys, String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void sortInto(List<String> keys, List<Integer> itemIndexes, String[] sortedKeys, int[] sortedItems) {
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(keys::get));
+        for (int i = 0; i < order.length; i++) {
+            sortedKeys[i] = keys.get(order[i]);
+            sortedItems[i] = itemIndexes.get(order[i]);
+        }
+    }
+
+    // Minuscules sans accents pour que "beton" trouve "Béton"
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.myProject.service;
+
+import com.example.myProject.dto.PriceLibraryItemRequestDTO;
+import com.example.myProject.event.ProjectChangedEvent.ChangeType;
+import com.example.myProject.model.PriceLibraryItem;
+import com.example.myProject.repository.PriceLibraryItemRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class PriceLibraryService {
+
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private final PriceLibraryItemRepository repository;
+    private final ProjectChangePublisher changePublisher;
+    private final ProjectWriteCoordinator writeCoordinator;
+
+    // Un index par société, reconstruit paresseusement après chaque modification de sa bibliothèque
+    private final Map<Long, PriceLibraryIndex> indexes = new ConcurrentHashMap<>();
+
+    public PriceLibraryService(
+            PriceLibraryItemRepository repository,
+            ProjectChangePublisher changePublisher,
+            ProjectWriteCoordinator writeCoordinator
+    ) {
+        this.repository = repository;
+        this.changePublisher = changePublisher;
+        this.writeCoordinator = writeCoordinator;
+    }
+
+    @Transactional(readOnly = true)
+    public List<PriceLibraryItem> getByCompany(Long companyId) {
+        return repository.findByCompanyId(companyId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PriceLibraryItem> autocomplete(Long companyId, String prefix, int limit) {
+        PriceLibraryIndex index = indexes.computeIfAbsent(companyId,
+                id -> PriceLibraryIndex.build(repository.findByCompanyId(id)));
+        return index.lookup(prefix, Math.min(limit, MAX_SUGGESTIONS));
+    }
+
+    public PriceLibraryItem create(PriceLibraryItemRequestDTO dto) {
+        PriceLibraryItem item = PriceLibraryItem.builder()
+                .companyId(dto.getCompanyId())
+                .code(dto.getCode())
+                .title(dto.getTitle())
+                .unit(dto.getUnit())
+                .unitPrice(dto.getUnitPrice())
+                .build();
+        PriceLibraryItem saved = repository.save(item);
+        indexes.remove(saved.getCompanyId());
+        return saved;
+    }
+
+    public PriceLibraryItem update(Long id, PriceLibraryItemRequestDTO dto) {
+        PriceLibraryItem item = repository.findById(id).orElseThrow();
+        Long previousCompanyId = item.getCompanyId();
+        item.setCompanyId(dto.getCompanyId());
+        item.setCode(dto.getCode());
+        item.setTitle(dto.getTitle());
+        item.setUnit(dto.getUnit());
+        item.setUnitPrice(dto.getUnitPrice());
+        PriceLibraryItem saved = repository.save(item);
+        indexes.remove(previousCompanyId);
+        indexes.remove(saved.getCompanyId());
+        return saved;
+    }
+
+    public void delete(Long id) {
+        repository.findById(id).ifPresent(item -> {
+            repository.delete(item);
+            indexes.remove(item.getCompanyId());
+        });
+    }
+
+    public int repriceProject(Long projectId) {
+        return writeCoordinator.execute(projectId, () -> {
+            int updated = repository.repriceProject(projectId);
+            changePublisher.projectChanged(projectId, ChangeType.UPDATED);
+            return updated;
+        });
+    }
+}
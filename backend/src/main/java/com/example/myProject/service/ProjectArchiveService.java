@@ -0,0 +1,271 @@
+package com.example.myProject.service;
+
+import com.example.myProject.dto.ChapterWithLinesDTO;
+import com.example.myProject.dto.MainTableLineWithDetailsDTO;
+import com.example.myProject.dto.ProjectFullDTO;
+import com.example.myProject.event.ProjectChangedEvent;
+import com.example.myProject.model.*;
+import com.example.myProject.repository.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archivage des projets inactifs : leurs chapitres, lignes et détails quittent les tables
+ * chaudes pour un unique blob gzippé dans project_archive. Les lectures complètes sont servies
+ * depuis l'archive ; toute écriture réintègre d'abord le projet avec ses identifiants d'origine.
+ * Les identifiants archivés sont indexés dans project_archive_row, pour qu'une écriture qui ne
+ * cite qu'un chapitre, une ligne ou un détail retrouve le projet à réintégrer.
+ */
+// Jamais paresseux (profil startup) : sinon la tâche planifiée n'est pas enregistrée
+@Lazy(false)
+@Service
+public class ProjectArchiveService {
+
+    private final ProjectRepository projectRepository;
+    private final ProjectArchiveRepository archiveRepository;
+    private final ChapterRepository chapterRepository;
+    private final MainTableLineRepository mainTableLineRepository;
+    private final DetailTableLineRepository detailTableLineRepository;
+    private final ProjectWriteCoordinator writeCoordinator;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration inactiveAfter;
+    private final int batchSize;
+
+    public ProjectArchiveService(
+            ProjectRepository projectRepository,
+            ProjectArchiveRepository archiveRepository,
+            ChapterRepository chapterRepository,
+            MainTableLineRepository mainTableLineRepository,
+            DetailTableLineRepository detailTableLineRepository,
+            ProjectWriteCoordinator writeCoordinator,
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${myproject.archive.inactive-after:180d}") Duration inactiveAfter,
+            @Value("${myproject.archive.batch-size:100}") int batchSize
+    ) {
+        this.projectRepository = projectRepository;
+        this.archiveRepository = archiveRepository;
+        this.chapterRepository = chapterRepository;
+        this.mainTableLineRepository = mainTableLineRepository;
+        this.detailTableLineRepository = detailTableLineRepository;
+        this.writeCoordinator = writeCoordinator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.objectMapper = objectMapper;
+        this.inactiveAfter = inactiveAfter;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${myproject.archive.cron:0 0 3 * * *}")
+    public void archiveInactiveProjects() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(inactiveAfter);
+        List<Long> projectIds;
+        do {
+            projectIds = projectRepository.findIdsInactiveSince(cutoff, PageRequest.of(0, batchSize));
+            for (Long projectId : projectIds) {
+                archive(projectId);
+            }
+        } while (projectIds.size() == batchSize);
+        System.out.println("✅ Archivage des projets inactifs terminé.");
+    }
+
+    public void archive(Long projectId) {
+        writeCoordinator.run(projectId, () -> {
+            Project project = projectRepository.findById(projectId).orElseThrow();
+            if (project.getArchivedAt() != null) {
+                return;
+            }
+            List<Chapter> chapters = chapterRepository.findByProjectIdOrderByPositionAscIdAsc(projectId);
+            List<MainTableLine> lines = mainTableLineRepository.findByProjectIdOrderByPositionAscIdAsc(projectId);
+            List<DetailTableLine> details = detailTableLineRepository.findByProjectIdOrderByPositionAscIdAsc(projectId);
+
+            archiveRepository.save(ProjectArchive.builder()
+                    .projectId(projectId)
+                    .chapterCount(chapters.size())
+                    .lineCount(lines.size())
+                    .detailCount(details.size())
+                    .payload(write(ProjectContentLoader.assemble(project, chapters, lines, details)))
+                    .archivedAt(LocalDateTime.now())
+                    .build());
+            indexRows(projectId, chapters.stream().map(Chapter::getId).toList(),
+                    lines.stream().map(MainTableLine::getId).toList(), details.stream().map(DetailTableLine::getId).toList());
+
+            detailTableLineRepository.deleteAllByProjectId(projectId);
+            mainTableLineRepository.deleteAllByProjectId(projectId);
+            chapterRepository.deleteAllByProjectId(projectId);
+
+            // Requête directe : un save() déclencherait @PreUpdate et rajeunirait updatedAt
+            jdbcTemplate.update("UPDATE project SET archived_at = ? WHERE id = ?", LocalDateTime.now(), projectId);
+        });
+    }
+
+    // Réintègre le projet dans les tables chaudes s'il est archivé ; sans effet sinon
+    public void ensureActive(Long projectId) {
+        if (!isArchived(projectId)) {
+            return;
+        }
+        writeCoordinator.run(projectId, () -> {
+            Optional<ProjectArchive> archive = archiveRepository.findById(projectId);
+            if (archive.isEmpty()) {
+                return;
+            }
+            ProjectFullDTO content = read(archive.get().getPayload());
+            restoreRows(projectId, content);
+            archiveRepository.delete(archive.get());
+            jdbcTemplate.update("DELETE FROM project_archive_row WHERE project_id = ?", projectId);
+            jdbcTemplate.update("UPDATE project SET archived_at = NULL WHERE id = ?", projectId);
+        });
+    }
+
+    // Même chose pour les écritures qui ne désignent qu'un chapitre, une ligne ou un détail
+    public void ensureActive(ProjectArchiveRow.Kind kind, Long rowId) {
+        ensureActive(kind, rowId == null ? List.of() : List.of(rowId));
+    }
+
+    public void ensureActive(ProjectArchiveRow.Kind kind, Collection<Long> rowIds) {
+        Set<Long> wanted = new HashSet<>(rowIds);
+        wanted.remove(null);
+        if (wanted.isEmpty()) {
+            return;
+        }
+        List<Long> projectIds = namedJdbcTemplate.queryForList(
+                "SELECT DISTINCT project_id FROM project_archive_row WHERE kind = :kind AND row_id IN (:ids)",
+                new MapSqlParameterSource("kind", kind.name()).addValue("ids", wanted), Long.class);
+        projectIds.forEach(this::ensureActive);
+    }
+
+    // Projet archivé auquel appartenait ce chapitre, cette ligne ou ce détail
+    public Optional<Long> findArchivedProject(ProjectArchiveRow.Kind kind, Long rowId) {
+        List<Long> projectIds = jdbcTemplate.queryForList(
+                "SELECT project_id FROM project_archive_row WHERE kind = ? AND row_id = ?", Long.class, kind.name(), rowId);
+        return projectIds.stream().findFirst();
+    }
+
+    public boolean isArchived(Long projectId) {
+        List<Object> archivedAt = jdbcTemplate.queryForList("SELECT archived_at FROM project WHERE id = ?", Object.class, projectId);
+        return !archivedAt.isEmpty() && archivedAt.get(0) != null;
+    }
+
+    // Contenu complet d'un projet archivé, lu sans le réintégrer
+    public Optional<ProjectFullDTO> findArchivedContent(Long projectId) {
+        if (!isArchived(projectId)) {
+            return Optional.empty();
+        }
+        return archiveRepository.findById(projectId).map(archive -> read(archive.getPayload()));
+    }
+
+    // Après le commit, dans sa propre transaction : la ligne project n'est pas verrouillée pendant l'écriture
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        if (event.entityType() == ProjectChangedEvent.EntityType.PROJECT
+                && event.changeType() == ProjectChangedEvent.ChangeType.DELETED) {
+            archiveRepository.findById(event.projectId()).ifPresent(archiveRepository::delete);
+            jdbcTemplate.update("DELETE FROM project_archive_row WHERE project_id = ?", event.projectId());
+        } else {
+            projectRepository.touch(event.projectId(), LocalDateTime.now());
+        }
+    }
+
+    // Archives créées avant project_archive_row : indexées une fois, au démarrage
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexExistingArchives() {
+        List<Long> projectIds = jdbcTemplate.queryForList("""
+                SELECT a.project_id FROM project_archive a
+                WHERE NOT EXISTS (SELECT 1 FROM project_archive_row r WHERE r.project_id = a.project_id)
+                """, Long.class);
+        for (Long projectId : projectIds) {
+            archiveRepository.findById(projectId).ifPresent(archive -> {
+                List<Long> chapters = new ArrayList<>();
+                List<Long> lines = new ArrayList<>();
+                List<Long> details = new ArrayList<>();
+                for (ChapterWithLinesDTO chapterDTO : read(archive.getPayload()).getChapters()) {
+                    chapters.add(chapterDTO.getChapter().getId());
+                    for (MainTableLineWithDetailsDTO lineDTO : chapterDTO.getLines()) {
+                        lines.add(lineDTO.getMainTableLine().getId());
+                        lineDTO.getDetails().forEach(detail -> details.add(detail.getId()));
+                    }
+                }
+                indexRows(projectId, chapters, lines, details);
+            });
+        }
+        if (!projectIds.isEmpty()) {
+            System.out.println("✅ Identifiants indexés pour " + projectIds.size() + " projets archivés");
+        }
+    }
+
+    private void indexRows(Long projectId, List<Long> chapterIds, List<Long> lineIds, List<Long> detailIds) {
+        List<Object[]> rows = new ArrayList<>();
+        chapterIds.forEach(id -> rows.add(new Object[]{ProjectArchiveRow.Kind.CHAPTER.name(), id, projectId}));
+        lineIds.forEach(id -> rows.add(new Object[]{ProjectArchiveRow.Kind.LINE.name(), id, projectId}));
+        detailIds.forEach(id -> rows.add(new Object[]{ProjectArchiveRow.Kind.DETAIL.name(), id, projectId}));
+        jdbcTemplate.batchUpdate("INSERT INTO project_archive_row (kind, row_id, project_id) VALUES (?, ?, ?)", rows);
+    }
+
+    // Réinsertion avec les identifiants d'origine : les références du client restent valables
+    private void restoreRows(Long projectId, ProjectFullDTO content) {
+        List<Object[]> chapters = new ArrayList<>();
+        List<Object[]> lines = new ArrayList<>();
+        List<Object[]> details = new ArrayList<>();
+        for (ChapterWithLinesDTO chapterDTO : content.getChapters()) {
+            Chapter c = chapterDTO.getChapter();
+            chapters.add(new Object[]{c.getId(), c.getProjectId(), c.getParentId(), c.getNum(), c.getLabel(), c.getContent(), c.getPosition()});
+            for (MainTableLineWithDetailsDTO lineDTO : chapterDTO.getLines()) {
+                MainTableLine l = lineDTO.getMainTableLine();
+                lines.add(new Object[]{l.getId(), l.getChapterId(), projectId, l.getGr(), l.getNum(), l.getCode(), l.getTitle(), l.getNm(), l.getUnit(),
+                        l.getQuantity(), l.getUnitPrice(), l.getTotalPrice(), l.getComments(), l.getPosition()});
+                for (DetailTableLine d : lineDTO.getDetails()) {
+                    details.add(new Object[]{d.getId(), d.getMainTableLineId(), projectId, d.getTitle(), d.getNumber(), d.getLength(),
+                            d.getWidth(), d.getHeight(), d.getFactor(), d.getTotal(), d.getComments(), d.getPosition()});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO chapter (id, project_id, parent_id, num, label, content, position) VALUES (?, ?, ?, ?, ?, ?, ?)", chapters);
+        jdbcTemplate.batchUpdate("INSERT INTO main_table_line (id, chapter_id, project_id, gr, num, code, title, nm, unit, quantity, up, total_price, comments, position) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", lines);
+        jdbcTemplate.batchUpdate("INSERT INTO detail_table_line (id, main_table_line_id, project_id, title, number, length, width, height, factor, total, comments, position) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", details);
+    }
+
+    private byte[] write(ProjectFullDTO content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private ProjectFullDTO read(byte[] payload) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readValue(gzip, ProjectFullDTO.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.myProject.service;
+
+import com.example.myProject.event.ProjectChangedEvent;
+import com.example.myProject.event.ProjectChangedEvent.ChangeType;
+import com.example.myProject.event.ProjectChangedEvent.EntityType;
+import com.example.myProject.model.Chapter;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// Publie le ProjectChangedEvent d'une écriture (lignes et détails portent leur project_id) et incrémente
+// project.revision dans la transaction de l'écriture : tous les nœuds voient le changement en base.
+// L'événement porte la nouvelle révision et la ligne écrite
+@Service
+public class ProjectChangePublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProjectChangePublisher(ApplicationEventPublisher eventPublisher, JdbcTemplate jdbcTemplate) {
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void projectChanged(Long projectId, ChangeType changeType) {
+        publish(projectId, EntityType.PROJECT, changeType, projectId, null);
+    }
+
+    public void chapterChanged(Chapter chapter, ChangeType changeType) {
+        publish(chapter.getProjectId(), EntityType.CHAPTER, changeType, chapter.getId(), payload(chapter, changeType));
+    }
+
+    public void mainLineChanged(MainTableLine line, ChangeType changeType) {
+        publish(line.getProjectId(), EntityType.MAIN_LINE, changeType, line.getId(), payload(line, changeType));
+    }
+
+    public void detailLineChanged(DetailTableLine detail, ChangeType changeType) {
+        publish(detail.getProjectId(), EntityType.DETAIL_LINE, changeType, detail.getId(), payload(detail, changeType));
+    }
+
+    // Un seul événement pour un lot d'écritures, sans entité précise
+    public void batchApplied(Long projectId, EntityType entityType) {
+        publish(projectId, entityType, ChangeType.SYNCED, null, null);
+    }
+
+    private static Object payload(Object row, ChangeType changeType) {
+        return changeType == ChangeType.DELETED ? null : row;
+    }
+
+    private void publish(Long projectId, EntityType entityType, ChangeType changeType, Long entityId, Object data) {
+        if (projectId != null) {
+            // Sans effet sur un projet supprimé ; relu sous le verrou de ligne que l'UPDATE vient de prendre
+            jdbcTemplate.update("UPDATE project SET revision = revision + 1 WHERE id = ?", projectId);
+            List<Long> revision = jdbcTemplate.queryForList("SELECT revision FROM project WHERE id = ?", Long.class, projectId);
+            eventPublisher.publishEvent(new ProjectChangedEvent(projectId, entityType, changeType, entityId,
+                    revision.isEmpty() ? null : revision.get(0), data));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.myProject.service;
+
+import com.example.myProject.dto.ChapterWithLinesDTO;
+import com.example.myProject.dto.MainTableLineWithDetailsDTO;
+import com.example.myProject.dto.ProjectFullDTO;
+import com.example.myProject.model.Chapter;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import com.example.myProject.model.Project;
+import com.example.myProject.repository.ChapterRepository;
+import com.example.myProject.repository.DetailTableLineRepository;
+import com.example.myProject.repository.MainTableLineRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+// Contenu complet d'un projet en trois requêtes indexées sur project_id, quelle que soit sa taille
+@Service
+public class ProjectContentLoader {
+
+    private final ChapterRepository chapterRepository;
+    private final MainTableLineRepository mainTableLineRepository;
+    private final DetailTableLineRepository detailTableLineRepository;
+
+    public ProjectContentLoader(
+            ChapterRepository chapterRepository,
+            MainTableLineRepository mainTableLineRepository,
+            DetailTableLineRepository detailTableLineRepository
+    ) {
+        this.chapterRepository = chapterRepository;
+        this.mainTableLineRepository = mainTableLineRepository;
+        this.detailTableLineRepository = detailTableLineRepository;
+    }
+
+    public ProjectFullDTO load(Project project) {
+        return assemble(project,
+                chapterRepository.findByProjectIdOrderByPositionAscIdAsc(project.getId()),
+                mainTableLineRepository.findByProjectIdOrderByPositionAscIdAsc(project.getId()),
+                detailTableLineRepository.findByProjectIdOrderByPositionAscIdAsc(project.getId()));
+    }
+
+    // Les lignes et détails doivent arriver déjà triés par position
+    static ProjectFullDTO assemble(Project project, List<Chapter> chapters, List<MainTableLine> lines,
+                                   List<DetailTableLine> details) {
+        Map<Long, List<DetailTableLine>> detailsByLine = new HashMap<>();
+        details.forEach(d -> detailsByLine.computeIfAbsent(d.getMainTableLineId(), id -> new ArrayList<>()).add(d));
+        Map<Long, List<MainTableLineWithDetailsDTO>> linesByChapter = new HashMap<>();
+        for (MainTableLine line : lines) {
+            MainTableLineWithDetailsDTO lineDTO = new MainTableLineWithDetailsDTO();
+            lineDTO.setMainTableLine(line);
+            lineDTO.setDetails(detailsByLine.getOrDefault(line.getId(), List.of()));
+            linesByChapter.computeIfAbsent(line.getChapterId(), id -> new ArrayList<>()).add(lineDTO);
+        }
+        List<ChapterWithLinesDTO> chapterDTOs = new ArrayList<>();
+        for (Chapter chapter : chapters) {
+            ChapterWithLinesDTO chapterDTO = new ChapterWithLinesDTO();
+            chapterDTO.setChapter(chapter);
+            chapterDTO.setLines(linesByChapter.getOrDefault(chapter.getId(), List.of()));
+            chapterDTOs.add(chapterDTO);
+        }
+        ProjectFullDTO fullDTO = new ProjectFullDTO();
+        fullDTO.setProject(project);
+        fullDTO.setChapters(chapterDTOs);
+        return fullDTO;
+    }
+}
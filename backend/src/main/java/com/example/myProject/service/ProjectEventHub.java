@@ -0,0 +1,144 @@
+package com.example.myProject.service;
+
+import com.example.myProject.event.ProjectChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Diffusion locale des changements d'un projet vers ses abonnés SSE. Chaque événement "change" porte la
+ * révision du projet et, pour une écriture unitaire, la ligne écrite : le client l'applique sans relire.
+ * Chaque abonné possède un tampon borné vidé par un pool fixe : un client lent ne bloque ni
+ * l'écriture ni les autres abonnés. Si son tampon déborde, ses événements en attente sont
+ * remplacés par un unique événement "resync" lui demandant de recharger le projet complet.
+ */
+@Service
+public class ProjectEventHub {
+
+    private static final long EMITTER_TIMEOUT_MS = Duration.ofMinutes(30).toMillis();
+    private static final long HEARTBEAT_SECONDS = 25;
+
+    private final int bufferSize;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+
+    public ProjectEventHub(
+            @Value("${myproject.events.buffer-size:256}") int bufferSize,
+            @Value("${myproject.events.dispatch-threads:2}") int dispatchThreads
+    ) {
+        this.bufferSize = bufferSize;
+        this.executor = Executors.newScheduledThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "project-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public SseEmitter subscribe(Long projectId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(projectId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.computeIfAbsent(projectId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    // Après commit seulement, pour ne jamais annoncer une écriture annulée
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        Set<Subscriber> projectSubscribers = subscribers.get(event.projectId());
+        if (projectSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : projectSubscribers) {
+            if (!subscriber.buffer.offer(event)) {
+                subscriber.buffer.clear();
+                subscriber.overflowed.set(true);
+            }
+            scheduleDrain(subscriber);
+        }
+    }
+
+    public int subscriberCount(Long projectId) {
+        Set<Subscriber> projectSubscribers = subscribers.get(projectId);
+        return projectSubscribers == null ? 0 : projectSubscribers.size();
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            executor.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            do {
+                if (subscriber.overflowed.getAndSet(false)) {
+                    subscriber.emitter.send(SseEmitter.event().name("resync").data(subscriber.projectId));
+                }
+                ProjectChangedEvent event;
+                while ((event = subscriber.buffer.poll()) != null) {
+                    subscriber.emitter.send(SseEmitter.event().name("change").data(event));
+                }
+                subscriber.draining.set(false);
+                // Un événement a pu arriver entre le dernier poll et la remise à false
+            } while ((!subscriber.buffer.isEmpty() || subscriber.overflowed.get())
+                    && subscriber.draining.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            subscriber.draining.set(false);
+            unsubscribe(subscriber);
+        }
+    }
+
+    private void heartbeat() {
+        for (Set<Subscriber> projectSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : projectSubscribers) {
+                try {
+                    subscriber.emitter.send(SseEmitter.event().comment("ping"));
+                } catch (IOException | IllegalStateException e) {
+                    unsubscribe(subscriber);
+                }
+            }
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.projectId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    private static final class Subscriber {
+        private final Long projectId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<ProjectChangedEvent> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean overflowed = new AtomicBoolean();
+
+        private Subscriber(Long projectId, SseEmitter emitter, BlockingQueue<ProjectChangedEvent> buffer) {
+            this.projectId = projectId;
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.myProject.service;
+
+import com.example.myProject.dto.ProjectDiffDTO;
+import com.example.myProject.dto.ProjectRevisionDTO;
+import com.example.myProject.dto.ProjectVersionDTO;
+import com.example.myProject.event.ProjectChangedEvent;
+import com.example.myProject.model.*;
+import com.example.myProject.repository.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Historique des synchronisations d'un projet : chaque sync ajoute une révision ne contenant que
+ * les chapitres / lignes / détails modifiés ou supprimés depuis la révision précédente (y compris
+ * par les écritures unitaires faites entre deux syncs), et un état complet est enregistré toutes
+ * les N versions pour borner le nombre de deltas à rejouer. Les payloads sont du JSON gzippé.
+ */
+@Service
+public class ProjectHistoryService {
+
+    private static final String[] KINDS = {"chapters", "lines", "details"};
+
+    // Un Long relu depuis le JSON stocké devient un IntNode : on compare les valeurs, pas les types de nœud
+    private static final Comparator<JsonNode> SAME_VALUE = (a, b) -> {
+        if (a.isNumber() && b.isNumber()) {
+            return a.isIntegralNumber() && b.isIntegralNumber()
+                    ? Long.compare(a.longValue(), b.longValue())
+                    : Double.compare(a.doubleValue(), b.doubleValue());
+        }
+        return a.equals(b) ? 0 : 1;
+    };
+
+    private final ProjectRevisionRepository revisionRepository;
+    private final ProjectRepository projectRepository;
+    private final ChapterRepository chapterRepository;
+    private final MainTableLineRepository mainTableLineRepository;
+    private final DetailTableLineRepository detailTableLineRepository;
+    private final ObjectMapper objectMapper;
+    private final int snapshotInterval;
+
+    public ProjectHistoryService(
+            ProjectRevisionRepository revisionRepository,
+            ProjectRepository projectRepository,
+            ChapterRepository chapterRepository,
+            MainTableLineRepository mainTableLineRepository,
+            DetailTableLineRepository detailTableLineRepository,
+            ObjectMapper objectMapper,
+            @Value("${myproject.history.snapshot-interval:20}") int snapshotInterval
+    ) {
+        this.revisionRepository = revisionRepository;
+        this.projectRepository = projectRepository;
+        this.chapterRepository = chapterRepository;
+        this.mainTableLineRepository = mainTableLineRepository;
+        this.detailTableLineRepository = detailTableLineRepository;
+        this.objectMapper = objectMapper;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    // Copie détachée (arbres JSON) : la sync modifie ensuite les entités gérées elles-mêmes
+    public State captureState(Long projectId) {
+        State state = new State();
+        state.name = projectRepository.findById(projectId).map(Project::getName).orElse(null);
+        List<Chapter> chapters = chapterRepository.findByProjectId(projectId);
+        List<MainTableLine> lines = mainTableLineRepository.findByProjectIdOrderByPositionAscIdAsc(projectId);
+        List<DetailTableLine> details = detailTableLineRepository.findByProjectIdOrderByPositionAscIdAsc(projectId);
+        for (Chapter chapter : chapters) {
+            // Les identifiants temporaires du front ne font pas partie de l'état
+            ObjectNode node = objectMapper.valueToTree(chapter);
+            node.remove(List.of("tempId", "parentTempId"));
+            state.put("chapters", chapter.getId(), node);
+        }
+        lines.forEach(line -> state.put("lines", line.getId(), objectMapper.valueToTree(line)));
+        details.forEach(detail -> state.put("details", detail.getId(), objectMapper.valueToTree(detail)));
+        return state;
+    }
+
+    // Appelé en début de sync : un projet sans historique garde son état d'avant la première sync
+    public void recordBaseline(Long projectId) {
+        if (revisionRepository.findTopByProjectIdOrderByVersionDesc(projectId).isPresent()) {
+            return;
+        }
+        State current = captureState(projectId);
+        if (!current.isEmpty()) {
+            save(projectId, 1, ProjectRevision.Kind.SNAPSHOT, current.size(), toJson(current));
+        }
+    }
+
+    // Appelé en fin de sync, dans la même transaction. La référence est l'état reconstruit depuis la
+    // dernière révision, pas l'état lu en début de sync : les écritures faites hors sync depuis (ligne,
+    // détail, chapitre, déplacement, lot) entrent dans ce delta au lieu d'être perdues au rejeu
+    public void recordSync(Long projectId) {
+        State after = captureState(projectId);
+        Optional<ProjectRevision> last = revisionRepository.findTopByProjectIdOrderByVersionDesc(projectId);
+        int version = last.map(ProjectRevision::getVersion).orElse(0);
+        State before = version == 0 ? new State() : rebuild(projectId, version);
+
+        ObjectNode delta = diff(before, after);
+        int changeCount = delta.get("changeCount").asInt();
+        if (changeCount == 0 && version > 0) {
+            return;
+        }
+        version++;
+        if (version == 1 || version % snapshotInterval == 0) {
+            save(projectId, version, ProjectRevision.Kind.SNAPSHOT, changeCount, toJson(after));
+        } else {
+            save(projectId, version, ProjectRevision.Kind.DELTA, changeCount, delta);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProjectRevisionDTO> listVersions(Long projectId) {
+        return revisionRepository.listVersions(projectId);
+    }
+
+    @Transactional(readOnly = true)
+    public ProjectVersionDTO getVersion(Long projectId, Integer version) {
+        State state = rebuild(projectId, version);
+        ProjectVersionDTO dto = new ProjectVersionDTO();
+        dto.setProjectId(projectId);
+        dto.setVersion(version);
+        dto.setName(state.name);
+        dto.setChapters(convert(state.maps.get("chapters").values(), Chapter.class));
+        dto.setLines(convert(state.maps.get("lines").values(), MainTableLine.class));
+        dto.setDetails(convert(state.maps.get("details").values(), DetailTableLine.class));
+        return dto;
+    }
+
+    @Transactional(readOnly = true)
+    public ProjectDiffDTO diff(Long projectId, Integer fromVersion, Integer toVersion) {
+        ObjectNode delta = diff(rebuild(projectId, fromVersion), rebuild(projectId, toVersion));
+        ProjectDiffDTO dto = new ProjectDiffDTO();
+        dto.setProjectId(projectId);
+        dto.setFromVersion(fromVersion);
+        dto.setToVersion(toVersion);
+        dto.setName(delta.hasNonNull("name") ? delta.get("name").asText() : null);
+        dto.setUpsertedChapters(convert(delta.path("upsert").path("chapters"), Chapter.class));
+        dto.setUpsertedLines(convert(delta.path("upsert").path("lines"), MainTableLine.class));
+        dto.setUpsertedDetails(convert(delta.path("upsert").path("details"), DetailTableLine.class));
+        dto.setDeletedChapterIds(convert(delta.path("delete").path("chapters"), Long.class));
+        dto.setDeletedLineIds(convert(delta.path("delete").path("lines"), Long.class));
+        dto.setDeletedDetailIds(convert(delta.path("delete").path("details"), Long.class));
+        return dto;
+    }
+
+    @EventListener
+    @Transactional
+    public void onProjectChanged(ProjectChangedEvent event) {
+        if (event.entityType() == ProjectChangedEvent.EntityType.PROJECT
+                && event.changeType() == ProjectChangedEvent.ChangeType.DELETED) {
+            revisionRepository.deleteByProjectId(event.projectId());
+        }
+    }
+
+    // Dernier état complet <= version, puis application des deltas suivants dans l'ordre
+    private State rebuild(Long projectId, Integer version) {
+        ProjectRevision base = revisionRepository
+                .findTopByProjectIdAndKindAndVersionLessThanEqualOrderByVersionDesc(projectId, ProjectRevision.Kind.SNAPSHOT, version)
+                .orElseThrow();
+        State state = fromJson(read(base.getPayload()));
+        List<ProjectRevision> deltas = revisionRepository
+                .findByProjectIdAndVersionBetweenOrderByVersion(projectId, base.getVersion() + 1, version);
+        if (base.getVersion() + deltas.size() != version) {
+            throw new NoSuchElementException("Version " + version + " introuvable pour le projet " + projectId);
+        }
+        for (ProjectRevision delta : deltas) {
+            apply(state, read(delta.getPayload()));
+        }
+        return state;
+    }
+
+    private ObjectNode diff(State before, State after) {
+        ObjectNode delta = objectMapper.createObjectNode();
+        int changes = 0;
+        if (!Objects.equals(before.name, after.name)) {
+            delta.put("name", after.name);
+            changes++;
+        }
+        ObjectNode upsert = delta.putObject("upsert");
+        ObjectNode delete = delta.putObject("delete");
+        for (String kind : KINDS) {
+            Map<Long, JsonNode> previous = before.maps.get(kind);
+            Map<Long, JsonNode> current = after.maps.get(kind);
+            ArrayNode upserted = upsert.putArray(kind);
+            ArrayNode deleted = delete.putArray(kind);
+            for (Map.Entry<Long, JsonNode> entry : current.entrySet()) {
+                JsonNode old = previous.get(entry.getKey());
+                if (old == null || !entry.getValue().equals(SAME_VALUE, old)) {
+                    upserted.add(entry.getValue());
+                }
+            }
+            for (Long id : previous.keySet()) {
+                if (!current.containsKey(id)) {
+                    deleted.add(id);
+                }
+            }
+            changes += upserted.size() + deleted.size();
+        }
+        delta.put("changeCount", changes);
+        return delta;
+    }
+
+    private void apply(State state, JsonNode delta) {
+        if (delta.has("name")) {
+            state.name = delta.get("name").isNull() ? null : delta.get("name").asText();
+        }
+        for (String kind : KINDS) {
+            for (JsonNode node : delta.path("upsert").path(kind)) {
+                state.put(kind, node.get("id").asLong(), node);
+            }
+            for (JsonNode id : delta.path("delete").path(kind)) {
+                state.maps.get(kind).remove(id.asLong());
+            }
+        }
+    }
+
+    private void save(Long projectId, int version, ProjectRevision.Kind kind, int changeCount, JsonNode payload) {
+        revisionRepository.save(ProjectRevision.builder()
+                .projectId(projectId)
+                .version(version)
+                .kind(kind)
+                .changeCount(changeCount)
+                .payload(write(payload))
+                .build());
+    }
+
+    private ObjectNode toJson(State state) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("name", state.name);
+        for (String kind : KINDS) {
+            ArrayNode array = node.putArray(kind);
+            state.maps.get(kind).values().forEach(array::add);
+        }
+        return node;
+    }
+
+    private State fromJson(JsonNode node) {
+        State state = new State();
+        state.name = node.path("name").isNull() ? null : node.path("name").asText(null);
+        for (String kind : KINDS) {
+            for (JsonNode item : node.path(kind)) {
+                state.put(kind, item.get("id").asLong(), item);
+            }
+        }
+        return state;
+    }
+
+    private <T> List<T> convert(Iterable<JsonNode> nodes, Class<T> type) {
+        List<T> result = new ArrayList<>();
+        try {
+            for (JsonNode node : nodes) {
+                result.add(objectMapper.treeToValue(node, type));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Révision illisible", e);
+        }
+        return result;
+    }
+
+    private byte[] write(JsonNode payload) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private JsonNode read(byte[] payload) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readTree(gzip);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static final class State {
+        private String name;
+        private final Map<String, Map<Long, JsonNode>> maps = new HashMap<>();
+
+        private State() {
+            for (String kind : KINDS) {
+                maps.put(kind, new TreeMap<>());
+            }
+        }
+
+        private void put(String kind, Long id, JsonNode node) {
+            maps.get(kind).put(id, node);
+        }
+
+        private int size() {
+            return maps.values().stream().mapToInt(Map::size).sum();
+        }
+
+        private boolean isEmpty() {
+            return name == null && size() == 0;
+        }
+    }
+}
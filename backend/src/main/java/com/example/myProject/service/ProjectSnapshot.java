@@ -0,0 +1,251 @@
+package com.example.myProject.service;
+
+import com.example.myProject.model.Chapter;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+
+import java.util.*;
+
+/**
+ * Vue colonnaire immuable d'un projet : un tableau primitif par champ numérique, les chapitres
+ * rangés parents avant enfants (index du parent dans chapterParents, -1 pour une racine) et les
+ * unités / groupes remplacés par un code de dictionnaire. Les agrégations sont de simples boucles
+ * sur ces tableaux, sans allocation.
+ */
+public final class ProjectSnapshot {
+
+    private final long version;
+
+    private final long[] chapterIds;
+    private final int[] chapterParents;
+
+    private final long[] lineIds;
+    private final int[] lineChapters;
+    private final double[] quantities;
+    private final double[] unitPrices;
+    private final double[] totalPrices;
+    private final int[] lineUnits;
+    private final int[] lineGroups;
+
+    private final int[] detailLines;
+    private final double[] detailTotals;
+
+    private final String[] units;
+    private final String[] groups;
+
+    private ProjectSnapshot(long version, long[] chapterIds, int[] chapterParents, long[] lineIds, int[] lineChapters,
+                            double[] quantities, double[] unitPrices, double[] totalPrices, int[] lineUnits,
+                            int[] lineGroups, int[] detailLines, double[] detailTotals, String[] units, String[] groups) {
+        this.version = version;
+        this.chapterIds = chapterIds;
+        this.chapterParents = chapterParents;
+        this.lineIds = lineIds;
+        this.lineChapters = lineChapters;
+        this.quantities = quantities;
+        this.unitPrices = unitPrices;
+        this.totalPrices = totalPrices;
+        this.lineUnits = lineUnits;
+        this.lineGroups = lineGroups;
+        this.detailLines = detailLines;
+        this.detailTotals = detailTotals;
+        this.units = units;
+        this.groups = groups;
+    }
+
+    public static ProjectSnapshot build(long version, List<Chapter> chapters, List<MainTableLine> lines,
+                                        List<DetailTableLine> details) {
+        List<Chapter> ordered = parentsFirst(chapters);
+        Map<Long, Integer> chapterIndex = new HashMap<>(ordered.size() * 2);
+        long[] chapterIds = new long[ordered.size()];
+        int[] chapterParents = new int[ordered.size()];
+        for (int i = 0; i < ordered.size(); i++) {
+            chapterIds[i] = ordered.get(i).getId();
+            chapterIndex.put(chapterIds[i], i);
+        }
+        for (int i = 0; i < ordered.size(); i++) {
+            Long parentId = ordered.get(i).getParentId();
+            int parent = parentId == null ? -1 : chapterIndex.getOrDefault(parentId, -1);
+            // Un parent rangé après son enfant ne peut venir que d'un cycle : chapitre traité comme racine
+            chapterParents[i] = parent < i ? parent : -1;
+        }
+
+        Map<String, Integer> unitCodes = new LinkedHashMap<>();
+        Map<String, Integer> groupCodes = new LinkedHashMap<>();
+        Map<Long, Integer> lineIndex = new HashMap<>(lines.size() * 2);
+        int lineCount = lines.size();
+        long[] lineIds = new long[lineCount];
+        int[] lineChapters = new int[lineCount];
+        double[] quantities = new double[lineCount];
+        double[] unitPrices = new double[lineCount];
+        double[] totalPrices = new double[lineCount];
+        int[] lineUnits = new int[lineCount];
+        int[] lineGroups = new int[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            MainTableLine line = lines.get(i);
+            lineIds[i] = line.getId();
+            lineIndex.put(line.getId(), i);
+            lineChapters[i] = chapterIndex.getOrDefault(line.getChapterId(), -1);
+            quantities[i] = valueOf(line.getQuantity());
+            unitPrices[i] = valueOf(line.getUnitPrice());
+            totalPrices[i] = valueOf(line.getTotalPrice());
+            lineUnits[i] = unitCodes.computeIfAbsent(keyOf(line.getUnit()), key -> unitCodes.size());
+            lineGroups[i] = groupCodes.computeIfAbsent(keyOf(line.getGr()), key -> groupCodes.size());
+        }
+
+        int[] detailLines = new int[details.size()];
+        double[] detailTotals = new double[details.size()];
+        for (int i = 0; i < details.size(); i++) {
+            detailLines[i] = lineIndex.getOrDefault(details.get(i).getMainTableLineId(), -1);
+            detailTotals[i] = valueOf(details.get(i).getTotal());
+        }
+
+        return new ProjectSnapshot(version, chapterIds, chapterParents, lineIds, lineChapters, quantities, unitPrices,
+                totalPrices, lineUnits, lineGroups, detailLines, detailTotals,
+                unitCodes.keySet().toArray(new String[0]), groupCodes.keySet().toArray(new String[0]));
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int chapterCount() {
+        return chapterIds.length;
+    }
+
+    public int lineCount() {
+        return lineIds.length;
+    }
+
+    public int detailCount() {
+        return detailTotals.length;
+    }
+
+    public long chapterId(int index) {
+        return chapterIds[index];
+    }
+
+    // Chaîne vide pour une ligne sans unité
+    public String unit(int code) {
+        return units[code];
+    }
+
+    public int unitCount() {
+        return units.length;
+    }
+
+    public String group(int code) {
+        return groups[code];
+    }
+
+    public int groupCount() {
+        return groups.length;
+    }
+
+    public double totalPrice() {
+        double sum = 0;
+        for (double price : totalPrices) {
+            sum += price;
+        }
+        return sum;
+    }
+
+    // Montant recalculé quantité x prix unitaire, pour contrôler les total_price saisis
+    public double computedTotalPrice() {
+        double sum = 0;
+        for (int i = 0; i < quantities.length; i++) {
+            sum += quantities[i] * unitPrices[i];
+        }
+        return sum;
+    }
+
+    public void quantitiesByUnit(double[] out) {
+        Arrays.fill(out, 0, units.length, 0);
+        for (int i = 0; i < quantities.length; i++) {
+            out[lineUnits[i]] += quantities[i];
+        }
+    }
+
+    public void totalPricesByUnit(double[] out) {
+        Arrays.fill(out, 0, units.length, 0);
+        for (int i = 0; i < totalPrices.length; i++) {
+            out[lineUnits[i]] += totalPrices[i];
+        }
+    }
+
+    public void totalPricesByGroup(double[] out) {
+        Arrays.fill(out, 0, groups.length, 0);
+        for (int i = 0; i < totalPrices.length; i++) {
+            out[lineGroups[i]] += totalPrices[i];
+        }
+    }
+
+    // Totaux par chapitre sous-chapitres compris : les enfants étant rangés après leurs parents,
+    // un parcours à rebours remonte chaque total vers son parent en une passe.
+    public void chapterTotals(double[] out) {
+        Arrays.fill(out, 0, chapterIds.length, 0);
+        for (int i = 0; i < totalPrices.length; i++) {
+            int chapter = lineChapters[i];
+            if (chapter >= 0) {
+                out[chapter] += totalPrices[i];
+            }
+        }
+        for (int i = chapterIds.length - 1; i >= 0; i--) {
+            int parent = chapterParents[i];
+            if (parent >= 0) {
+                out[parent] += out[i];
+            }
+        }
+    }
+
+    public double detailTotal() {
+        double sum = 0;
+        for (double total : detailTotals) {
+            sum += total;
+        }
+        return sum;
+    }
+
+    // Somme des métrés de chaque ligne, à comparer à sa quantité
+    public void detailTotalsByLine(double[] out) {
+        Arrays.fill(out, 0, lineIds.length, 0);
+        for (int i = 0; i < detailLines.length; i++) {
+            int line = detailLines[i];
+            if (line >= 0) {
+                out[line] += detailTotals[i];
+            }
+        }
+    }
+
+    private static List<Chapter> parentsFirst(List<Chapter> chapters) {
+        Map<Long, List<Chapter>> children = new HashMap<>();
+        Set<Long> ids = new HashSet<>();
+        for (Chapter chapter : chapters) {
+            ids.add(chapter.getId());
+        }
+        List<Chapter> ordered = new ArrayList<>(chapters.size());
+        for (Chapter chapter : chapters) {
+            if (chapter.getParentId() == null || !ids.contains(chapter.getParentId())) {
+                ordered.add(chapter);
+            } else {
+                children.computeIfAbsent(chapter.getParentId(), id -> new ArrayList<>()).add(chapter);
+            }
+        }
+        for (int i = 0; i < ordered.size(); i++) {
+            List<Chapter> next = children.remove(ordered.get(i).getId());
+            if (next != null) {
+                ordered.addAll(next);
+            }
+        }
+        // Chapitres pris dans un cycle de parentId : ajoutés à la fin, sans rattachement
+        children.values().forEach(ordered::addAll);
+        return ordered;
+    }
+
+    private static double valueOf(Double value) {
+        return value == null ? 0 : value;
+    }
+
+    private static String keyOf(String value) {
+        return value == null ? "" : value;
+    }
+}
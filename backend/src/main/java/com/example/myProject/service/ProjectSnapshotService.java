@@ -0,0 +1,197 @@
+package com.example.myProject.service;
+
+import com.example.myProject.config.ReplicaRoutingDataSource;
+import com.example.myProject.dto.ChapterWithLinesDTO;
+import com.example.myProject.dto.MainTableLineWithDetailsDTO;
+import com.example.myProject.dto.ProjectFullDTO;
+import com.example.myProject.dto.ProjectTotalsDTO;
+import com.example.myProject.event.ProjectChangedEvent;
+import com.example.myProject.model.Chapter;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import com.example.myProject.repository.ChapterRepository;
+import com.example.myProject.repository.DetailTableLineRepository;
+import com.example.myProject.repository.MainTableLineRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Un instantané colonnaire par projet, reconstruit seulement quand le projet a changé. Le cache est
+ * borné en nombre de lignes (chapitres, lignes et détails, au moins une par projet) : au-delà de
+ * max-rows, les projets lus le moins récemment sont oubliés. Chaque instantané porte la révision du
+ * projet (project.revision) qu'il reflète ; la révision est relue sur le primaire à chaque lecture et
+ * l'instantané rechargé, sur le primaire aussi, dès qu'elle a bougé, y compris par un autre nœud.
+ * Une écriture locale retire en plus l'entrée tout de suite.
+ */
+@Service
+public class ProjectSnapshotService {
+
+    private final ChapterRepository chapterRepository;
+    private final MainTableLineRepository mainTableLineRepository;
+    private final DetailTableLineRepository detailTableLineRepository;
+    private final ProjectArchiveService archiveService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final long maxRows;
+    // Ordre d'accès (LRU), gardé par le moniteur de la table
+    private final LinkedHashMap<Long, Cached> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedRows;
+    private long loads;
+
+    public ProjectSnapshotService(
+            ChapterRepository chapterRepository,
+            MainTableLineRepository mainTableLineRepository,
+            DetailTableLineRepository detailTableLineRepository,
+            ProjectArchiveService archiveService,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${myproject.snapshot.max-rows:1000000}") long maxRows
+    ) {
+        this.chapterRepository = chapterRepository;
+        this.mainTableLineRepository = mainTableLineRepository;
+        this.detailTableLineRepository = detailTableLineRepository;
+        this.archiveService = archiveService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxRows = maxRows;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        synchronized (cache) {
+            remove(event.projectId());
+        }
+    }
+
+    // Révision et contenu lus dans la même transaction sur le primaire : l'instantané correspond exactement
+    // à la révision qu'il porte, et un réplica en retard ne peut pas remettre en cache un état dépassé
+    public ProjectSnapshot getSnapshot(Long projectId) {
+        return ReplicaRoutingDataSource.onPrimary(() -> readOnlyTransaction.execute(status -> {
+            long revision = revision(projectId);
+            long version;
+            synchronized (cache) {
+                Cached entry = cache.get(projectId);
+                if (entry != null && entry.revision == revision) {
+                    return entry.snapshot;
+                }
+                version = ++loads;
+            }
+            ProjectSnapshot snapshot = load(projectId, version);
+            synchronized (cache) {
+                // Un chargement concurrent plus récent l'emporte
+                Cached current = cache.get(projectId);
+                if (current == null || current.revision < revision) {
+                    remove(projectId);
+                    cache.put(projectId, new Cached(snapshot, revision));
+                    cachedRows += rows(snapshot);
+                    evict();
+                }
+            }
+            return snapshot;
+        }));
+    }
+
+    public long cachedRows() {
+        synchronized (cache) {
+            return cachedRows;
+        }
+    }
+
+    public ProjectTotalsDTO getTotals(Long projectId) {
+        ProjectSnapshot snapshot = getSnapshot(projectId);
+
+        double[] unitQuantities = new double[snapshot.unitCount()];
+        double[] unitPrices = new double[snapshot.unitCount()];
+        snapshot.quantitiesByUnit(unitQuantities);
+        snapshot.totalPricesByUnit(unitPrices);
+        List<ProjectTotalsDTO.UnitTotal> units = new ArrayList<>(snapshot.unitCount());
+        for (int i = 0; i < snapshot.unitCount(); i++) {
+            units.add(new ProjectTotalsDTO.UnitTotal(snapshot.unit(i), unitQuantities[i], unitPrices[i]));
+        }
+
+        double[] chapterTotals = new double[snapshot.chapterCount()];
+        snapshot.chapterTotals(chapterTotals);
+        List<ProjectTotalsDTO.ChapterTotal> chapters = new ArrayList<>(snapshot.chapterCount());
+        for (int i = 0; i < snapshot.chapterCount(); i++) {
+            chapters.add(new ProjectTotalsDTO.ChapterTotal(snapshot.chapterId(i), chapterTotals[i]));
+        }
+
+        ProjectTotalsDTO totals = new ProjectTotalsDTO();
+        totals.setProjectId(projectId);
+        totals.setLineCount(snapshot.lineCount());
+        totals.setTotalPrice(snapshot.totalPrice());
+        totals.setComputedTotalPrice(snapshot.computedTotalPrice());
+        totals.setUnits(units);
+        totals.setChapters(chapters);
+        return totals;
+    }
+
+    // Appelés sous le moniteur de la table
+    private void remove(Long projectId) {
+        Cached removed = cache.remove(projectId);
+        if (removed != null) {
+            cachedRows -= rows(removed.snapshot);
+        }
+    }
+
+    // Les plus anciennement lus d'abord ; le dernier chargé reste même s'il dépasse à lui seul max-rows
+    private void evict() {
+        Iterator<Cached> eldest = cache.values().iterator();
+        while (cachedRows > maxRows && cache.size() > 1 && eldest.hasNext()) {
+            Cached entry = eldest.next();
+            cachedRows -= rows(entry.snapshot);
+            eldest.remove();
+        }
+    }
+
+    // Un projet vide compte pour une ligne : sinon ses entrées ne seraient jamais évincées
+    private static long rows(ProjectSnapshot snapshot) {
+        return Math.max(1, (long) snapshot.chapterCount() + snapshot.lineCount() + snapshot.detailCount());
+    }
+
+    private long revision(Long projectId) {
+        List<Long> revision = jdbcTemplate.queryForList("SELECT revision FROM project WHERE id = ?", Long.class, projectId);
+        if (revision.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Projet introuvable");
+        }
+        return revision.get(0);
+    }
+
+    private ProjectSnapshot load(Long projectId, long version) {
+        Optional<ProjectFullDTO> archived = archiveService.findArchivedContent(projectId);
+        if (archived.isPresent()) {
+            List<Chapter> chapters = new ArrayList<>();
+            List<MainTableLine> lines = new ArrayList<>();
+            List<DetailTableLine> details = new ArrayList<>();
+            for (ChapterWithLinesDTO chapterDTO : archived.get().getChapters()) {
+                chapters.add(chapterDTO.getChapter());
+                for (MainTableLineWithDetailsDTO lineDTO : chapterDTO.getLines()) {
+                    lines.add(lineDTO.getMainTableLine());
+                    details.addAll(lineDTO.getDetails());
+                }
+            }
+            return ProjectSnapshot.build(version, chapters, lines, details);
+        }
+        List<Chapter> chapters = chapterRepository.findByProjectId(projectId);
+        List<MainTableLine> lines = mainTableLineRepository.findByProjectIdOrderByPositionAscIdAsc(projectId);
+        List<DetailTableLine> details = detailTableLineRepository.findByProjectIdOrderByPositionAscIdAsc(projectId);
+        return ProjectSnapshot.build(version, chapters, lines, details);
+    }
+
+    private record Cached(ProjectSnapshot snapshot, long revision) {
+    }
+}
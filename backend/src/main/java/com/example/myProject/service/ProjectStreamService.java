@@ -0,0 +1,196 @@
+package com.example.myProject.service;
+
+import com.example.myProject.config.ReplicaRoutingDataSource;
+import com.example.myProject.dto.ChapterWithLinesDTO;
+import com.example.myProject.dto.MainTableLineWithDetailsDTO;
+import com.example.myProject.dto.ProjectFullDTO;
+import com.example.myProject.model.Chapter;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import com.example.myProject.model.Project;
+import com.example.myProject.repository.ProjectRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Écrit le projet complet en NDJSON, un enregistrement {"type":...,"data":...} par ligne : le projet,
+ * puis ses chapitres, ses lignes et ses détails, et enfin {"type":"end","data":{"revision":...}}.
+ * Les lignes sont lues par pages de chunk-size (clé position, id), chacune dans une courte transaction :
+ * la connexion JDBC est rendue avant d'écrire la page, un client lent ne bloque que le thread du flux.
+ * Chaque page relit project.revision ; si le projet a changé depuis la première, le flux s'arrête sur
+ * {"type":"changed","data":{"revision":...}} et le client le relance : tout flux terminé par "end" est
+ * un état cohérent du projet.
+ */
+@Service
+public class ProjectStreamService {
+
+    // Page suivante après (position, id) ; lastNull vaut 1 quand la dernière position lue était NULL
+    // (triées en tête par MySQL comme par H2)
+    private static final String AFTER = """
+             AND ((? = 1 AND (position IS NOT NULL OR id > ?)) OR position > ? OR (position = ? AND id > ?))
+            ORDER BY position, id LIMIT ?
+            """;
+
+    private static final String CHAPTERS_SQL = """
+            SELECT id, project_id, parent_id, num, label, content, position
+            FROM chapter WHERE project_id = ?""" + AFTER;
+
+    private static final String LINES_SQL = """
+            SELECT id, chapter_id, project_id, gr, num, code, title, nm, unit, quantity, up AS unit_price,
+                   total_price, comments, position
+            FROM main_table_line WHERE project_id = ?""" + AFTER;
+
+    private static final String DETAILS_SQL = """
+            SELECT id, main_table_line_id, project_id, title, number, length, width, height, factor, total,
+                   comments, position
+            FROM detail_table_line WHERE project_id = ?""" + AFTER;
+
+    private final ProjectRepository projectRepository;
+    private final ProjectArchiveService archiveService;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int chunkSize;
+
+    public ProjectStreamService(
+            ProjectRepository projectRepository,
+            ProjectArchiveService archiveService,
+            ObjectMapper objectMapper,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${myproject.stream.chunk-size:1000}") int chunkSize
+    ) {
+        this.projectRepository = projectRepository;
+        this.archiveService = archiveService;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.chunkSize = chunkSize;
+    }
+
+    // Sur le thread de la requête, avant de passer en asynchrone : la connexion est rendue dès la requête
+    // faite, quel que soit spring.jpa.open-in-view ; le pool de flux ne tient ensuite une connexion que
+    // le temps de lire une page
+    public boolean exists(Long projectId) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM project WHERE id = ?", Integer.class, projectId);
+        return count != null && count > 0;
+    }
+
+    // Appelé sur le pool de flux, hors du thread de la requête : routing est celui que l'intercepteur de
+    // lecture sur le primaire a posé sur le thread de la requête (primaire forcé ou réplica vérifié)
+    public void write(Long projectId, OutputStream out, ReplicaRoutingDataSource.Routing routing) throws IOException {
+        ReplicaRoutingDataSource.restore(routing);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Jackson sépare par défaut les valeurs racines d'une espace : la fin de ligne suffit
+            generator.setRootValueSeparator(null);
+            Optional<ProjectFullDTO> archived = archiveService.findArchivedContent(projectId);
+            if (archived.isPresent()) {
+                writeArchived(generator, archived.get());
+                record(generator, "end", Map.of("revision", currentRevision(projectId)));
+            } else {
+                writeLive(generator, projectId);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            ReplicaRoutingDataSource.clearForcePrimary();
+        }
+    }
+
+    private void writeLive(JsonGenerator generator, Long projectId) {
+        Project project = readOnlyTransaction.execute(status -> projectRepository.findById(projectId).orElseThrow());
+        record(generator, "project", project);
+        long revision = project.getRevision();
+        boolean complete = stream(generator, "chapter", CHAPTERS_SQL, Chapter.class, Chapter::getId, Chapter::getPosition, projectId, revision)
+                && stream(generator, "line", LINES_SQL, MainTableLine.class, MainTableLine::getId, MainTableLine::getPosition, projectId, revision)
+                && stream(generator, "detail", DETAILS_SQL, DetailTableLine.class, DetailTableLine::getId, DetailTableLine::getPosition, projectId, revision);
+        if (complete) {
+            record(generator, "end", Map.of("revision", revision));
+        }
+    }
+
+    // Faux si le projet a changé pendant le flux : l'enregistrement "changed" est alors déjà écrit
+    private <T> boolean stream(JsonGenerator generator, String type, String sql, Class<T> rowType,
+                               Function<T, Long> id, Function<T, Integer> position, Long projectId, long revision) {
+        BeanPropertyRowMapper<T> mapper = BeanPropertyRowMapper.newInstance(rowType);
+        Integer lastPosition = null;
+        long lastId = 0;
+        while (true) {
+            Integer afterPosition = lastPosition;
+            long afterId = lastId;
+            // Révision et page lues dans la même transaction : la page appartient bien à cette révision
+            Page<T> page = readOnlyTransaction.execute(status -> new Page<>(currentRevision(projectId),
+                    jdbcTemplate.query(sql, mapper, projectId, afterPosition == null ? 1 : 0, afterId,
+                            afterPosition, afterPosition, afterId, chunkSize)));
+            if (page.revision() != revision) {
+                record(generator, "changed", Map.of("revision", page.revision()));
+                return false;
+            }
+            for (T row : page.rows()) {
+                record(generator, type, row);
+            }
+            if (page.rows().size() < chunkSize) {
+                return true;
+            }
+            T last = page.rows().get(page.rows().size() - 1);
+            lastPosition = position.apply(last);
+            lastId = id.apply(last);
+        }
+    }
+
+    // Projet supprimé pendant le flux : -1, différent de toute révision
+    private long currentRevision(Long projectId) {
+        List<Long> revision = jdbcTemplate.queryForList("SELECT revision FROM project WHERE id = ?", Long.class, projectId);
+        return revision.isEmpty() ? -1 : revision.get(0);
+    }
+
+    private void writeArchived(JsonGenerator generator, ProjectFullDTO full) {
+        record(generator, "project", full.getProject());
+        for (ChapterWithLinesDTO chapter : full.getChapters()) {
+            record(generator, "chapter", chapter.getChapter());
+        }
+        for (ChapterWithLinesDTO chapter : full.getChapters()) {
+            for (MainTableLineWithDetailsDTO line : chapter.getLines()) {
+                record(generator, "line", line.getMainTableLine());
+            }
+        }
+        for (ChapterWithLinesDTO chapter : full.getChapters()) {
+            for (MainTableLineWithDetailsDTO line : chapter.getLines()) {
+                for (DetailTableLine detail : line.getDetails()) {
+                    record(generator, "detail", detail);
+                }
+            }
+        }
+    }
+
+    private record Page<T>(long revision, List<T> rows) {
+    }
+
+    private static void record(JsonGenerator generator, String type, Object data) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("type", type);
+            generator.writeObjectField("data", data);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
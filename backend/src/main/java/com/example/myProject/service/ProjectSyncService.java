@@ -0,0 +1,332 @@
+package com.example.myProject.service;
+
+import com.example.myProject.dto.ChapterWithLinesDTO;
+import com.example.myProject.dto.MainTableLineWithDetailsDTO;
+import com.example.myProject.dto.ProjectFullDTO;
+import com.example.myProject.event.ProjectChangedEvent.ChangeType;
+import com.example.myProject.model.Chapter;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import com.example.myProject.model.Project;
+import com.example.myProject.repository.ChapterRepository;
+import com.example.myProject.repository.DetailTableLineRepository;
+import com.example.myProject.repository.MainTableLineRepository;
+import com.example.myProject.repository.ProjectRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+@Service
+public class ProjectSyncService {
+
+    private static final String INSERT_MAIN_LINE = "INSERT INTO main_table_line "
+            + "(chapter_id, project_id, gr, num, code, title, nm, unit, quantity, up, total_price, comments, position) "
+            + "VALUES (:chapterId, :projectId, :gr, :num, :code, :title, :nm, :unit, :quantity, :unitPrice, :totalPrice, :comments, :position)";
+    // Une ligne peut changer de chapitre dans la synchronisation
+    private static final String UPDATE_MAIN_LINE = "UPDATE main_table_line SET chapter_id = :chapterId, gr = :gr, num = :num, "
+            + "code = :code, title = :title, nm = :nm, unit = :unit, quantity = :quantity, up = :unitPrice, "
+            + "total_price = :totalPrice, comments = :comments, position = :position WHERE id = :id AND project_id = :projectId";
+    private static final String INSERT_DETAIL = "INSERT INTO detail_table_line "
+            + "(main_table_line_id, project_id, title, number, length, width, height, factor, total, comments, position) "
+            + "VALUES (:mainTableLineId, :projectId, :title, :number, :length, :width, :height, :factor, :total, :comments, :position)";
+    private static final String UPDATE_DETAIL = "UPDATE detail_table_line SET main_table_line_id = :mainTableLineId, "
+            + "title = :title, number = :number, length = :length, width = :width, height = :height, factor = :factor, "
+            + "total = :total, comments = :comments, position = :position WHERE id = :id AND project_id = :projectId";
+
+    private final ProjectRepository projectRepository;
+    private final ChapterRepository chapterRepository;
+    private final MainTableLineRepository mainTableLineRepository;
+    private final DetailTableLineRepository detailTableLineRepository;
+    private final ProjectChangePublisher changePublisher;
+    private final ProjectHistoryService historyService;
+    private final ProjectArchiveService archiveService;
+    private final ChapterNumberingService numberingService;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public ProjectSyncService(
+            ProjectRepository projectRepository,
+            ChapterRepository chapterRepository,
+            MainTableLineRepository mainTableLineRepository,
+            DetailTableLineRepository detailTableLineRepository,
+            ProjectChangePublisher changePublisher,
+            ProjectHistoryService historyService,
+            ProjectArchiveService archiveService,
+            ChapterNumberingService numberingService,
+            NamedParameterJdbcTemplate jdbcTemplate,
+            EntityManager entityManager
+    ) {
+        this.projectRepository = projectRepository;
+        this.chapterRepository = chapterRepository;
+        this.mainTableLineRepository = mainTableLineRepository;
+        this.detailTableLineRepository = detailTableLineRepository;
+        this.changePublisher = changePublisher;
+        this.historyService = historyService;
+        this.archiveService = archiveService;
+        this.numberingService = numberingService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Transactional
+    public void sync(Long id, ProjectFullDTO fullDTO) {
+        // Avant le chargement du projet : la réintégration remet archived_at à NULL
+        archiveService.ensureActive(id);
+        Project project = projectRepository.findById(id).orElseThrow();
+        historyService.recordBaseline(id);
+        project.setName(fullDTO.getProject().getName());
+        project.setUserId(fullDTO.getProject().getUserId());
+        project.setCompanyId(fullDTO.getProject().getCompanyId());
+        projectRepository.save(project);
+
+        Map<String, Long> tempIdToRealId = new HashMap<>();
+        List<Long> sentChapterIds = new ArrayList<>();
+        Map<Long, StoredPosition> storedChapterPositions = new HashMap<>();
+        chapterRepository.findByProjectId(id)
+                .forEach(c -> storedChapterPositions.put(c.getId(), new StoredPosition(c.getParentId(), c.getPosition())));
+
+        // 1. Enregistrement initial des chapitres sans parentId
+        for (ChapterWithLinesDTO chapterDTO : fullDTO.getChapters()) {
+            Chapter chapter = chapterDTO.getChapter();
+            chapter.setProjectId(id);
+
+            String tempId = chapter.getTempId();
+            Chapter saved = chapterRepository.save(chapter);
+
+            if (tempId != null) {
+                tempIdToRealId.put(tempId, saved.getId());
+            }
+
+            chapter.setId(saved.getId());
+            chapterDTO.setChapter(saved);
+            sentChapterIds.add(saved.getId());
+        }
+
+        // 2. Mise à jour des parentId après insertion
+        for (ChapterWithLinesDTO chapterDTO : fullDTO.getChapters()) {
+            Chapter chapter = chapterDTO.getChapter();
+            String parentTempId = chapter.getParentTempId();
+
+            Chapter updated = chapterRepository.findById(chapter.getId()).orElseThrow();
+
+            if (parentTempId != null && tempIdToRealId.containsKey(parentTempId)) {
+                // ✅ Parent temporaire → on convertit
+                updated.setParentId(tempIdToRealId.get(parentTempId));
+                System.out.println("✅ parentId mis à jour via parentTempId : " + updated.getParentId());
+            } else {
+                // ✅ Aucun parentTempId → on conserve le parentId réel s’il existe
+                updated.setParentId(chapter.getParentId());
+                System.out.println("✅ parentId conservé depuis payload : " + updated.getParentId());
+            }
+
+            chapterDTO.setChapter(updated); // important pour suite du traitement
+        }
+
+        // 2 bis. Rang des chapitres dans l'ordre reçu, frère par frère (positions conservées quand c'est possible)
+        Map<Long, List<Chapter>> chaptersByParent = new LinkedHashMap<>();
+        for (ChapterWithLinesDTO chapterDTO : fullDTO.getChapters()) {
+            chaptersByParent.computeIfAbsent(chapterDTO.getChapter().getParentId(), parentId -> new ArrayList<>())
+                    .add(chapterDTO.getChapter());
+        }
+        chaptersByParent.forEach((parentId, siblings) -> {
+            int[] positions = GapPositions.assign(siblings.stream()
+                    .map(chapter -> storedChapterPosition(storedChapterPositions, chapter.getId(), parentId))
+                    .toArray(Integer[]::new));
+            for (int i = 0; i < siblings.size(); i++) {
+                siblings.get(i).setPosition(positions[i]);
+                chapterRepository.save(siblings.get(i));
+            }
+        });
+
+
+        // 3. Traitement des lignes principales et détails, en batchs JDBC : Hibernate ne regroupe pas les INSERT
+        // d'entités en IDENTITY, un save par ligne faisait un aller-retour par ligne. Les écritures JPA en attente
+        // (chapitres) partent d'abord ; le contexte est vidé ensuite pour que les lectures suivantes voient les lignes
+        entityManager.flush();
+        // L'ordre fait foi ; seules les lignes insérées ou déplacées reçoivent une nouvelle position
+        Map<Long, StoredPosition> storedLinePositions = new HashMap<>();
+        jdbcTemplate.query("SELECT id, chapter_id, position FROM main_table_line WHERE project_id = :projectId",
+                new MapSqlParameterSource("projectId", id), rs -> {
+                    storedLinePositions.put(rs.getLong(1), new StoredPosition(rs.getLong(2), rs.getObject(3, Integer.class)));
+                });
+        Map<Long, StoredPosition> storedDetailPositions = new HashMap<>();
+        jdbcTemplate.query("SELECT id, main_table_line_id, position FROM detail_table_line WHERE project_id = :projectId",
+                new MapSqlParameterSource("projectId", id), rs -> {
+                    storedDetailPositions.put(rs.getLong(1), new StoredPosition(rs.getLong(2), rs.getObject(3, Integer.class)));
+                });
+
+        // Une ligne dont l'id n'est pas dans le projet (supprimée, ou d'un autre projet) est insérée comme nouvelle
+        List<MainTableLine> insertedLines = new ArrayList<>();
+        List<MainTableLine> updatedLines = new ArrayList<>();
+        Set<Long> sentChapterIdsWithLines = new HashSet<>();
+        for (ChapterWithLinesDTO chapterDTO : fullDTO.getChapters()) {
+            Chapter chapter = chapterDTO.getChapter();
+            sentChapterIdsWithLines.add(chapter.getId());
+            int[] linePositions = GapPositions.assign(chapterDTO.getLines().stream()
+                    .map(lineDTO -> storedPosition(storedLinePositions, lineDTO.getMainTableLine().getId(), chapter.getId()))
+                    .toArray(Integer[]::new));
+            int lineIndex = 0;
+            for (MainTableLineWithDetailsDTO lineDTO : chapterDTO.getLines()) {
+                MainTableLine line = lineDTO.getMainTableLine();
+                line.setChapterId(chapter.getId());
+                line.setProjectId(id);
+                line.setPosition(linePositions[lineIndex++]);
+                if (line.getId() != null && storedLinePositions.containsKey(line.getId())) {
+                    updatedLines.add(line);
+                } else {
+                    line.setId(null);
+                    insertedLines.add(line);
+                }
+            }
+        }
+        List<Long> lineIds = LineBatchService.insert(jdbcTemplate, INSERT_MAIN_LINE,
+                insertedLines.stream().map(ProjectSyncService::lineParams).toArray(SqlParameterSource[]::new));
+        for (int i = 0; i < insertedLines.size(); i++) {
+            insertedLines.get(i).setId(lineIds.get(i));
+        }
+        jdbcTemplate.batchUpdate(UPDATE_MAIN_LINE, updatedLines.stream().map(ProjectSyncService::lineParams).toArray(SqlParameterSource[]::new));
+
+        List<DetailTableLine> insertedDetails = new ArrayList<>();
+        List<DetailTableLine> updatedDetails = new ArrayList<>();
+        Set<Long> sentLineIds = new HashSet<>();
+        for (ChapterWithLinesDTO chapterDTO : fullDTO.getChapters()) {
+            for (MainTableLineWithDetailsDTO lineDTO : chapterDTO.getLines()) {
+                Long lineId = lineDTO.getMainTableLine().getId();
+                sentLineIds.add(lineId);
+                int[] detailPositions = GapPositions.assign(lineDTO.getDetails().stream()
+                        .map(detail -> storedPosition(storedDetailPositions, detail.getId(), lineId))
+                        .toArray(Integer[]::new));
+                int detailIndex = 0;
+                for (DetailTableLine detail : lineDTO.getDetails()) {
+                    detail.setMainTableLineId(lineId);
+                    detail.setProjectId(id);
+                    detail.setPosition(detailPositions[detailIndex++]);
+                    if (detail.getId() != null && storedDetailPositions.containsKey(detail.getId())) {
+                        updatedDetails.add(detail);
+                    } else {
+                        detail.setId(null);
+                        insertedDetails.add(detail);
+                    }
+                }
+            }
+        }
+        List<Long> detailIds = LineBatchService.insert(jdbcTemplate, INSERT_DETAIL,
+                insertedDetails.stream().map(ProjectSyncService::detailParams).toArray(SqlParameterSource[]::new));
+        for (int i = 0; i < insertedDetails.size(); i++) {
+            insertedDetails.get(i).setId(detailIds.get(i));
+        }
+        jdbcTemplate.batchUpdate(UPDATE_DETAIL, updatedDetails.stream().map(ProjectSyncService::detailParams).toArray(SqlParameterSource[]::new));
+
+        // Supprimer les détails retirés des lignes envoyées, puis les lignes retirées des chapitres envoyés
+        // (avec leurs détails) ; les chapitres absents sont traités à l'étape 4
+        Set<Long> sentDetailIds = new HashSet<>();
+        updatedDetails.forEach(detail -> sentDetailIds.add(detail.getId()));
+        List<Long> removedDetailIds = new ArrayList<>();
+        storedDetailPositions.forEach((detailId, stored) -> {
+            if (!sentDetailIds.contains(detailId) && sentLineIds.contains(stored.parentId())) {
+                removedDetailIds.add(detailId);
+            }
+        });
+        List<Long> removedLineIds = new ArrayList<>();
+        storedLinePositions.forEach((lineId, stored) -> {
+            if (!sentLineIds.contains(lineId) && sentChapterIdsWithLines.contains(stored.parentId())) {
+                removedLineIds.add(lineId);
+            }
+        });
+        if (!removedDetailIds.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM detail_table_line WHERE id IN (:ids)", new MapSqlParameterSource("ids", removedDetailIds));
+        }
+        if (!removedLineIds.isEmpty()) {
+            MapSqlParameterSource ids = new MapSqlParameterSource("ids", removedLineIds);
+            jdbcTemplate.update("DELETE FROM detail_table_line WHERE main_table_line_id IN (:ids)", ids);
+            jdbcTemplate.update("DELETE FROM main_table_line WHERE id IN (:ids)", ids);
+        }
+        entityManager.clear();
+
+        // 4. Suppression récursive des chapitres supprimés
+        List<Chapter> existingChapters = chapterRepository.findByProjectId(id);
+        Set<Long> sentChapterIdSet = new HashSet<>(sentChapterIds);
+
+        for (Chapter existing : existingChapters) {
+            if (!sentChapterIdSet.contains(existing.getId())) {
+                deleteChapterRecursively(existing.getId());
+            }
+        }
+
+        // Les numéros envoyés par le client sont remplacés par ceux déduits de l'arbre
+        numberingService.renumber(id);
+        historyService.recordSync(id);
+        changePublisher.projectChanged(id, ChangeType.SYNCED);
+        System.out.println("✅ Projet synchronisé avec succès.");
+    }
+
+    private static Integer storedPosition(Map<Long, StoredPosition> stored, Long id, Long parentId) {
+        StoredPosition position = id != null ? stored.get(id) : null;
+        return position != null && position.parentId().equals(parentId) ? position.position() : null;
+    }
+
+    // Les racines ont un parent null, à la différence des lignes
+    private static Integer storedChapterPosition(Map<Long, StoredPosition> stored, Long id, Long parentId) {
+        StoredPosition position = id != null ? stored.get(id) : null;
+        return position != null && Objects.equals(position.parentId(), parentId) ? position.position() : null;
+    }
+
+    private record StoredPosition(Long parentId, Integer position) {
+    }
+
+    private static SqlParameterSource lineParams(MainTableLine line) {
+        return new MapSqlParameterSource("id", line.getId())
+                .addValue("chapterId", line.getChapterId())
+                .addValue("projectId", line.getProjectId())
+                .addValue("gr", line.getGr())
+                .addValue("num", line.getNum())
+                .addValue("code", line.getCode())
+                .addValue("title", line.getTitle())
+                .addValue("nm", line.getNm())
+                .addValue("unit", line.getUnit())
+                .addValue("quantity", line.getQuantity())
+                .addValue("unitPrice", line.getUnitPrice())
+                .addValue("totalPrice", line.getTotalPrice())
+                .addValue("comments", line.getComments())
+                .addValue("position", line.getPosition());
+    }
+
+    private static SqlParameterSource detailParams(DetailTableLine detail) {
+        return new MapSqlParameterSource("id", detail.getId())
+                .addValue("mainTableLineId", detail.getMainTableLineId())
+                .addValue("projectId", detail.getProjectId())
+                .addValue("title", detail.getTitle())
+                .addValue("number", detail.getNumber())
+                .addValue("length", detail.getLength())
+                .addValue("width", detail.getWidth())
+                .addValue("height", detail.getHeight())
+                .addValue("factor", detail.getFactor())
+                .addValue("total", detail.getTotal())
+                .addValue("comments", detail.getComments())
+                .addValue("position", detail.getPosition());
+    }
+
+    private void deleteChapterRecursively(Long chapterId) {
+        List<Chapter> children = chapterRepository.findByParentId(chapterId);
+
+        for (Chapter child : children) {
+            deleteChapterRecursively(child.getId());
+        }
+
+        // Supprime les lignes principales + détails
+        List<MainTableLine> lines = mainTableLineRepository.findByChapterId(chapterId);
+        for (MainTableLine line : lines) {
+            List<DetailTableLine> details = detailTableLineRepository.findByMainTableLineId(line.getId());
+            detailTableLineRepository.deleteAll(details);
+        }
+        mainTableLineRepository.deleteAll(lines);
+
+        // Supprime le chapitre lui-même
+        chapterRepository.deleteById(chapterId);
+    }
+}
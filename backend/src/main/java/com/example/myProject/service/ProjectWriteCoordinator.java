@@ -0,0 +1,218 @@
+package com.example.myProject.service;
+
+import com.example.myProject.config.TenantFilterInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Sérialise les écritures d'un même projet. Un verrou local (choisi parmi un tableau de verrous
+ * par hachage de l'id) protège les threads de l'instance ; quand plusieurs instances partagent la
+ * base, un verrou MySQL GET_LOCK par projet est pris en plus dans la transaction.
+ * Tous les verrous sont relâchés après la fin de la transaction (celle du coordinateur, ou celle
+ * qu'il a rejointe) : le suivant, sur cette instance ou une autre, lit l'état validé.
+ * Les écritures sur des projets différents ne se bloquent pas (hors collision de hachage).
+ * Quand la société de la requête est connue, un projet d'une autre société répond 404 : c'est le seul
+ * contrôle pour les écritures dont le projet est déduit du corps (création de ligne, lot, déplacement).
+ */
+@Service
+public class ProjectWriteCoordinator {
+
+    private final ReentrantLock[] stripes;
+    private final boolean distributed;
+    private final int distributedTimeoutSeconds;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer localWait;
+    private final Timer distributedWait;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public ProjectWriteCoordinator(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${myproject.write-lock.stripes:256}") int stripeCount,
+            @Value("${myproject.write-lock.distributed:false}") boolean distributed,
+            @Value("${myproject.write-lock.distributed-timeout-seconds:30}") int distributedTimeoutSeconds
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.distributed = distributed;
+        this.distributedTimeoutSeconds = distributedTimeoutSeconds;
+
+        // Puissance de deux pour indexer par masque
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+
+        this.localWait = Timer.builder("project.write.lock.wait")
+                .tag("scope", "local")
+                .description("Attente du verrou d'écriture local d'un projet")
+                .register(meterRegistry);
+        this.distributedWait = Timer.builder("project.write.lock.wait")
+                .tag("scope", "distributed")
+                .description("Attente du verrou GET_LOCK d'un projet")
+                .register(meterRegistry);
+        meterRegistry.gauge("project.write.lock.waiting", waiting);
+    }
+
+    public void run(Long projectId, Runnable work) {
+        execute(projectId, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T execute(Long projectId, Supplier<T> work) {
+        return locked(new Long[]{projectId}, work);
+    }
+
+    // Écriture touchant deux projets (déplacement de chapitre) : verrous pris dans un ordre global
+    // (indice de verrou, puis id) pour que deux déplacements croisés ne puissent pas s'interbloquer
+    public <T> T execute(Long firstProjectId, Long secondProjectId, Supplier<T> work) {
+        if (firstProjectId.equals(secondProjectId)) {
+            return execute(firstProjectId, work);
+        }
+        int first = stripeIndex(firstProjectId);
+        int second = stripeIndex(secondProjectId);
+        boolean inOrder = first != second ? first < second : firstProjectId < secondProjectId;
+        return inOrder
+                ? locked(new Long[]{firstProjectId, secondProjectId}, work)
+                : locked(new Long[]{secondProjectId, firstProjectId}, work);
+    }
+
+    /**
+     * Écriture d'une ligne ou d'un chapitre dont le projet n'est connu qu'en lisant la ligne : owner est
+     * lu une première fois pour choisir le verrou, puis relu sous le verrou. Si la ligne a changé de
+     * projet entre-temps (déplacement de chapitre), l'écriture est refusée (409) plutôt que faite
+     * sous le verrou d'un autre projet.
+     */
+    public <T> T executeOwned(Supplier<Long> owner, Function<Long, T> work) {
+        Long projectId = owner.get();
+        return execute(projectId, () -> {
+            if (!Objects.equals(projectId, owner.get())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "L'élément a changé de projet, réessayez");
+            }
+            return work.apply(projectId);
+        });
+    }
+
+    private <T> T locked(Long[] projectIds, Supplier<T> work) {
+        ReentrantLock[] locks = new ReentrantLock[projectIds.length];
+        for (int i = 0; i < projectIds.length; i++) {
+            locks[i] = stripeFor(projectIds[i]);
+            long start = System.nanoTime();
+            waiting.incrementAndGet();
+            locks[i].lock();
+            waiting.decrementAndGet();
+            localWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        boolean handedOver = false;
+        try {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                // Transaction englobante : ses écritures ne sont validées qu'à sa fin, les verrous non plus
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        unlock(locks);
+                    }
+                });
+                handedOver = true;
+            }
+            return transactionTemplate.execute(status -> {
+                if (distributed) {
+                    for (Long projectId : projectIds) {
+                        acquireDistributed(lockName(projectId));
+                    }
+                }
+                checkCompany(projectIds);
+                return work.get();
+            });
+        } finally {
+            if (!handedOver) {
+                unlock(locks);
+            }
+        }
+    }
+
+    private void checkCompany(Long[] projectIds) {
+        Long companyId = TenantFilterInterceptor.currentCompany();
+        if (companyId == null) {
+            return;
+        }
+        for (Long projectId : projectIds) {
+            List<Long> owner = jdbcTemplate.queryForList("SELECT company_id FROM project WHERE id = ?", Long.class, projectId);
+            if (!owner.isEmpty() && !companyId.equals(owner.get(0))) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+            }
+        }
+    }
+
+    private static void unlock(ReentrantLock[] locks) {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    private void acquireDistributed(String lockName) {
+        long start = System.nanoTime();
+        Integer acquired = jdbcTemplate.queryForObject(
+                "SELECT GET_LOCK(?, ?)", Integer.class, lockName, distributedTimeoutSeconds);
+        distributedWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (acquired == null || acquired != 1) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Le projet est en cours de modification, réessayez plus tard");
+        }
+        // GET_LOCK est attaché à la connexion, encore liée au thread après le commit : relâché une fois
+        // la transaction terminée, avant les verrous locaux, pour qu'aucune instance ne lise avant le commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    jdbcTemplate.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, lockName);
+                } catch (RuntimeException e) {
+                    // La connexion fermée libère aussi le verrou côté MySQL
+                    System.out.println("⚠️ RELEASE_LOCK " + lockName + " impossible : " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    private ReentrantLock stripeFor(Long projectId) {
+        return stripes[stripeIndex(projectId)];
+    }
+
+    private int stripeIndex(Long projectId) {
+        int hash = projectId.hashCode();
+        hash ^= (hash >>> 16);
+        return hash & (stripes.length - 1);
+    }
+
+    private static String lockName(Long projectId) {
+        return "myProject.project." + projectId;
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.myProject.service;
+
+import com.example.myProject.dto.ProjectReportDTO;
+import com.example.myProject.dto.UnitTotalDTO;
+import com.example.myProject.event.ProjectChangedEvent;
+import com.example.myProject.model.CompanySummary;
+import com.example.myProject.model.ProjectSummary;
+import com.example.myProject.repository.ChapterSummaryRepository;
+import com.example.myProject.repository.CompanySummaryRepository;
+import com.example.myProject.repository.ProjectSummaryRepository;
+import com.example.myProject.repository.UnitSummaryRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tables de synthèse (chapitre, projet, unité, société) recalculées projet par projet après chaque
+ * écriture : les rapports se lisent ensuite par simple accès indexé, sans charger les projets.
+ * Le recalcul se fait après commit, sur un fil dédié, hors de la transaction et du verrou de
+ * l'écriture : deux projets d'une même société n'attendent plus l'un l'autre sur sa ligne
+ * company_summary, et un échec du recalcul n'annule plus l'écriture. Les rapports peuvent donc
+ * avoir un léger retard sur les projets.
+ */
+@Service
+public class ReportingService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProjectSummaryRepository projectSummaryRepository;
+    private final ChapterSummaryRepository chapterSummaryRepository;
+    private final UnitSummaryRepository unitSummaryRepository;
+    private final CompanySummaryRepository companySummaryRepository;
+    // Un seul fil pour les écritures ; rebuildAll passe aussi par refreshProject, synchronisé
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "project-summary");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Projets en attente de recalcul : une rafale d'écritures n'en déclenche qu'un
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public ReportingService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ProjectSummaryRepository projectSummaryRepository,
+            ChapterSummaryRepository chapterSummaryRepository,
+            UnitSummaryRepository unitSummaryRepository,
+            CompanySummaryRepository companySummaryRepository
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.projectSummaryRepository = projectSummaryRepository;
+        this.chapterSummaryRepository = chapterSummaryRepository;
+        this.unitSummaryRepository = unitSummaryRepository;
+        this.companySummaryRepository = companySummaryRepository;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        // Les détails n'interviennent pas dans les totaux (total_price est porté par la ligne)
+        if (event.entityType() == ProjectChangedEvent.EntityType.DETAIL_LINE) {
+            return;
+        }
+        Long projectId = event.projectId();
+        if (dirty.add(projectId)) {
+            executor.execute(() -> {
+                // Retiré avant le recalcul : une écriture pendant celui-ci en redemande un
+                dirty.remove(projectId);
+                try {
+                    refreshProject(projectId);
+                } catch (RuntimeException e) {
+                    System.out.println("⚠️ Synthèse du projet " + projectId + " non mise à jour : " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (projectSummaryRepository.count() == 0) {
+            rebuildAll();
+        }
+    }
+
+    public void rebuildAll() {
+        List<Long> projectIds = jdbcTemplate.queryForList("SELECT id FROM project WHERE archived_at IS NULL", Long.class);
+        for (Long projectId : projectIds) {
+            refreshProject(projectId);
+        }
+    }
+
+    // Un recalcul à la fois : deux projets d'une société ne réécrivent jamais sa ligne en même temps
+    public synchronized void refreshProject(Long projectId) {
+        transactionTemplate.executeWithoutResult(status -> doRefreshProject(projectId));
+    }
+
+    private void doRefreshProject(Long projectId) {
+        List<Long> previousCompany = jdbcTemplate.queryForList(
+                "SELECT company_id FROM project_summary WHERE project_id = ?", Long.class, projectId);
+
+        jdbcTemplate.update("DELETE FROM chapter_summary WHERE project_id = ?", projectId);
+        jdbcTemplate.update("DELETE FROM unit_summary WHERE project_id = ?", projectId);
+        jdbcTemplate.update("DELETE FROM project_summary WHERE project_id = ?", projectId);
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT name, user_id, company_id FROM project WHERE id = ?", projectId);
+        Long companyId = null;
+
+        if (!rows.isEmpty()) {
+            Map<String, Object> project = rows.get(0);
+            companyId = toLong(project.get("company_id"));
+
+            jdbcTemplate.update("""
+                    INSERT INTO chapter_summary (chapter_id, project_id, line_count, total_price)
+                    SELECT c.id, c.project_id, COUNT(l.id), COALESCE(SUM(l.total_price), 0)
+                    FROM chapter c
+                    LEFT JOIN main_table_line l ON l.chapter_id = c.id
+                    WHERE c.project_id = ?
+                    GROUP BY c.id, c.project_id
+                    """, projectId);
+
+            jdbcTemplate.update("""
+                    INSERT INTO unit_summary (project_id, company_id, unit, line_count, total_quantity, total_price)
+                    SELECT l.project_id, ?, l.unit, COUNT(*), COALESCE(SUM(l.quantity), 0), COALESCE(SUM(l.total_price), 0)
+                    FROM main_table_line l
+                    WHERE l.project_id = ?
+                    GROUP BY l.project_id, l.unit
+                    """, companyId, projectId);
+
+            jdbcTemplate.update("""
+                    INSERT INTO project_summary (project_id, company_id, user_id, name, chapter_count, line_count, total_price, updated_at)
+                    SELECT ?, ?, ?, ?, COUNT(*), COALESCE(SUM(line_count), 0), COALESCE(SUM(total_price), 0), CURRENT_TIMESTAMP
+                    FROM chapter_summary
+                    WHERE project_id = ?
+                    """, projectId, companyId, toLong(project.get("user_id")), project.get("name"), projectId);
+        }
+
+        if (companyId != null) {
+            refreshCompany(companyId);
+        }
+        for (Long previous : previousCompany) {
+            if (previous != null && !Objects.equals(previous, companyId)) {
+                refreshCompany(previous);
+            }
+        }
+    }
+
+    // Agrège uniquement les lignes project_summary de la société (index company_id)
+    private void refreshCompany(Long companyId) {
+        jdbcTemplate.update("DELETE FROM company_summary WHERE company_id = ?", companyId);
+        jdbcTemplate.update("""
+                INSERT INTO company_summary (company_id, project_count, line_count, total_price, updated_at)
+                SELECT company_id, COUNT(*), COALESCE(SUM(line_count), 0), COALESCE(SUM(total_price), 0), CURRENT_TIMESTAMP
+                FROM project_summary
+                WHERE company_id = ?
+                GROUP BY company_id
+                """, companyId);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Transactional(readOnly = true)
+    public ProjectReportDTO getProjectReport(Long projectId) {
+        ProjectReportDTO report = new ProjectReportDTO();
+        report.setSummary(projectSummaryRepository.findById(projectId).orElseThrow());
+        report.setChapters(chapterSummaryRepository.findByProjectId(projectId));
+        report.setUnits(unitSummaryRepository.findByProjectId(projectId));
+        return report;
+    }
+
+    @Transactional(readOnly = true)
+    public CompanySummary getCompanySummary(Long companyId) {
+        return companySummaryRepository.findById(companyId).orElseThrow();
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProjectSummary> getCompanyProjects(Long companyId) {
+        return projectSummaryRepository.findByCompanyId(companyId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<UnitTotalDTO> getCompanyUnits(Long companyId) {
+        return unitSummaryRepository.sumByUnitForCompany(companyId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProjectSummary> getUserProjects(Long userId) {
+        return projectSummaryRepository.findByUserId(userId);
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+}
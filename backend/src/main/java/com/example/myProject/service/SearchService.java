@@ -0,0 +1,111 @@
+package com.example.myProject.service;
+
+import com.example.myProject.dto.SearchHitDTO;
+import com.example.myProject.dto.SearchResultDTO;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class SearchService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Les deux MATCH doivent reprendre exactement les colonnes des index FULLTEXT
+    private static final String HITS_SQL = """
+            SELECT 'CHAPTER' AS type, c.id, c.project_id, c.id AS chapter_id, c.num, c.label AS title,
+                   MATCH(c.label, c.content) AGAINST(:q IN BOOLEAN MODE) AS score
+            FROM chapter c
+            JOIN project p ON p.id = c.project_id
+            WHERE p.company_id = :companyId
+              AND MATCH(c.label, c.content) AGAINST(:q IN BOOLEAN MODE)
+            UNION ALL
+            SELECT 'MAIN_LINE' AS type, l.id, l.project_id, l.chapter_id, l.num, l.title,
+                   MATCH(l.title, l.comments, l.num) AGAINST(:q IN BOOLEAN MODE) AS score
+            FROM main_table_line l
+            JOIN project p ON p.id = l.project_id
+            WHERE p.company_id = :companyId
+              AND MATCH(l.title, l.comments, l.num) AGAINST(:q IN BOOLEAN MODE)
+            ORDER BY score DESC, id
+            LIMIT :limit OFFSET :offset
+            """;
+
+    private static final String COUNT_SQL = """
+            SELECT
+              (SELECT COUNT(*) FROM chapter c
+                 JOIN project p ON p.id = c.project_id
+                WHERE p.company_id = :companyId
+                  AND MATCH(c.label, c.content) AGAINST(:q IN BOOLEAN MODE))
+            + (SELECT COUNT(*) FROM main_table_line l
+                 JOIN project p ON p.id = l.project_id
+                WHERE p.company_id = :companyId
+                  AND MATCH(l.title, l.comments, l.num) AGAINST(:q IN BOOLEAN MODE))
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public SearchService(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public SearchResultDTO search(Long companyId, String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageIndex = Math.max(0, page);
+
+        SearchResultDTO result = new SearchResultDTO();
+        result.setQuery(query);
+        result.setPage(pageIndex);
+        result.setSize(pageSize);
+
+        String booleanQuery = toBooleanQuery(query);
+        if (booleanQuery.isEmpty()) {
+            result.setTotal(0);
+            result.setHits(List.of());
+            return result;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("companyId", companyId)
+                .addValue("q", booleanQuery)
+                .addValue("limit", pageSize)
+                .addValue("offset", (long) pageIndex * pageSize);
+
+        List<SearchHitDTO> hits = jdbcTemplate.query(HITS_SQL, params, (rs, rowNum) -> {
+            SearchHitDTO hit = new SearchHitDTO();
+            hit.setType(rs.getString("type"));
+            hit.setId(rs.getLong("id"));
+            hit.setProjectId(rs.getLong("project_id"));
+            hit.setChapterId(rs.getLong("chapter_id"));
+            hit.setNum(rs.getString("num"));
+            hit.setTitle(rs.getString("title"));
+            hit.setScore(rs.getDouble("score"));
+            return hit;
+        });
+        Long total = jdbcTemplate.queryForObject(COUNT_SQL, params, Long.class);
+
+        result.setHits(hits);
+        result.setTotal(total != null ? total : 0);
+        return result;
+    }
+
+    // "béton armé" -> "+béton* +armé*" : tous les mots sont obligatoires et traités comme des
+    // préfixes. Les opérateurs booléens saisis par l'utilisateur sont neutralisés.
+    static String toBooleanQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        List<String> terms = new ArrayList<>();
+        for (String token : query.trim().split("\\s+")) {
+            String term = token.replaceAll("[+\\-<>()~*\"@]", "");
+            if (!term.isEmpty()) {
+                terms.add("+" + term + "*");
+            }
+        }
+        return String.join(" ", terms);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.myProject.service;
+
+/**
+ * Seau à jetons : rate jetons par seconde, au plus burst en réserve. Les horloges sont passées
+ * en nanosecondes (System.nanoTime) par l'appelant.
+ */
+final class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double burst;
+    private double tokens;
+    private long updatedAt;
+
+    TokenBucket(double ratePerSecond, double burst, long now) {
+        this.tokensPerNano = ratePerSecond / 1_000_000_000d;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.updatedAt = now;
+    }
+
+    // 0 si le jeton est pris, sinon l'attente en nanosecondes avant le prochain jeton
+    synchronized long tryTake(long now) {
+        refill(now);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    synchronized void giveBack(long now) {
+        refill(now);
+        tokens = Math.min(burst, tokens + 1);
+    }
+
+    // Un seau plein est au repos : il peut être oublié et recréé à la demande
+    synchronized boolean isFull(long now) {
+        refill(now);
+        return tokens >= burst;
+    }
+
+    private void refill(long now) {
+        if (now > updatedAt) {
+            tokens = Math.min(burst, tokens + (now - updatedAt) * tokensPerNano);
+            updatedAt = now;
+        }
+    }
+}
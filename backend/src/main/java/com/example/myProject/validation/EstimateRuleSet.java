@@ -0,0 +1,71 @@
+package com.example.myProject.validation;
+
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Règles par ligne et par détail, assemblées une fois au démarrage en tableaux de tests directs sur les
+ * accesseurs : la validation d'une ligne n'est qu'une boucle sur ce tableau, sans réflexion ni
+ * métadonnées d'annotations. Les règles transverses (positions, cycles) sont dans EstimateValidator.
+ */
+final class EstimateRuleSet {
+
+    record Rule<T>(String field, String code, String message, Predicate<T> test) {
+    }
+
+    final Rule<MainTableLine>[] lineRules;
+    final Rule<DetailTableLine>[] detailRules;
+
+    private EstimateRuleSet(List<Rule<MainTableLine>> lineRules, List<Rule<DetailTableLine>> detailRules) {
+        this.lineRules = toArray(lineRules);
+        this.detailRules = toArray(detailRules);
+    }
+
+    // units vide : unité libre, seule sa présence est exigée quand une quantité est saisie
+    static EstimateRuleSet compile(Set<String> units) {
+        List<Rule<MainTableLine>> lineRules = new ArrayList<>();
+        lineRules.add(new Rule<>("quantity", "NEGATIVE", "La quantité ne peut pas être négative",
+                line -> nonNegative(line.getQuantity())));
+        lineRules.add(new Rule<>("unitPrice", "NEGATIVE", "Le prix unitaire ne peut pas être négatif",
+                line -> nonNegative(line.getUnitPrice())));
+        lineRules.add(new Rule<>("unit", "MISSING_UNIT", "Une ligne chiffrée doit avoir une unité",
+                line -> line.getQuantity() == null || !isBlank(line.getUnit())));
+        if (!units.isEmpty()) {
+            Set<String> allowed = units.stream()
+                    .map(unit -> unit.trim().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+            lineRules.add(new Rule<>("unit", "UNKNOWN_UNIT", "Unité inconnue (unités admises : " + String.join(", ", units) + ")",
+                    line -> isBlank(line.getUnit()) || allowed.contains(line.getUnit().trim().toLowerCase(Locale.ROOT))));
+        }
+
+        // Nombre et facteur peuvent être négatifs : c'est ainsi qu'un métré déduit une ouverture
+        List<Rule<DetailTableLine>> detailRules = new ArrayList<>();
+        detailRules.add(new Rule<>("length", "NEGATIVE", "La longueur ne peut pas être négative",
+                detail -> nonNegative(detail.getLength())));
+        detailRules.add(new Rule<>("width", "NEGATIVE", "La largeur ne peut pas être négative",
+                detail -> nonNegative(detail.getWidth())));
+        detailRules.add(new Rule<>("height", "NEGATIVE", "La hauteur ne peut pas être négative",
+                detail -> nonNegative(detail.getHeight())));
+        return new EstimateRuleSet(lineRules, detailRules);
+    }
+
+    private static boolean nonNegative(Double value) {
+        return value == null || value >= 0;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Rule<T>[] toArray(List<Rule<T>> rules) {
+        return rules.toArray(new Rule[0]);
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.myProject.validation;
+
+import java.util.List;
+
+public class EstimateValidationException extends RuntimeException {
+
+    private final List<Violation> violations;
+    private final boolean truncated;
+
+    public EstimateValidationException(List<Violation> violations, boolean truncated) {
+        super(violations.size() + " violation(s) dans le projet");
+        this.violations = violations;
+        this.truncated = truncated;
+    }
+
+    public List<Violation> getViolations() {
+        return violations;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.myProject.validation;
+
+import com.example.myProject.dto.ChapterWithLinesDTO;
+import com.example.myProject.dto.MainTableLineWithDetailsDTO;
+import com.example.myProject.dto.ProjectFullDTO;
+import com.example.myProject.model.Chapter;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Valide un ProjectFullDTO complet en un seul parcours et rassemble toutes les violations (jusqu'à
+ * max-violations) : règles de EstimateRuleSet sur chaque ligne et détail, positions en double dans un
+ * même parent, parents de chapitres inconnus et cycles dans la hiérarchie des chapitres. Un chapitre,
+ * une ligne ou un détail absent (null) est une violation MISSING, jamais une erreur 500.
+ * Appelé avant le verrou d'écriture du projet, pour qu'un envoi invalide n'occupe ni verrou ni transaction.
+ */
+@Component
+public class EstimateValidator {
+
+    private final EstimateRuleSet rules;
+    private final int maxViolations;
+
+    public EstimateValidator(
+            @Value("${myproject.validation.units:}") Set<String> units,
+            @Value("${myproject.validation.max-violations:1000}") int maxViolations
+    ) {
+        this.rules = EstimateRuleSet.compile(units);
+        this.maxViolations = maxViolations;
+    }
+
+    public void validate(ProjectFullDTO fullDTO) {
+        Collector collector = new Collector(maxViolations);
+        List<ChapterWithLinesDTO> chapters = fullDTO.getChapters() != null ? fullDTO.getChapters() : List.of();
+
+        Set<Integer> positions = new HashSet<>();
+        for (int c = 0; c < chapters.size(); c++) {
+            ChapterWithLinesDTO chapterDTO = chapters.get(c);
+            if (chapterDTO == null || chapterDTO.getChapter() == null) {
+                collector.add(c, -1, -1, null, "MISSING", "Chapitre absent");
+                if (chapterDTO == null) {
+                    continue;
+                }
+            }
+            List<MainTableLineWithDetailsDTO> lines = chapterDTO.getLines() != null ? chapterDTO.getLines() : List.of();
+            positions.clear();
+            for (int l = 0; l < lines.size(); l++) {
+                MainTableLine line = lines.get(l) != null ? lines.get(l).getMainTableLine() : null;
+                if (line == null) {
+                    collector.add(c, l, -1, null, "MISSING", "Ligne absente");
+                    continue;
+                }
+                for (EstimateRuleSet.Rule<MainTableLine> rule : rules.lineRules) {
+                    if (!rule.test().test(line)) {
+                        collector.add(c, l, -1, rule.field(), rule.code(), rule.message());
+                    }
+                }
+                if (line.getPosition() != null && !positions.add(line.getPosition())) {
+                    collector.add(c, l, -1, "position", "DUPLICATE_POSITION", "Position déjà utilisée dans ce chapitre");
+                }
+                checkDetails(collector, c, l, lines.get(l).getDetails());
+            }
+        }
+        checkChapterTree(collector, chapters);
+
+        if (!collector.violations.isEmpty()) {
+            throw new EstimateValidationException(collector.violations, collector.truncated);
+        }
+    }
+
+    private void checkDetails(Collector collector, int c, int l, List<DetailTableLine> details) {
+        if (details == null) {
+            return;
+        }
+        Set<Integer> positions = new HashSet<>();
+        for (int d = 0; d < details.size(); d++) {
+            DetailTableLine detail = details.get(d);
+            if (detail == null) {
+                collector.add(c, l, d, null, "MISSING", "Détail absent");
+                continue;
+            }
+            for (EstimateRuleSet.Rule<DetailTableLine> rule : rules.detailRules) {
+                if (!rule.test().test(detail)) {
+                    collector.add(c, l, d, rule.field(), rule.code(), rule.message());
+                }
+            }
+            if (detail.getPosition() != null && !positions.add(detail.getPosition())) {
+                collector.add(c, l, d, "position", "DUPLICATE_POSITION", "Position déjà utilisée dans cette ligne");
+            }
+        }
+    }
+
+    // Résout les parents comme la synchronisation (parentTempId d'abord, sinon parentId) puis cherche les cycles
+    private static void checkChapterTree(Collector collector, List<ChapterWithLinesDTO> chapters) {
+        int count = chapters.size();
+        Map<Long, Integer> byId = new HashMap<>();
+        Map<String, Integer> byTempId = new HashMap<>();
+        for (int c = 0; c < count; c++) {
+            Chapter chapter = chapters.get(c) != null ? chapters.get(c).getChapter() : null;
+            if (chapter == null) {
+                continue;
+            }
+            if (chapter.getId() != null) {
+                byId.put(chapter.getId(), c);
+            }
+            if (chapter.getTempId() != null) {
+                byTempId.put(chapter.getTempId(), c);
+            }
+        }
+
+        int[] parent = new int[count];
+        for (int c = 0; c < count; c++) {
+            Chapter chapter = chapters.get(c) != null ? chapters.get(c).getChapter() : null;
+            if (chapter == null) {
+                parent[c] = -1;
+                continue;
+            }
+            Integer resolved = chapter.getParentTempId() != null ? byTempId.get(chapter.getParentTempId()) : null;
+            if (resolved == null && chapter.getParentId() != null) {
+                resolved = byId.get(chapter.getParentId());
+                if (resolved == null) {
+                    collector.add(c, -1, -1, "parentId", "UNKNOWN_PARENT", "Chapitre parent absent du projet");
+                }
+            }
+            parent[c] = resolved != null ? resolved : -1;
+        }
+
+        // 0 = non visité, 1 = sur le chemin en cours, 2 = mène à une racine
+        byte[] state = new byte[count];
+        int[] path = new int[count];
+        for (int start = 0; start < count; start++) {
+            int length = 0;
+            int current = start;
+            while (current != -1 && state[current] == 0) {
+                state[current] = 1;
+                path[length++] = current;
+                current = parent[current];
+            }
+            if (current != -1 && state[current] == 1) {
+                collector.add(current, -1, -1, "parentId", "CYCLE", "La hiérarchie des chapitres forme un cycle");
+            }
+            for (int i = 0; i < length; i++) {
+                state[path[i]] = 2;
+            }
+        }
+    }
+
+    private static final class Collector {
+        private final int max;
+        private final List<Violation> violations = new ArrayList<>();
+        private boolean truncated;
+
+        private Collector(int max) {
+            this.max = max;
+        }
+
+        // Le chemin n'est construit que pour les violations, jamais pour les lignes valides
+        void add(int chapter, int line, int detail, String field, String code, String message) {
+            if (violations.size() >= max) {
+                truncated = true;
+                return;
+            }
+            StringBuilder path = new StringBuilder("chapters[").append(chapter).append(']');
+            if (detail >= 0) {
+                path.append(".lines[").append(line).append("].details[").append(detail).append("].");
+            } else if (line >= 0) {
+                path.append(".lines[").append(line).append("].mainTableLine.");
+            } else {
+                path.append(".chapter.");
+            }
+            // Sans champ, c'est l'élément lui-même qui manque
+            if (field != null) {
+                path.append(field);
+            } else {
+                path.setLength(path.length() - 1);
+            }
+            violations.add(new Violation(path.toString(), code, message));
+        }
+    }
+}
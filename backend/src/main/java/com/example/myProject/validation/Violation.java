@@ -0,0 +1,5 @@
+package com.example.myProject.validation;
+
+// path suit la structure du ProjectFullDTO envoyé, ex. chapters[2].lines[14].quantity
+public record Violation(String path, String code, String message) {
+}
@@ -0,0 +1,9 @@
+-- project_id dénormalisé : lecture, suppression et agrégation d'un projet entier sans jointure
+ALTER TABLE main_table_line ADD COLUMN project_id BIGINT;
+ALTER TABLE detail_table_line ADD COLUMN project_id BIGINT;
+
+UPDATE main_table_line l JOIN chapter c ON c.id = l.chapter_id SET l.project_id = c.project_id;
+UPDATE detail_table_line d JOIN main_table_line l ON l.id = d.main_table_line_id SET d.project_id = l.project_id;
+
+CREATE INDEX idx_main_line_project ON main_table_line (project_id);
+CREATE INDEX idx_detail_line_project ON detail_table_line (project_id);
@@ -0,0 +1,7 @@
+-- Rang des chapitres parmi leurs frères ; les numéros (num) en sont déduits côté serveur.
+-- Les positions historiques restent NULL : la première renumérotation du projet les remplit
+-- dans l'ordre des anciens numéros.
+ALTER TABLE chapter ADD COLUMN position INT NULL;
+
+DROP INDEX idx_chapter_project_parent ON chapter;
+CREATE INDEX idx_chapter_project_parent ON chapter (project_id, parent_id, position);
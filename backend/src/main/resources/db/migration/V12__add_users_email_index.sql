@@ -0,0 +1,3 @@
+-- Connexion par e-mail. Les mots de passe encore en clair sont remplacés par leur empreinte BCrypt
+-- à la prochaine connexion réussie de chaque utilisateur.
+CREATE INDEX idx_users_email ON users (email);
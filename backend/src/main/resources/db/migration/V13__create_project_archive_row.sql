@@ -0,0 +1,12 @@
+-- Identifiants des chapitres / lignes / détails archivés : une écriture ciblant l'un d'eux
+-- réintègre d'abord son projet (ProjectArchiveService.ensureActive)
+CREATE TABLE project_archive_row (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    kind VARCHAR(16) NOT NULL,
+    row_id BIGINT NOT NULL,
+    project_id BIGINT NOT NULL,
+    CONSTRAINT uk_project_archive_row UNIQUE (kind, row_id)
+);
+CREATE INDEX idx_project_archive_row_project ON project_archive_row (project_id);
+
+-- Les archives existantes sont indexées au démarrage par ProjectArchiveService.indexExistingArchives (payload gzippé, illisible en SQL)
@@ -0,0 +1,4 @@
+-- Les mots de passe encore en clair ne sont plus acceptés à la connexion. Ils sont remplacés par
+-- leur empreinte BCrypt au démarrage par PlaintextPasswordMigration (le hachage n'existe pas en SQL).
+-- Contrôle après déploiement : doit renvoyer 0
+SELECT COUNT(*) FROM users WHERE password IS NOT NULL AND password NOT LIKE '$2%';
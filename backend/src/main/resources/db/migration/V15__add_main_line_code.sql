@@ -0,0 +1,3 @@
+-- Code article des lignes, distinct du numéro affiché (num, recalculé à chaque renumérotation) :
+-- la revalorisation depuis la bibliothèque de prix joint sur ce code (price_library_item.code)
+ALTER TABLE main_table_line ADD COLUMN code VARCHAR(255) NULL;
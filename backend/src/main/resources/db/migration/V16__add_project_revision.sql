@@ -0,0 +1,3 @@
+-- Compteur d'écritures par projet, incrémenté dans la transaction de chaque écriture : les instantanés
+-- de totaux en cache sont comparés à cette valeur, lue sur le primaire
+ALTER TABLE project ADD COLUMN revision BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,3 @@
+-- Index plein texte pour la recherche dans les chapitres et les lignes du métré
+ALTER TABLE chapter ADD FULLTEXT INDEX ft_chapter_label_content (label, content);
+ALTER TABLE main_table_line ADD FULLTEXT INDEX ft_main_table_line_text (title, comments, num);
@@ -0,0 +1,12 @@
+-- Bibliothèque de prix par société
+CREATE TABLE price_library_item (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    company_id BIGINT NOT NULL,
+    code VARCHAR(255) NOT NULL,
+    title VARCHAR(255),
+    unit VARCHAR(255),
+    unit_price DOUBLE,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    CONSTRAINT uk_price_library_company_code_unit UNIQUE (company_id, code, unit)
+);
@@ -0,0 +1,41 @@
+-- Tables de synthèse maintenues par les écritures (rapports)
+CREATE TABLE chapter_summary (
+    chapter_id BIGINT PRIMARY KEY,
+    project_id BIGINT NOT NULL,
+    line_count BIGINT,
+    total_price DOUBLE,
+    INDEX idx_chapter_summary_project (project_id)
+);
+
+CREATE TABLE project_summary (
+    project_id BIGINT PRIMARY KEY,
+    company_id BIGINT,
+    user_id BIGINT,
+    name VARCHAR(255),
+    chapter_count BIGINT,
+    line_count BIGINT,
+    total_price DOUBLE,
+    updated_at DATETIME(6),
+    INDEX idx_project_summary_company (company_id),
+    INDEX idx_project_summary_user (user_id)
+);
+
+CREATE TABLE unit_summary (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    project_id BIGINT NOT NULL,
+    company_id BIGINT,
+    unit VARCHAR(255),
+    line_count BIGINT,
+    total_quantity DOUBLE,
+    total_price DOUBLE,
+    INDEX idx_unit_summary_project (project_id),
+    INDEX idx_unit_summary_company_unit (company_id, unit)
+);
+
+CREATE TABLE company_summary (
+    company_id BIGINT PRIMARY KEY,
+    project_count BIGINT,
+    line_count BIGINT,
+    total_price DOUBLE,
+    updated_at DATETIME(6)
+);
@@ -0,0 +1,11 @@
+-- Historique append-only des synchronisations (JSON gzippé : état complet ou delta)
+CREATE TABLE project_revision (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    project_id BIGINT NOT NULL,
+    version INT NOT NULL,
+    kind VARCHAR(16) NOT NULL,
+    change_count INT,
+    payload LONGBLOB NOT NULL,
+    created_at DATETIME(6),
+    CONSTRAINT uk_project_revision_version UNIQUE (project_id, version)
+);
@@ -0,0 +1,12 @@
+-- Projets inactifs : contenu déplacé dans un blob gzippé, tables chaudes allégées
+ALTER TABLE project ADD COLUMN archived_at DATETIME(6);
+CREATE INDEX idx_project_archived_updated ON project (archived_at, updated_at);
+
+CREATE TABLE project_archive (
+    project_id BIGINT PRIMARY KEY,
+    chapter_count INT,
+    line_count INT,
+    detail_count INT,
+    payload LONGBLOB NOT NULL,
+    archived_at DATETIME(6)
+);
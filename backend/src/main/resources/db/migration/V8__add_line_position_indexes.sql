@@ -0,0 +1,3 @@
+-- Lectures ordonnées et recherche des voisins lors des déplacements (positions espacées)
+CREATE INDEX idx_main_line_chapter_position ON main_table_line (chapter_id, position);
+CREATE INDEX idx_detail_line_parent_position ON detail_table_line (main_table_line_id, position);
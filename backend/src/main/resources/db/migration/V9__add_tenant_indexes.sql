@@ -0,0 +1,4 @@
+-- Index menant par la société ou le projet : les requêtes d'un locataire ne parcourent que ses lignes
+CREATE INDEX idx_project_company_updated ON project (company_id, updated_at);
+CREATE INDEX idx_chapter_project_parent ON chapter (project_id, parent_id);
+CREATE INDEX idx_chapter_parent ON chapter (parent_id);
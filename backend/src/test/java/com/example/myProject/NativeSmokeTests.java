@@ -0,0 +1,71 @@
+package com.example.myProject;
+
+import com.example.myProject.dto.ChapterWithLinesDTO;
+import com.example.myProject.dto.MainTableLineWithDetailsDTO;
+import com.example.myProject.dto.ProjectFullDTO;
+import com.example.myProject.dto.ProjectRequestDTO;
+import com.example.myProject.dto.ProjectTotalsDTO;
+import com.example.myProject.model.Chapter;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import com.example.myProject.model.Project;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Démarre l'application sur H2 et fait un aller-retour projet complet par HTTP. Tourne en JVM avec les
+ * autres tests, et dans l'image native avec mvn -PnativeTest test, où il valide les indices de NativeConfig.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:native;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "myproject.auth.token-secret=test-secret"
+})
+class NativeSmokeTests {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void projectRoundTrip() {
+        String base = "http://localhost:" + port + "/myProject/api/projects";
+
+        ProjectRequestDTO request = new ProjectRequestDTO();
+        request.setName("Smoke");
+        request.setCompanyId(1L);
+        Project project = rest.postForObject(base, request, Project.class);
+
+        MainTableLineWithDetailsDTO line = new MainTableLineWithDetailsDTO();
+        line.setMainTableLine(MainTableLine.builder().num("01").title("Béton").unit("m3")
+                .quantity(2.0).unitPrice(100.0).totalPrice(200.0).build());
+        line.setDetails(List.of(DetailTableLine.builder().title("Semelle").number(2.0).total(2.0).build()));
+        ChapterWithLinesDTO chapter = new ChapterWithLinesDTO();
+        chapter.setChapter(Chapter.builder().num("1").label("Gros œuvre").tempId("c1").build());
+        chapter.setLines(List.of(line));
+        ProjectFullDTO full = new ProjectFullDTO();
+        full.setProject(project);
+        full.setChapters(List.of(chapter));
+        rest.put(base + "/" + project.getId() + "/full", full);
+
+        ProjectFullDTO loaded = rest.getForObject(base + "/" + project.getId() + "/full", ProjectFullDTO.class);
+        assertEquals(1, loaded.getChapters().size());
+        assertEquals("Béton", loaded.getChapters().get(0).getLines().get(0).getMainTableLine().getTitle());
+
+        ProjectTotalsDTO totals = rest.getForObject(base + "/" + project.getId() + "/totals", ProjectTotalsDTO.class);
+        assertEquals(200.0, totals.getTotalPrice());
+    }
+}
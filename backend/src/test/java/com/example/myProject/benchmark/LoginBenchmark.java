@@ -0,0 +1,72 @@
+package com.example.myProject.benchmark;
+
+import com.example.myProject.service.AuthTokenService;
+import com.example.myProject.service.AuthenticatedUser;
+import com.example.myProject.service.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connexions concurrentes (16 fils pour les cœurs de la machine) : BCrypt dans le pool borné de
+ * PasswordHasher contre BCrypt directement sur le fil appelant, et vérification d'un jeton signé.
+ * mvn test -Dgroups=benchmark -DexcludedGroups= -Dtest=LoginBenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+    private static final int STRENGTH = 10;
+
+    private PasswordHasher hasher;
+    private BCryptPasswordEncoder encoder;
+    private AuthTokenService tokens;
+    private String stored;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        hasher = new PasswordHasher(new SimpleMeterRegistry(), STRENGTH, 0, 64, Duration.ofSeconds(30));
+        encoder = new BCryptPasswordEncoder(STRENGTH);
+        tokens = new AuthTokenService(new StandardEnvironment(), "benchmark-secret-benchmark-secret", Duration.ofHours(12));
+        stored = encoder.encode(PASSWORD);
+        token = tokens.issue(new AuthenticatedUser(1L, 1L), tokens.nextExpiry());
+    }
+
+    @Benchmark
+    public boolean loginBoundedPool() {
+        return hasher.matches(PASSWORD, stored);
+    }
+
+    @Benchmark
+    public boolean loginCallerThread() {
+        return encoder.matches(PASSWORD, stored);
+    }
+
+    @Benchmark
+    public Optional<AuthenticatedUser> verifyToken() {
+        return tokens.verify(token);
+    }
+
+    @Test
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder().include(LoginBenchmark.class.getSimpleName()).build()).run();
+    }
+}
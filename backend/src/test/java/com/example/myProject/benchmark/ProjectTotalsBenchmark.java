@@ -0,0 +1,160 @@
+package com.example.myProject.benchmark;
+
+import com.example.myProject.dto.ChapterWithLinesDTO;
+import com.example.myProject.dto.MainTableLineWithDetailsDTO;
+import com.example.myProject.dto.ProjectFullDTO;
+import com.example.myProject.model.Chapter;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import com.example.myProject.service.ProjectSnapshot;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totaux d'un projet de 40 000 lignes : parcours du graphe ProjectFullDTO (Double encapsulés,
+ * HashMap par unité) contre boucles sur l'instantané colonnaire.
+ * mvn test -Dgroups=benchmark -DexcludedGroups= -Dtest=ProjectTotalsBenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectTotalsBenchmark {
+
+    private static final int ROOT_CHAPTERS = 20;
+    private static final int SUB_CHAPTERS = 10;
+    private static final int LINES_PER_CHAPTER = 200;
+    private static final String[] UNITS = {"m3", "m2", "m", "kg", "pc", "ff"};
+
+    private ProjectFullDTO graph;
+    private ProjectSnapshot snapshot;
+    private double[] unitBuffer;
+    private double[] chapterBuffer;
+
+    @Setup
+    public void setUp() {
+        List<Chapter> chapters = new ArrayList<>();
+        List<MainTableLine> lines = new ArrayList<>();
+        List<DetailTableLine> details = new ArrayList<>();
+        List<ChapterWithLinesDTO> chapterDTOs = new ArrayList<>();
+        long chapterId = 1;
+        long lineId = 1;
+        long detailId = 1;
+        Random random = new Random(42);
+
+        for (int root = 0; root < ROOT_CHAPTERS; root++) {
+            long rootId = chapterId++;
+            chapters.add(Chapter.builder().id(rootId).num(String.valueOf(root + 1)).build());
+            chapterDTOs.add(chapterDTO(chapters.get(chapters.size() - 1), List.of()));
+            for (int sub = 0; sub < SUB_CHAPTERS; sub++) {
+                Chapter chapter = Chapter.builder().id(chapterId++).parentId(rootId).num((root + 1) + "." + (sub + 1)).build();
+                chapters.add(chapter);
+                List<MainTableLineWithDetailsDTO> lineDTOs = new ArrayList<>();
+                for (int l = 0; l < LINES_PER_CHAPTER; l++) {
+                    double quantity = random.nextDouble() * 100;
+                    double unitPrice = random.nextDouble() * 500;
+                    MainTableLine line = MainTableLine.builder().id(lineId++).chapterId(chapter.getId())
+                            .unit(UNITS[random.nextInt(UNITS.length)]).gr("G" + random.nextInt(8))
+                            .quantity(quantity).unitPrice(unitPrice).totalPrice(quantity * unitPrice).build();
+                    DetailTableLine detail = DetailTableLine.builder().id(detailId++).mainTableLineId(line.getId())
+                            .total(quantity).build();
+                    lines.add(line);
+                    details.add(detail);
+                    MainTableLineWithDetailsDTO lineDTO = new MainTableLineWithDetailsDTO();
+                    lineDTO.setMainTableLine(line);
+                    lineDTO.setDetails(List.of(detail));
+                    lineDTOs.add(lineDTO);
+                }
+                chapterDTOs.add(chapterDTO(chapter, lineDTOs));
+            }
+        }
+
+        graph = new ProjectFullDTO();
+        graph.setChapters(chapterDTOs);
+        snapshot = ProjectSnapshot.build(0, chapters, lines, details);
+        unitBuffer = new double[snapshot.unitCount()];
+        chapterBuffer = new double[snapshot.chapterCount()];
+    }
+
+    @Benchmark
+    public double graphTotalPrice() {
+        double sum = 0;
+        for (ChapterWithLinesDTO chapter : graph.getChapters()) {
+            for (MainTableLineWithDetailsDTO line : chapter.getLines()) {
+                Double price = line.getMainTableLine().getTotalPrice();
+                sum += price == null ? 0 : price;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double snapshotTotalPrice() {
+        return snapshot.totalPrice();
+    }
+
+    @Benchmark
+    public Map<String, Double> graphTotalsByUnit() {
+        Map<String, Double> totals = new HashMap<>();
+        for (ChapterWithLinesDTO chapter : graph.getChapters()) {
+            for (MainTableLineWithDetailsDTO line : chapter.getLines()) {
+                MainTableLine mainLine = line.getMainTableLine();
+                totals.merge(mainLine.getUnit(), mainLine.getTotalPrice(), Double::sum);
+            }
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public void snapshotTotalsByUnit(Blackhole blackhole) {
+        snapshot.totalPricesByUnit(unitBuffer);
+        blackhole.consume(unitBuffer);
+    }
+
+    @Benchmark
+    public Map<Long, Double> graphChapterTotals() {
+        Map<Long, Double> totals = new HashMap<>();
+        Map<Long, Long> parents = new HashMap<>();
+        for (ChapterWithLinesDTO chapter : graph.getChapters()) {
+            parents.put(chapter.getChapter().getId(), chapter.getChapter().getParentId());
+            double sum = 0;
+            for (MainTableLineWithDetailsDTO line : chapter.getLines()) {
+                sum += line.getMainTableLine().getTotalPrice();
+            }
+            // Remontée du total vers chaque ancêtre
+            for (Long id = chapter.getChapter().getId(); id != null; id = parents.get(id)) {
+                totals.merge(id, sum, Double::sum);
+            }
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public void snapshotChapterTotals(Blackhole blackhole) {
+        snapshot.chapterTotals(chapterBuffer);
+        blackhole.consume(chapterBuffer);
+    }
+
+    @Test
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProjectTotalsBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static ChapterWithLinesDTO chapterDTO(Chapter chapter, List<MainTableLineWithDetailsDTO> lines) {
+        ChapterWithLinesDTO dto = new ChapterWithLinesDTO();
+        dto.setChapter(chapter);
+        dto.setLines(lines);
+        return dto;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.myProject.benchmark;
+
+import com.example.myProject.MyProjectApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Mesure le temps de démarrage (jusqu'à ApplicationReady) avec la configuration par défaut puis avec
+ * le profil startup, sur une base H2 en mémoire. Un premier démarrage non mesuré crée le schéma (que le
+ * profil startup valide) et charge les classes. Les gains AOT/CDS ne se mesurent que sur le jar de
+ * mvn -Pstartup package, lancé avec -Dspring.aot.enabled=true et -XX:SharedArchiveFile.
+ * mvn test -Dgroups=benchmark -DexcludedGroups= -Dtest=StartupTimeBenchmark
+ */
+@Tag("benchmark")
+class StartupTimeBenchmark {
+
+    private static final String[] DATABASE = {
+            "--spring.datasource.url=jdbc:h2:mem:startup;MODE=MySQL;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.show-sql=false",
+            "--myproject.auth.token-secret=test-secret",
+            "--server.port=0"
+    };
+
+    @Test
+    void reportStartupTime() {
+        boot(new String[0], "--spring.jpa.hibernate.ddl-auto=update");
+        long defaultMs = boot(new String[0], "--spring.jpa.hibernate.ddl-auto=update");
+        long startupMs = boot(new String[]{"startup"});
+
+        System.out.printf("Démarrage par défaut (ddl-auto=update) : %d ms%n", defaultMs);
+        System.out.printf("Démarrage profil startup (validate, lazy) : %d ms%n", startupMs);
+    }
+
+    private static long boot(String[] profiles, String... extraArgs) {
+        String[] args = new String[DATABASE.length + extraArgs.length];
+        System.arraycopy(DATABASE, 0, args, 0, DATABASE.length);
+        System.arraycopy(extraArgs, 0, args, DATABASE.length, extraArgs.length);
+
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext ignored = new SpringApplicationBuilder(MyProjectApplication.class)
+                .profiles(profiles)
+                .run(args)) {
+            return (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.myProject.benchmark;
+
+import com.example.myProject.dto.ChapterWithLinesDTO;
+import com.example.myProject.dto.MainTableLineWithDetailsDTO;
+import com.example.myProject.dto.ProjectFullDTO;
+import com.example.myProject.model.Chapter;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import com.example.myProject.model.Project;
+import com.example.myProject.repository.ProjectRepository;
+import com.example.myProject.service.ProjectSyncService;
+import com.example.myProject.service.ProjectWriteCoordinator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Débit d'insertion de syncProject sur la base configurée (.env). Lignes et détails partent en batchs
+ * JDBC, que le profil perf (rewriteBatchedStatements) réécrit en INSERT multi-valeurs ; les réglages
+ * de lots Hibernate n'y changent rien (clés IDENTITY). À lancer avec et sans le profil perf pour comparer :
+ * mvn test -Dgroups=benchmark -DexcludedGroups= -Dtest=SyncProjectInsertBenchmark [-Dspring.profiles.active=perf]
+ */
+@Tag("benchmark")
+@SpringBootTest
+class SyncProjectInsertBenchmark {
+
+    private static final int CHAPTERS = 20;
+    private static final int LINES_PER_CHAPTER = 100;
+    private static final int DETAILS_PER_LINE = 3;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private ProjectSyncService projectSyncService;
+
+    @Autowired
+    private ProjectWriteCoordinator writeCoordinator;
+
+    @Test
+    void syncInsertThroughput() {
+        int rows = CHAPTERS * (1 + LINES_PER_CHAPTER * (1 + DETAILS_PER_LINE));
+        String profile = System.getProperty("spring.profiles.active", "default");
+
+        for (int round = 0; round < ROUNDS; round++) {
+            Project project = projectRepository.save(Project.builder().name("benchmark-sync").build());
+            ProjectFullDTO payload = payload(project);
+
+            long start = System.nanoTime();
+            writeCoordinator.run(project.getId(), () -> projectSyncService.sync(project.getId(), payload));
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.printf("[%s] tour %d : %d lignes insérées en %d ms (%.0f lignes/s)%n",
+                    profile, round + 1, rows, elapsedMs, rows * 1000.0 / Math.max(1, elapsedMs));
+
+            writeCoordinator.run(project.getId(), () -> projectSyncService.sync(project.getId(), emptyPayload(project)));
+            projectRepository.deleteById(project.getId());
+        }
+    }
+
+    private static ProjectFullDTO payload(Project project) {
+        List<ChapterWithLinesDTO> chapters = new ArrayList<>();
+        for (int c = 0; c < CHAPTERS; c++) {
+            List<MainTableLineWithDetailsDTO> lines = new ArrayList<>();
+            for (int l = 0; l < LINES_PER_CHAPTER; l++) {
+                List<DetailTableLine> details = new ArrayList<>();
+                for (int d = 0; d < DETAILS_PER_LINE; d++) {
+                    details.add(DetailTableLine.builder().title("Détail " + d).number(1.0).length(2.5)
+                            .width(1.2).height(0.2).factor(1.0).total(0.6).position(d).build());
+                }
+                MainTableLineWithDetailsDTO line = new MainTableLineWithDetailsDTO();
+                line.setMainTableLine(MainTableLine.builder().num("01." + l).title("Béton armé " + l).unit("m3")
+                        .quantity(1.8).unitPrice(120.0).totalPrice(216.0).position(l).build());
+                line.setDetails(details);
+                lines.add(line);
+            }
+            ChapterWithLinesDTO chapter = new ChapterWithLinesDTO();
+            chapter.setChapter(Chapter.builder().num(String.valueOf(c + 1)).label("Chapitre " + (c + 1)).build());
+            chapter.setLines(lines);
+            chapters.add(chapter);
+        }
+        ProjectFullDTO payload = new ProjectFullDTO();
+        payload.setProject(project);
+        payload.setChapters(chapters);
+        return payload;
+    }
+
+    private static ProjectFullDTO emptyPayload(Project project) {
+        ProjectFullDTO payload = new ProjectFullDTO();
+        payload.setProject(project);
+        payload.setChapters(List.of());
+        return payload;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.myProject.config;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Routage vu depuis une requête HTTP complète (JPA, intercepteurs) : une mise à jour qui commence par
+ * un findById read-only doit quand même écrire sur le primaire. Le réplica porte une copie divergente
+ * de la ligne pour que toute écriture qui s'y perdrait soit visible.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "myproject.auth.token-secret=test-secret",
+        "myproject.datasource.replica-urls=jdbc:h2:mem:routing-replica;MODE=MySQL;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingJpaTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    private final JdbcTemplate primary = database("routing-primary");
+    private final JdbcTemplate replica = database("routing-replica");
+
+    // Avant le contexte : le démarrage lit déjà sur le réplica (project_summary)
+    @BeforeAll
+    static void createReplicaSchema() {
+        JdbcTemplate replica = database("routing-replica");
+        replica.execute("CREATE TABLE IF NOT EXISTS project_summary (project_id BIGINT PRIMARY KEY, company_id BIGINT, user_id BIGINT,"
+                + " name VARCHAR(255), chapter_count BIGINT, line_count BIGINT, total_price DOUBLE, updated_at TIMESTAMP)");
+        replica.execute("CREATE TABLE IF NOT EXISTS main_table_line (id BIGINT PRIMARY KEY, chapter_id BIGINT NOT NULL, project_id BIGINT,"
+                + " position INT, num VARCHAR(255), code VARCHAR(255), gr VARCHAR(255), title VARCHAR(255), nm VARCHAR(255), unit VARCHAR(255),"
+                + " quantity DOUBLE, up DOUBLE, total_price DOUBLE, comments VARCHAR(255))");
+    }
+
+    @BeforeEach
+    void setUp() {
+        primary.update("DELETE FROM main_table_line");
+        primary.update("DELETE FROM chapter");
+        primary.update("DELETE FROM project");
+        primary.update("INSERT INTO project (id, name, company_id) VALUES (1, 'P', 1)");
+        primary.update("INSERT INTO chapter (id, project_id, num, label, position) VALUES (1, 1, '1', 'C', 1024)");
+        for (JdbcTemplate node : new JdbcTemplate[]{primary, replica}) {
+            node.update("DELETE FROM main_table_line WHERE id = 1");
+            node.update("INSERT INTO main_table_line (id, chapter_id, project_id, num, title, position) VALUES (1, 1, 1, '1.1', ?, 1024)",
+                    node == primary ? "primary" : "replica");
+        }
+    }
+
+    @Test
+    void updateStartingWithReadOnlyLookupWritesToPrimary() throws Exception {
+        mvc.perform(put("/myProject/api/main-lines/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"edited\",\"position\":1024}"))
+                .andExpect(status().isOk());
+
+        assertEquals("edited", title(primary));
+        assertEquals("replica", title(replica));
+    }
+
+    private static String title(JdbcTemplate node) {
+        return node.queryForObject("SELECT title FROM main_table_line WHERE id = 1", String.class);
+    }
+
+    private static JdbcTemplate database(String name) {
+        return new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+    }
+}
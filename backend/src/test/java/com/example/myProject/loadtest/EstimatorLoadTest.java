@@ -0,0 +1,187 @@
+package com.example.myProject.loadtest;
+
+import com.example.myProject.loadtest.EstimatorWorkload.Operation;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Rejoue un trafic d'estimateurs à débit d'arrivée fixe contre l'application démarrée sur H2 en mémoire,
+ * sans réseau ni base externe. La latence est mesurée depuis l'instant où la requête aurait dû partir :
+ * si le serveur prend du retard, l'attente dans la file compte (pas d'omission coordonnée).
+ *
+ * mvn test -Dgroups=loadtest -DexcludedGroups= -Dtest=EstimatorLoadTest
+ *     [-Dloadtest.rate=50] [-Dloadtest.duration=60] [-Dloadtest.warmup=15] [-Dloadtest.workers=64]
+ *     [-Dloadtest.mix=full:35,sync:5,line:25,detail:20,list:15]
+ *     [-Dloadtest.companies=3] [-Dloadtest.projects=30] [-Dloadtest.seed=42]
+ *
+ * Les histogrammes complets sont écrits dans target/loadtest/*.hgrm (format HdrHistogram, en ms).
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.hikari.maximum-pool-size=20",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "myproject.auth.token-secret=test-secret",
+        "myproject.stream.chunk-size=500",
+        // Tous les estimateurs simulés partagent une adresse : on mesure le serveur, pas ses quotas
+        "myproject.admission.enabled=false"
+})
+class EstimatorLoadTest {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Test
+    void replayEstimatorTraffic() throws Exception {
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "50"));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration", 60));
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup", 15));
+        int workers = Integer.getInteger("loadtest.workers", 64);
+        Mix mix = Mix.parse(System.getProperty("loadtest.mix", "full:35,sync:5,line:25,detail:20,list:15"));
+
+        EstimatorWorkload workload = new EstimatorWorkload(rest);
+        workload.seed(Integer.getInteger("loadtest.companies", 3), Integer.getInteger("loadtest.projects", 30),
+                Long.getLong("loadtest.seed", 42));
+
+        run(workload, mix, rate, warmup, workers);
+        Result result = run(workload, mix, rate, duration, workers);
+        report(result, rate, mix);
+    }
+
+    private static Result run(EstimatorWorkload workload, Mix mix, double rate, Duration duration, int workers)
+            throws InterruptedException {
+        Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+        Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(3));
+            errors.put(operation, new AtomicLong());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        long intervalNanos = (long) (1_000_000_000L / rate);
+        long arrivals = duration.toNanos() / intervalNanos;
+        long start = System.nanoTime();
+        for (long i = 0; i < arrivals; i++) {
+            long intended = start + i * intervalNanos;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = mix.pick();
+            executor.execute(() -> {
+                boolean ok;
+                try {
+                    ok = workload.execute(operation);
+                } catch (RuntimeException e) {
+                    ok = false;
+                }
+                long latencyMicros = (System.nanoTime() - intended) / 1_000;
+                recorders.get(operation).recordValue(latencyMicros);
+                if (!ok) {
+                    errors.get(operation).incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        recorders.forEach((operation, recorder) -> histograms.put(operation, recorder.getIntervalHistogram()));
+        return new Result(histograms, errors, seconds);
+    }
+
+    private static void report(Result result, double rate, Mix mix) throws IOException {
+        Path directory = Path.of("target", "loadtest");
+        Files.createDirectories(directory);
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+
+        System.out.printf(Locale.ROOT, "%nCharge : %.0f req/s pendant %.0f s, mélange %s%n", rate, result.seconds(), mix);
+        System.out.printf(Locale.ROOT, "%-8s %8s %7s %9s %9s %9s %9s %9s%n",
+                "op", "requêtes", "erreurs", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = result.histograms().get(operation);
+            long errors = result.errors().get(operation).get();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(histogram);
+            totalErrors += errors;
+            line(operation.name().toLowerCase(Locale.ROOT), histogram, errors, result.seconds());
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(operation.name().toLowerCase(Locale.ROOT) + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        line("total", total, totalErrors, result.seconds());
+    }
+
+    private static void line(String name, Histogram histogram, long errors, double seconds) {
+        System.out.printf(Locale.ROOT, "%-8s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+    }
+
+    private record Result(Map<Operation, Histogram> histograms, Map<Operation, AtomicLong> errors, double seconds) {
+    }
+
+    // Poids relatifs par opération, tirage par poids cumulés
+    private record Mix(Operation[] operations, int[] cumulative, String description) {
+
+        static Mix parse(String spec) {
+            Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+            for (String entry : spec.split(",")) {
+                String[] parts = entry.trim().split(":");
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+            }
+            Operation[] operations = weights.keySet().toArray(new Operation[0]);
+            int[] cumulative = new int[operations.length];
+            int sum = 0;
+            for (int i = 0; i < operations.length; i++) {
+                sum += weights.get(operations[i]);
+                cumulative[i] = sum;
+            }
+            return new Mix(operations, cumulative, spec);
+        }
+
+        Operation pick() {
+            int draw = ThreadLocalRandom.current().nextInt(cumulative[cumulative.length - 1]);
+            for (int i = 0; i < cumulative.length; i++) {
+                if (draw < cumulative[i]) {
+                    return operations[i];
+                }
+            }
+            return operations[operations.length - 1];
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+}
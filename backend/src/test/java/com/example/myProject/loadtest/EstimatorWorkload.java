@@ -0,0 +1,237 @@
+package com.example.myProject.loadtest;
+
+import com.example.myProject.dto.ChapterWithLinesDTO;
+import com.example.myProject.dto.DetailTableLineRequestDTO;
+import com.example.myProject.dto.MainTableLineRequestDTO;
+import com.example.myProject.dto.MainTableLineWithDetailsDTO;
+import com.example.myProject.dto.ProjectFullDTO;
+import com.example.myProject.dto.ProjectRequestDTO;
+import com.example.myProject.model.Chapter;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import com.example.myProject.model.Project;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Données synthétiques et requêtes d'un estimateur, toutes passées par l'API HTTP.
+ * Les projets sont répartis comme les sessions d'édition réelles : un projet est soit édité par
+ * synchronisations complètes, soit ligne par ligne, jamais les deux en même temps ; tous sont lus.
+ */
+class EstimatorWorkload {
+
+    enum Operation { FULL, SYNC, LINE, DETAIL, LIST }
+
+    private static final String API = "/myProject/api";
+    private static final String[] UNITS = {"m", "m2", "m3", "kg", "U", "ff"};
+    // Au-delà, les opérations de ligne et de détail créent moins et modifient ou suppriment davantage
+    private static final int POOL_TARGET = 200;
+
+    private final TestRestTemplate rest;
+    private final List<Long> projectIds = new ArrayList<>();
+    private final List<Long> syncProjectIds = new ArrayList<>();
+    private final List<Long> crudChapterIds = new ArrayList<>();
+    private final List<Long> crudLineIds = new ArrayList<>();
+    private final Map<Long, List<Long>> chapterIdsByProject = new HashMap<>();
+    private final Deque<Long> createdLines = new ConcurrentLinkedDeque<>();
+    private final Deque<Long> createdDetails = new ConcurrentLinkedDeque<>();
+
+    EstimatorWorkload(TestRestTemplate rest) {
+        this.rest = rest;
+    }
+
+    // Tailles tirées d'après des devis courants : 5 à 25 chapitres, 3 à 40 lignes, 0 à 4 détails par ligne
+    // Pas de comptes utilisateurs : /users exige un jeton et aucune opération simulée ne se connecte
+    void seed(int companies, int projects, long seed) {
+        Random random = new Random(seed);
+        List<Long> companyIds = new ArrayList<>();
+        for (int c = 0; c < companies; c++) {
+            Map<String, Object> company = Map.of("name", "Entreprise " + c, "vat", "BE0" + (100000000 + c),
+                    "email", "contact" + c + "@example.test", "country", "BE");
+            companyIds.add(idOf(rest.postForObject(API + "/companies", company, Map.class)));
+        }
+
+        for (int p = 0; p < projects; p++) {
+            ProjectRequestDTO request = new ProjectRequestDTO();
+            request.setName("Chantier " + p);
+            request.setCompanyId(companyIds.get(p % companies));
+            Project project = rest.postForObject(API + "/projects", request, Project.class);
+            ProjectFullDTO full = new ProjectFullDTO();
+            full.setProject(project);
+            full.setChapters(chapters(random));
+            rest.put(API + "/projects/" + project.getId() + "/full", full);
+
+            ProjectFullDTO stored = rest.getForObject(API + "/projects/" + project.getId() + "/full", ProjectFullDTO.class);
+            List<Long> chapterIds = stored.getChapters().stream().map(c -> c.getChapter().getId()).toList();
+            projectIds.add(project.getId());
+            chapterIdsByProject.put(project.getId(), chapterIds);
+            if (p % 2 == 0) {
+                syncProjectIds.add(project.getId());
+            } else {
+                crudChapterIds.addAll(chapterIds);
+                stored.getChapters().forEach(c -> c.getLines().forEach(l -> crudLineIds.add(l.getMainTableLine().getId())));
+            }
+        }
+    }
+
+    boolean execute(Operation operation) {
+        return switch (operation) {
+            case FULL -> ok(rest.getForEntity(API + "/projects/" + pick(projectIds) + "/full", String.class));
+            case SYNC -> sync();
+            case LINE -> lineCrud();
+            case DETAIL -> detailCrud();
+            case LIST -> list();
+        };
+    }
+
+    // Comme l'éditeur : relecture du projet, modification d'une quantité, envoi complet
+    private boolean sync() {
+        Long projectId = pick(syncProjectIds);
+        ResponseEntity<ProjectFullDTO> response = rest.getForEntity(API + "/projects/" + projectId + "/full", ProjectFullDTO.class);
+        if (!ok(response)) {
+            return false;
+        }
+        ProjectFullDTO full = response.getBody();
+        List<MainTableLineWithDetailsDTO> lines = pick(full.getChapters()).getLines();
+        if (!lines.isEmpty()) {
+            MainTableLine line = pick(lines).getMainTableLine();
+            line.setQuantity(ThreadLocalRandom.current().nextInt(1, 500) / 10.0);
+            line.setTotalPrice(line.getQuantity() * line.getUnitPrice());
+        }
+        return ok(rest.exchange(API + "/projects/" + projectId + "/full", HttpMethod.PUT, new HttpEntity<>(full), Void.class));
+    }
+
+    private boolean lineCrud() {
+        int action = createdLines.size() < POOL_TARGET ? 0 : ThreadLocalRandom.current().nextInt(3);
+        if (action == 0) {
+            MainTableLineRequestDTO dto = lineRequest();
+            dto.setChapterId(pick(crudChapterIds));
+            ResponseEntity<MainTableLine> response = rest.postForEntity(API + "/main-lines", dto, MainTableLine.class);
+            if (ok(response)) {
+                createdLines.add(response.getBody().getId());
+            }
+            return ok(response);
+        }
+        // Chaque ligne n'est modifiée ou supprimée que par un seul appel à la fois
+        Long id = createdLines.pollFirst();
+        if (id == null) {
+            return true;
+        }
+        if (action == 1) {
+            MainTableLineRequestDTO dto = lineRequest();
+            boolean ok = ok(rest.exchange(API + "/main-lines/" + id, HttpMethod.PUT, new HttpEntity<>(dto), MainTableLine.class));
+            createdLines.addLast(id);
+            return ok;
+        }
+        return ok(rest.exchange(API + "/main-lines/" + id, HttpMethod.DELETE, null, Void.class));
+    }
+
+    private boolean detailCrud() {
+        int action = createdDetails.size() < POOL_TARGET ? 0 : ThreadLocalRandom.current().nextInt(3);
+        if (action == 0) {
+            DetailTableLineRequestDTO dto = detailRequest();
+            dto.setMainTableLineId(pick(crudLineIds));
+            ResponseEntity<DetailTableLine> response = rest.postForEntity(API + "/detail-lines", dto, DetailTableLine.class);
+            if (ok(response)) {
+                createdDetails.add(response.getBody().getId());
+            }
+            return ok(response);
+        }
+        Long id = createdDetails.pollFirst();
+        if (id == null) {
+            return true;
+        }
+        if (action == 1) {
+            DetailTableLineRequestDTO dto = detailRequest();
+            boolean ok = ok(rest.exchange(API + "/detail-lines/" + id, HttpMethod.PUT, new HttpEntity<>(dto), DetailTableLine.class));
+            createdDetails.addLast(id);
+            return ok;
+        }
+        return ok(rest.exchange(API + "/detail-lines/" + id, HttpMethod.DELETE, null, Void.class));
+    }
+
+    private boolean list() {
+        Long projectId = pick(projectIds);
+        return switch (ThreadLocalRandom.current().nextInt(3)) {
+            case 0 -> ok(rest.getForEntity(API + "/projects", String.class));
+            case 1 -> ok(rest.getForEntity(API + "/chapters/project/" + projectId, String.class));
+            default -> ok(rest.getForEntity(API + "/main-lines/chapter/" + pick(chapterIdsByProject.get(projectId)), String.class));
+        };
+    }
+
+    private static List<ChapterWithLinesDTO> chapters(Random random) {
+        List<ChapterWithLinesDTO> chapters = new ArrayList<>();
+        int chapterCount = 5 + random.nextInt(21);
+        for (int c = 0; c < chapterCount; c++) {
+            // Un chapitre sur trois est un sous-chapitre du précédent chapitre racine
+            boolean child = c > 0 && random.nextInt(3) == 0;
+            Chapter chapter = Chapter.builder().num(String.valueOf(c + 1)).label("Chapitre " + (c + 1))
+                    .tempId("c" + c).parentTempId(child ? "c" + (c - 1) : null).build();
+            List<MainTableLineWithDetailsDTO> lines = new ArrayList<>();
+            int lineCount = 3 + random.nextInt(38);
+            for (int l = 0; l < lineCount; l++) {
+                double quantity = 1 + random.nextInt(200) / 4.0;
+                double unitPrice = 5 + random.nextInt(4000) / 10.0;
+                MainTableLineWithDetailsDTO line = new MainTableLineWithDetailsDTO();
+                line.setMainTableLine(MainTableLine.builder().num((c + 1) + "." + (l + 1)).title("Poste " + (l + 1))
+                        .unit(UNITS[random.nextInt(UNITS.length)]).quantity(quantity).unitPrice(unitPrice)
+                        .totalPrice(quantity * unitPrice).position(l).build());
+                List<DetailTableLine> details = new ArrayList<>();
+                int detailCount = random.nextInt(5);
+                for (int d = 0; d < detailCount; d++) {
+                    details.add(DetailTableLine.builder().title("Métré " + (d + 1)).number(1.0 + random.nextInt(4))
+                            .length(1 + random.nextInt(100) / 10.0).width(1 + random.nextInt(50) / 10.0)
+                            .factor(1.0).total(quantity / Math.max(1, detailCount)).position(d).build());
+                }
+                line.setDetails(details);
+                lines.add(line);
+            }
+            ChapterWithLinesDTO dto = new ChapterWithLinesDTO();
+            dto.setChapter(chapter);
+            dto.setLines(lines);
+            chapters.add(dto);
+        }
+        return chapters;
+    }
+
+    private static MainTableLineRequestDTO lineRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        MainTableLineRequestDTO dto = new MainTableLineRequestDTO();
+        dto.setTitle("Poste ajouté");
+        dto.setUnit(UNITS[random.nextInt(UNITS.length)]);
+        dto.setQuantity(random.nextInt(1, 100) / 2.0);
+        dto.setUnitPrice(random.nextInt(50, 5000) / 10.0);
+        dto.setTotalPrice(dto.getQuantity() * dto.getUnitPrice());
+        return dto;
+    }
+
+    private static DetailTableLineRequestDTO detailRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        DetailTableLineRequestDTO dto = new DetailTableLineRequestDTO();
+        dto.setTitle("Métré ajouté");
+        dto.setNumber(1.0);
+        dto.setLength(random.nextInt(10, 100) / 10.0);
+        dto.setWidth(random.nextInt(10, 50) / 10.0);
+        dto.setFactor(1.0);
+        dto.setTotal(dto.getLength() * dto.getWidth());
+        return dto;
+    }
+
+    private static Long idOf(Map<?, ?> body) {
+        return ((Number) body.get("id")).longValue();
+    }
+
+    private static <T> T pick(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    private static boolean ok(ResponseEntity<?> response) {
+        return response.getStatusCode().is2xxSuccessful();
+    }
+}
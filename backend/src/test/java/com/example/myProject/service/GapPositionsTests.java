@@ -0,0 +1,42 @@
+package com.example.myProject.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GapPositionsTests {
+
+    @Test
+    void insertAtTopKeepsExistingPositions() {
+        int[] positions = GapPositions.assign(new Integer[]{null, 1024, 2048, 3072});
+
+        assertArrayEquals(new int[]{0, 1024, 2048, 3072}, positions);
+    }
+
+    @Test
+    void movedLineIsTheOnlyOneRewritten() {
+        // La ligne à 3072 est remontée entre 1024 et 2048
+        int[] positions = GapPositions.assign(new Integer[]{1024, 3072, 2048, 4096});
+
+        assertEquals(1024, positions[0]);
+        assertEquals(2048, positions[2]);
+        assertEquals(4096, positions[3]);
+        assertEquals(1536, positions[1]);
+    }
+
+    @Test
+    void denseLegacyPositionsAreRespacedWhenNoRoomIsLeft() {
+        int[] positions = GapPositions.assign(new Integer[]{0, null, 1, 2});
+
+        assertArrayEquals(GapPositions.renumber(4), positions);
+    }
+
+    @Test
+    void betweenReturnsNullWhenNeighboursAreAdjacent() {
+        assertEquals(1536, GapPositions.between(1024, 2048));
+        assertEquals(2048, GapPositions.between(1024, null));
+        assertNull(GapPositions.between(5, 6));
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.myProject.service;
+
+import com.example.myProject.controller.DetailTableLineController;
+import com.example.myProject.controller.MainTableLineController;
+import com.example.myProject.controller.ProjectController;
+import com.example.myProject.dto.ChapterWithLinesDTO;
+import com.example.myProject.dto.MainTableLineRequestDTO;
+import com.example.myProject.dto.MainTableLineWithDetailsDTO;
+import com.example.myProject.dto.ProjectFullDTO;
+import com.example.myProject.dto.ProjectRequestDTO;
+import com.example.myProject.dto.ProjectRevisionDTO;
+import com.example.myProject.dto.ProjectVersionDTO;
+import com.example.myProject.model.Chapter;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import com.example.myProject.model.Project;
+import com.example.myProject.repository.ChapterRepository;
+import com.example.myProject.repository.DetailTableLineRepository;
+import com.example.myProject.repository.MainTableLineRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rejoue l'historique jusqu'à la dernière révision et le compare à l'état en base, avec des écritures
+ * unitaires (ligne, détail) intercalées entre les synchronisations.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:history;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "myproject.auth.token-secret=test-secret"
+})
+class ProjectHistoryServiceTests {
+
+    @Autowired
+    private ProjectController projectController;
+
+    @Autowired
+    private MainTableLineController mainTableLineController;
+
+    @Autowired
+    private DetailTableLineController detailTableLineController;
+
+    @Autowired
+    private ProjectHistoryService historyService;
+
+    @Autowired
+    private ChapterRepository chapterRepository;
+
+    @Autowired
+    private MainTableLineRepository mainTableLineRepository;
+
+    @Autowired
+    private DetailTableLineRepository detailTableLineRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void replayedHistoryMatchesLiveStateAfterWritesOutsideSync() {
+        ProjectRequestDTO request = new ProjectRequestDTO();
+        request.setName("Historique");
+        request.setCompanyId(1L);
+        Project project = projectController.create(request);
+        Long projectId = project.getId();
+
+        MainTableLineWithDetailsDTO line = new MainTableLineWithDetailsDTO();
+        line.setMainTableLine(MainTableLine.builder().title("Béton").unit("m3")
+                .quantity(2.0).unitPrice(100.0).totalPrice(200.0).build());
+        line.setDetails(List.of(DetailTableLine.builder().title("Semelle").number(2.0).total(2.0).build()));
+        ChapterWithLinesDTO chapter = new ChapterWithLinesDTO();
+        chapter.setChapter(Chapter.builder().label("Gros œuvre").tempId("c1").build());
+        chapter.setLines(List.of(line));
+        ProjectFullDTO full = new ProjectFullDTO();
+        full.setProject(project);
+        full.setChapters(List.of(chapter));
+        projectController.syncProject(projectId, full);
+
+        // Écritures unitaires entre deux syncs : modification, ajout, suppression
+        Long chapterId = chapterRepository.findByProjectId(projectId).get(0).getId();
+        MainTableLine existing = mainTableLineRepository.findByChapterId(chapterId).get(0);
+        mainTableLineController.update(existing.getId(), lineRequest(chapterId, "Béton armé", 3.0, existing.getPosition()));
+        mainTableLineController.create(lineRequest(chapterId, "Coffrage", 12.0, null));
+        detailTableLineController.delete(detailTableLineRepository.findByMainTableLineId(existing.getId()).get(0).getId());
+
+        // La sync suivante renvoie l'état relu : seul le nom change de son point de vue
+        ProjectFullDTO reloaded = projectController.getFullProject(projectId);
+        reloaded.getProject().setName("Historique v2");
+        projectController.syncProject(projectId, reloaded);
+        assertReplayMatchesLiveState(projectId);
+
+        // Encore une écriture unitaire, puis une sync qui ne change rien d'autre
+        mainTableLineController.update(existing.getId(), lineRequest(chapterId, "Béton armé C25", 4.0, existing.getPosition()));
+        projectController.syncProject(projectId, projectController.getFullProject(projectId));
+        assertReplayMatchesLiveState(projectId);
+    }
+
+    private void assertReplayMatchesLiveState(Long projectId) {
+        List<ProjectRevisionDTO> versions = historyService.listVersions(projectId);
+        Integer latest = versions.stream().map(ProjectRevisionDTO::getVersion).max(Integer::compare).orElseThrow();
+        ProjectVersionDTO replayed = historyService.getVersion(projectId, latest);
+
+        assertEquals(projectController.getById(projectId).getName(), replayed.getName());
+        assertSameRows(chapterRepository.findByProjectId(projectId), replayed.getChapters(), Chapter::getId);
+        assertSameRows(mainTableLineRepository.findByProjectIdOrderByPositionAscIdAsc(projectId), replayed.getLines(), MainTableLine::getId);
+        assertSameRows(detailTableLineRepository.findByProjectIdOrderByPositionAscIdAsc(projectId), replayed.getDetails(), DetailTableLine::getId);
+    }
+
+    private <T> void assertSameRows(List<T> live, List<T> replayed, Function<T, Long> id) {
+        Comparator<T> byId = Comparator.comparing(id);
+        assertEquals(
+                objectMapper.valueToTree(live.stream().sorted(byId).toList()),
+                objectMapper.valueToTree(replayed.stream().sorted(byId).toList())
+        );
+    }
+
+    private static MainTableLineRequestDTO lineRequest(Long chapterId, String title, Double quantity, Integer position) {
+        MainTableLineRequestDTO dto = new MainTableLineRequestDTO();
+        dto.setChapterId(chapterId);
+        dto.setTitle(title);
+        dto.setUnit("m3");
+        dto.setQuantity(quantity);
+        dto.setUnitPrice(100.0);
+        dto.setTotalPrice(quantity * 100.0);
+        dto.setPosition(position);
+        return dto;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.myProject.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTests {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void burstIsServedThenCallersWaitForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(2, 3, 0);
+
+        assertEquals(0, bucket.tryTake(0));
+        assertEquals(0, bucket.tryTake(0));
+        assertEquals(0, bucket.tryTake(0));
+        // 2 jetons par seconde : le suivant arrive dans une demi-seconde
+        assertEquals(SECOND / 2, bucket.tryTake(0));
+        assertEquals(0, bucket.tryTake(SECOND / 2));
+    }
+
+    @Test
+    void refillNeverExceedsTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+        bucket.tryTake(0);
+        bucket.tryTake(0);
+
+        assertFalse(bucket.isFull(0));
+        assertTrue(bucket.isFull(60 * SECOND));
+        assertEquals(0, bucket.tryTake(60 * SECOND));
+        assertEquals(0, bucket.tryTake(60 * SECOND));
+        assertTrue(bucket.tryTake(60 * SECOND) > 0);
+    }
+
+    @Test
+    void givenBackTokenCanBeTakenAgain() {
+        TokenBucket bucket = new TokenBucket(1, 1, 0);
+        bucket.tryTake(0);
+        bucket.giveBack(0);
+
+        assertEquals(0, bucket.tryTake(0));
+    }
+}
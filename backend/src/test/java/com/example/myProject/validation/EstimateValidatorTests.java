@@ -0,0 +1,104 @@
+package com.example.myProject.validation;
+
+import com.example.myProject.dto.ChapterWithLinesDTO;
+import com.example.myProject.dto.MainTableLineWithDetailsDTO;
+import com.example.myProject.dto.ProjectFullDTO;
+import com.example.myProject.model.Chapter;
+import com.example.myProject.model.DetailTableLine;
+import com.example.myProject.model.MainTableLine;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EstimateValidatorTests {
+
+    private final EstimateValidator validator = new EstimateValidator(Set.of("m2", "m3", "U"), 1000);
+
+    @Test
+    void validProjectPasses() {
+        ProjectFullDTO project = project(
+                chapter(Chapter.builder().tempId("a").build(),
+                        line(MainTableLine.builder().quantity(2.0).unit("M3").unitPrice(10.0).position(0).build(),
+                                DetailTableLine.builder().length(2.0).factor(-1.0).position(0).build())),
+                chapter(Chapter.builder().tempId("b").parentTempId("a").build()));
+
+        assertDoesNotThrow(() -> validator.validate(project));
+    }
+
+    @Test
+    void allViolationsAreReportedTogether() {
+        ProjectFullDTO project = project(
+                chapter(Chapter.builder().tempId("a").build(),
+                        line(MainTableLine.builder().quantity(-1.0).position(0).build()),
+                        line(MainTableLine.builder().unit("kg").position(0).build(),
+                                DetailTableLine.builder().width(-3.0).build())));
+
+        EstimateValidationException e = assertThrows(EstimateValidationException.class, () -> validator.validate(project));
+
+        assertEquals(List.of(
+                "chapters[0].lines[0].mainTableLine.quantity:NEGATIVE",
+                "chapters[0].lines[0].mainTableLine.unit:MISSING_UNIT",
+                "chapters[0].lines[1].mainTableLine.unit:UNKNOWN_UNIT",
+                "chapters[0].lines[1].mainTableLine.position:DUPLICATE_POSITION",
+                "chapters[0].lines[1].details[0].width:NEGATIVE"),
+                e.getViolations().stream().map(v -> v.path() + ":" + v.code()).toList());
+    }
+
+    @Test
+    void chapterCycleIsDetected() {
+        ProjectFullDTO project = project(
+                chapter(Chapter.builder().id(1L).parentId(3L).build()),
+                chapter(Chapter.builder().id(2L).parentId(1L).build()),
+                chapter(Chapter.builder().id(3L).parentId(2L).build()),
+                chapter(Chapter.builder().id(4L).parentId(2L).build()));
+
+        EstimateValidationException e = assertThrows(EstimateValidationException.class, () -> validator.validate(project));
+
+        assertEquals(1, e.getViolations().size());
+        assertEquals("CYCLE", e.getViolations().get(0).code());
+    }
+
+    @Test
+    void missingElementsAreViolationsNotErrors() {
+        ChapterWithLinesDTO withoutChapter = chapter(null, line(MainTableLine.builder().build()));
+        MainTableLineWithDetailsDTO withoutLine = line(null);
+        ProjectFullDTO project = project(
+                withoutChapter,
+                chapter(Chapter.builder().tempId("a").build(), withoutLine,
+                        line(MainTableLine.builder().build(), (DetailTableLine) null)));
+
+        EstimateValidationException e = assertThrows(EstimateValidationException.class, () -> validator.validate(project));
+
+        assertEquals(List.of(
+                "chapters[0].chapter:MISSING",
+                "chapters[1].lines[0].mainTableLine:MISSING",
+                "chapters[1].lines[1].details[0]:MISSING"),
+                e.getViolations().stream().map(v -> v.path() + ":" + v.code()).toList());
+    }
+
+    private static ProjectFullDTO project(ChapterWithLinesDTO... chapters) {
+        ProjectFullDTO project = new ProjectFullDTO();
+        project.setChapters(List.of(chapters));
+        return project;
+    }
+
+    private static ChapterWithLinesDTO chapter(Chapter chapter, MainTableLineWithDetailsDTO... lines) {
+        ChapterWithLinesDTO dto = new ChapterWithLinesDTO();
+        dto.setChapter(chapter);
+        dto.setLines(Arrays.asList(lines));
+        return dto;
+    }
+
+    private static MainTableLineWithDetailsDTO line(MainTableLine line, DetailTableLine... details) {
+        MainTableLineWithDetailsDTO dto = new MainTableLineWithDetailsDTO();
+        dto.setMainTableLine(line);
+        dto.setDetails(Arrays.asList(details));
+        return dto;
+    }
+}